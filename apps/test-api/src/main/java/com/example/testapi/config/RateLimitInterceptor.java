@@ -0,0 +1,58 @@
+package com.example.testapi.config;
+
+import com.example.testapi.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects requests over the {@link RateLimiter} limits with 429 Too Many Requests and a
+ * Retry-After header (whole seconds, rounded up) telling the client when to come back.
+ *
+ * Clients are identified by the X-Client-Id header, or by their remote address without it.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final byte[] BODY = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId == null || clientId.isBlank()) {
+            clientId = request.getRemoteAddr();
+        }
+
+        long waitMillis = rateLimiter.tryAcquire(clientId);
+        if (waitMillis == 0) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitMillis + 999) / 1000);
+        log.debug("Rate limited client {}, retry after {}s", clientId, retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(BODY);
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.testapi.config;
+
+import com.example.testapi.fault.FaultInjectionInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final FaultInjectionInterceptor faultInjectionInterceptor;
+
+    public WebMvcConfig(RateLimitInterceptor rateLimitInterceptor, FaultInjectionInterceptor faultInjectionInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.faultInjectionInterceptor = faultInjectionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Rate limiting first, so rejected requests are not delayed by injected faults
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(faultInjectionInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -1,16 +1,23 @@
 package com.example.testapi.controller;
 
 import com.example.testapi.model.AccountRequest;
-import com.example.testapi.model.AccountResponse;
+import com.example.testapi.service.AccountResponseEncoder;
+import com.example.testapi.service.IdempotencyCache;
 import com.example.testapi.service.RandomDataGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
@@ -18,28 +25,58 @@ public class AccountController {
     private static final Logger log = LoggerFactory.getLogger(AccountController.class);
 
     private final RandomDataGenerator randomDataGenerator;
+    private final AccountResponseEncoder responseEncoder;
+    private final IdempotencyCache idempotencyCache;
+    private final long logSampleEvery;
+    private final AtomicLong requestCount = new AtomicLong();
 
-    public AccountController(RandomDataGenerator randomDataGenerator) {
+    public AccountController(
+            RandomDataGenerator randomDataGenerator,
+            AccountResponseEncoder responseEncoder,
+            IdempotencyCache idempotencyCache,
+            @Value("${request-logging.sample-every:1000}") long logSampleEvery) {
         this.randomDataGenerator = randomDataGenerator;
+        this.responseEncoder = responseEncoder;
+        this.idempotencyCache = idempotencyCache;
+        this.logSampleEvery = logSampleEvery;
     }
 
     @PostMapping
-    public ResponseEntity<AccountResponse> createAccount(@RequestBody AccountRequest request) {
-        log.info("Received request: {}", request);
-
-        // Generate a random response message
-        String randomMessage = randomDataGenerator.generateMessage();
-
-        AccountResponse response = new AccountResponse(
-            request.firstName(),
-            request.lastName(),
-            request.accountNumber(),
-            request.accountAction(),
-            randomMessage
-        );
-
-        log.info("Returning response: {}", response);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> createAccount(
+            @RequestBody AccountRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        // Log one request in logSampleEvery (0 disables request logging)
+        boolean sampled = logSampleEvery > 0 && requestCount.getAndIncrement() % logSampleEvery == 0;
+        if (sampled) {
+            log.info("Received request (1 in {} logged): {}", logSampleEvery, request);
+        }
+
+        if (idempotencyKey != null) {
+            // Repeated (retried or hedged) requests get the response of the first one
+            IdempotencyCache.Result<byte[]> result =
+                idempotencyCache.getOrCompute(idempotencyKey, () -> buildResponse(request));
+            if (result.replayed()) {
+                log.debug("Replaying response for Idempotency-Key {}", idempotencyKey);
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Idempotent-Replayed", "true")
+                    .body(result.value());
+            }
+            return respond(result.value(), sampled);
+        }
+
+        return respond(buildResponse(request), sampled);
     }
-}
 
+    private ResponseEntity<byte[]> respond(byte[] response, boolean sampled) {
+        if (sampled) {
+            log.info("Returning response: {}", new String(response, StandardCharsets.UTF_8));
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    private byte[] buildResponse(AccountRequest request) {
+        // Echo the request with a random, pre-encoded message
+        return responseEncoder.encode(request, randomDataGenerator.nextMessageIndex());
+    }
+}
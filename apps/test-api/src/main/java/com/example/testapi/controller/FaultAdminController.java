@@ -0,0 +1,59 @@
+package com.example.testapi.controller;
+
+import com.example.testapi.fault.FaultInjector;
+import com.example.testapi.fault.FaultSchedule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Runtime control of fault injection: PUT a {@link FaultSchedule} to start it, GET to see where
+ * it is, DELETE to serve normally again.
+ */
+@RestController
+@RequestMapping("/admin/faults")
+@ConditionalOnProperty(name = "fault-injection.admin-enabled", havingValue = "true")
+public class FaultAdminController {
+
+    private final FaultInjector faultInjector;
+
+    public FaultAdminController(FaultInjector faultInjector) {
+        this.faultInjector = faultInjector;
+    }
+
+    @GetMapping
+    public ResponseEntity<FaultInjector.Status> status() {
+        FaultInjector.Status status = faultInjector.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    @PutMapping
+    public ResponseEntity<FaultInjector.Status> activate(@RequestBody FaultSchedule schedule) {
+        faultInjector.activate(schedule);
+        return ResponseEntity.ok(faultInjector.status());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        faultInjector.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<Map<String, String>> invalidSchedule(Exception e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && !(cause instanceof IllegalArgumentException)) {
+            cause = cause.getCause();
+        }
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(cause.getMessage())));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.testapi.fault;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies the {@link FaultInjector}'s decision to a request: waits for the injected delay, then
+ * either lets the request through or answers with the injected error status.
+ */
+@Component
+public class FaultInjectionInterceptor implements HandlerInterceptor {
+
+    private final FaultInjector faultInjector;
+
+    public FaultInjectionInterceptor(FaultInjector faultInjector) {
+        this.faultInjector = faultInjector;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        FaultInjector.Fault fault = faultInjector.next();
+        if (fault == null) {
+            return true;
+        }
+
+        if (fault.delayMillis() > 0) {
+            try {
+                Thread.sleep(fault.delayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (fault.status() == 0) {
+            return true;
+        }
+
+        response.setStatus(fault.status());
+        response.setHeader("X-Fault-Injected", fault.window());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(
+            ("{\"error\":\"Injected fault\",\"status\":" + fault.status() + "}").getBytes(StandardCharsets.UTF_8));
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.testapi.fault;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which fault, if any, to inject into a request, following the active {@link FaultSchedule}.
+ *
+ * With no schedule active the only cost per request is one volatile read. A schedule is activated
+ * through the admin endpoint or, at startup, from {@code fault-injection.schedule-file}, and its
+ * windows are timed from the moment of activation. The meters for each window are registered on
+ * activation, so a faulted request only looks up its window's timer and counter.
+ */
+@Component
+public class FaultInjector {
+
+    private static final Logger log = LoggerFactory.getLogger(FaultInjector.class);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final String scheduleFile;
+
+    private volatile Active active;
+
+    public FaultInjector(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${fault-injection.schedule-file:}") String scheduleFile) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.scheduleFile = scheduleFile;
+    }
+
+    @PostConstruct
+    public void loadScheduleFile() throws IOException {
+        if (scheduleFile == null || scheduleFile.isBlank()) {
+            return;
+        }
+        FaultSchedule schedule = objectMapper.readValue(Files.readAllBytes(Path.of(scheduleFile)), FaultSchedule.class);
+        activate(schedule);
+    }
+
+    public void activate(FaultSchedule schedule) {
+        Map<FaultWindow, WindowMeters> meters = new IdentityHashMap<>();
+        for (FaultWindow window : schedule.windows()) {
+            meters.put(window, registerMeters(window));
+        }
+        active = new Active(schedule, meters, System.nanoTime(), Instant.now());
+        log.info("Fault injection activated with {} window(s), cycle {}ms",
+            schedule.windows().size(), schedule.cycleMillis());
+    }
+
+    public void clear() {
+        if (active != null) {
+            log.info("Fault injection cleared");
+        }
+        active = null;
+    }
+
+    /**
+     * The active schedule and where it currently is, or null if none is active.
+     */
+    public Status status() {
+        Active current = active;
+        if (current == null) {
+            return null;
+        }
+        long elapsedMillis = (System.nanoTime() - current.startNanos) / 1_000_000;
+        FaultWindow window = current.schedule.windowAt(elapsedMillis);
+        return new Status(current.schedule, current.activatedAt, elapsedMillis, window != null ? window.name() : null);
+    }
+
+    /**
+     * Fault to inject into the current request, or null to serve it normally.
+     */
+    public Fault next() {
+        Active current = active;
+        if (current == null) {
+            return null;
+        }
+        FaultWindow window = current.schedule.windowAt((System.nanoTime() - current.startNanos) / 1_000_000);
+        if (window == null) {
+            return null;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMillis = window.latency() != null ? Math.max(0, window.latency().sampleMillis(random)) : 0;
+        int status = pickStatus(window.errorRates(), random);
+        if (delayMillis == 0 && status == 0) {
+            return null;
+        }
+
+        WindowMeters meters = current.meters.get(window);
+        if (delayMillis > 0) {
+            meters.delay().record(Duration.ofMillis(delayMillis));
+        }
+        if (status != 0) {
+            meters.errors().get(status).increment();
+        }
+        return new Fault(meters.name(), delayMillis, status);
+    }
+
+    private WindowMeters registerMeters(FaultWindow window) {
+        String name = window.name() != null ? window.name() : "unnamed";
+        Timer delay = window.latency() == null ? null : Timer.builder("api.fault.delay")
+            .description("Delay injected into requests")
+            .tag("window", name)
+            .register(meterRegistry);
+        Map<Integer, Counter> errors = new HashMap<>();
+        for (Integer status : window.errorRates().keySet()) {
+            errors.put(status, Counter.builder("api.fault.errors")
+                .description("Requests answered with an injected error status")
+                .tag("window", name)
+                .tag("status", Integer.toString(status))
+                .register(meterRegistry));
+        }
+        return new WindowMeters(name, delay, errors);
+    }
+
+    private static int pickStatus(Map<Integer, Double> errorRates, ThreadLocalRandom random) {
+        if (errorRates.isEmpty()) {
+            return 0;
+        }
+        double draw = random.nextDouble();
+        double cumulative = 0;
+        for (Map.Entry<Integer, Double> rate : errorRates.entrySet()) {
+            cumulative += rate.getValue();
+            if (draw < cumulative) {
+                return rate.getKey();
+            }
+        }
+        return 0;
+    }
+
+    private record Active(FaultSchedule schedule, Map<FaultWindow, WindowMeters> meters, long startNanos,
+                          Instant activatedAt) {}
+
+    private record WindowMeters(String name, Timer delay, Map<Integer, Counter> errors) {}
+
+    /**
+     * @param status HTTP status to answer with, or 0 to serve the request after the delay
+     */
+    public record Fault(String window, long delayMillis, int status) {}
+
+    public record Status(FaultSchedule schedule, Instant activatedAt, long elapsedMillis, String activeWindow) {}
+}
@@ -0,0 +1,34 @@
+package com.example.testapi.fault;
+
+import java.util.List;
+
+/**
+ * Timeline of fault windows, measured from the moment the schedule is activated. With
+ * {@code cycleMillis} > 0 the timeline repeats every cycle; otherwise it runs once and requests
+ * after the last window are served normally. Where windows overlap the first one listed wins.
+ */
+public record FaultSchedule(List<FaultWindow> windows, long cycleMillis) {
+
+    public FaultSchedule {
+        if (windows == null || windows.isEmpty()) {
+            throw new IllegalArgumentException("A fault schedule needs at least one window");
+        }
+        if (cycleMillis < 0) {
+            throw new IllegalArgumentException("cycleMillis must be >= 0");
+        }
+        windows = List.copyOf(windows);
+    }
+
+    /**
+     * The window active {@code elapsedMillis} after activation, or null.
+     */
+    FaultWindow windowAt(long elapsedMillis) {
+        long offset = cycleMillis > 0 ? elapsedMillis % cycleMillis : elapsedMillis;
+        for (FaultWindow window : windows) {
+            if (window.contains(offset)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
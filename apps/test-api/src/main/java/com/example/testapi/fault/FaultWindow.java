@@ -0,0 +1,44 @@
+package com.example.testapi.fault;
+
+import java.util.Map;
+
+/**
+ * Faults applied during one window of a {@link FaultSchedule}.
+ *
+ * @param name          label used in logs and metrics
+ * @param startMillis   offset of the window from the start of the schedule (or of each cycle)
+ * @param durationMillis length of the window; 0 means until the end of the schedule
+ * @param latency       delay added to every request in the window, or null for none
+ * @param errorRates    HTTP status code to the fraction of requests answered with it
+ */
+public record FaultWindow(
+    String name,
+    long startMillis,
+    long durationMillis,
+    LatencyDistribution latency,
+    Map<Integer, Double> errorRates
+) {
+    public FaultWindow {
+        if (startMillis < 0 || durationMillis < 0) {
+            throw new IllegalArgumentException("startMillis and durationMillis must be >= 0");
+        }
+        errorRates = errorRates == null ? Map.of() : Map.copyOf(errorRates);
+        double total = 0;
+        for (Map.Entry<Integer, Double> rate : errorRates.entrySet()) {
+            if (rate.getKey() < 400 || rate.getKey() > 599) {
+                throw new IllegalArgumentException("Error status must be 4xx or 5xx: " + rate.getKey());
+            }
+            if (rate.getValue() == null || rate.getValue() < 0) {
+                throw new IllegalArgumentException("Error rate must be >= 0 for status " + rate.getKey());
+            }
+            total += rate.getValue();
+        }
+        if (total > 1) {
+            throw new IllegalArgumentException("Error rates add up to more than 1: " + total);
+        }
+    }
+
+    boolean contains(long offsetMillis) {
+        return offsetMillis >= startMillis && (durationMillis == 0 || offsetMillis < startMillis + durationMillis);
+    }
+}
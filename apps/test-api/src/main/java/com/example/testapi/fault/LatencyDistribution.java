@@ -0,0 +1,87 @@
+package com.example.testapi.fault;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution of injected response delays, in milliseconds.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+    @JsonSubTypes.Type(value = LatencyDistribution.Fixed.class, name = "fixed"),
+    @JsonSubTypes.Type(value = LatencyDistribution.Uniform.class, name = "uniform"),
+    @JsonSubTypes.Type(value = LatencyDistribution.LogNormal.class, name = "log-normal"),
+    @JsonSubTypes.Type(value = LatencyDistribution.Bimodal.class, name = "bimodal")
+})
+public sealed interface LatencyDistribution {
+
+    long sampleMillis(ThreadLocalRandom random);
+
+    record Fixed(long millis) implements LatencyDistribution {
+        public Fixed {
+            requireNonNegative(millis, "millis");
+        }
+
+        @Override
+        public long sampleMillis(ThreadLocalRandom random) {
+            return millis;
+        }
+    }
+
+    record Uniform(long minMillis, long maxMillis) implements LatencyDistribution {
+        public Uniform {
+            requireNonNegative(minMillis, "minMillis");
+            if (maxMillis < minMillis) {
+                throw new IllegalArgumentException("maxMillis must be >= minMillis");
+            }
+        }
+
+        @Override
+        public long sampleMillis(ThreadLocalRandom random) {
+            return random.nextLong(minMillis, maxMillis + 1);
+        }
+    }
+
+    /**
+     * Log-normal delay with the given median; {@code sigma} sets the tail (about 0.5 for a p99 of
+     * 3x the median, 1.0 for 10x). Samples are capped at {@code maxMillis} if it is positive.
+     */
+    record LogNormal(double medianMillis, double sigma, long maxMillis) implements LatencyDistribution {
+        public LogNormal {
+            if (medianMillis <= 0 || sigma < 0) {
+                throw new IllegalArgumentException("log-normal needs medianMillis > 0 and sigma >= 0");
+            }
+        }
+
+        @Override
+        public long sampleMillis(ThreadLocalRandom random) {
+            long sample = Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+            return maxMillis > 0 ? Math.min(sample, maxMillis) : sample;
+        }
+    }
+
+    /**
+     * Mix of a fast and a slow mode, e.g. cache hits and misses: {@code slowFraction} of the
+     * requests are drawn from {@code slow}, the rest from {@code fast}.
+     */
+    record Bimodal(LatencyDistribution fast, LatencyDistribution slow, double slowFraction) implements LatencyDistribution {
+        public Bimodal {
+            if (fast == null || slow == null || slowFraction < 0 || slowFraction > 1) {
+                throw new IllegalArgumentException("bimodal needs fast, slow and 0 <= slowFraction <= 1");
+            }
+        }
+
+        @Override
+        public long sampleMillis(ThreadLocalRandom random) {
+            return random.nextDouble() < slowFraction ? slow.sampleMillis(random) : fast.sampleMillis(random);
+        }
+    }
+
+    private static void requireNonNegative(long value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must be >= 0");
+        }
+    }
+}
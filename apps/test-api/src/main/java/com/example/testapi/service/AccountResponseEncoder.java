@@ -0,0 +1,75 @@
+package com.example.testapi.service;
+
+import com.example.testapi.model.AccountRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the JSON of an {@code AccountResponse} directly to bytes.
+ *
+ * The field names and the closing {@code "message"} member for each of the fixed
+ * {@link RandomDataGenerator#messages()} are encoded once at startup, so a response only costs
+ * escaping the four echoed request fields. The output is the same JSON Jackson would produce
+ * for the record.
+ */
+@Component
+public class AccountResponseEncoder {
+
+    private static final byte[] FIRST_NAME = utf8("{\"firstName\":");
+    private static final byte[] LAST_NAME = utf8(",\"lastName\":");
+    private static final byte[] ACCOUNT_NUMBER = utf8(",\"accountNumber\":");
+    private static final byte[] ACCOUNT_ACTION = utf8(",\"accountAction\":");
+    private static final byte[] NULL = utf8("null");
+
+    private final byte[][] messageSuffixes;
+
+    public AccountResponseEncoder(ObjectMapper objectMapper) {
+        List<String> messages = RandomDataGenerator.messages();
+        this.messageSuffixes = new byte[messages.size()][];
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                messageSuffixes[i] = utf8(",\"message\":" + objectMapper.writeValueAsString(messages.get(i)) + "}");
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Encode the response echoing {@code request} with message number {@code messageIndex}.
+     */
+    public byte[] encode(AccountRequest request, int messageIndex) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(192);
+        out.writeBytes(FIRST_NAME);
+        writeString(out, request.firstName());
+        out.writeBytes(LAST_NAME);
+        writeString(out, request.lastName());
+        out.writeBytes(ACCOUNT_NUMBER);
+        writeString(out, request.accountNumber());
+        out.writeBytes(ACCOUNT_ACTION);
+        writeString(out, request.accountAction());
+        out.writeBytes(messageSuffixes[messageIndex]);
+        return out.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            out.writeBytes(NULL);
+            return;
+        }
+        out.write('"');
+        out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value));
+        out.write('"');
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.testapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of responses by Idempotency-Key, so a repeated or hedged request gets the
+ * response of the first one instead of being processed twice.
+ *
+ * Only requests with the same key wait for each other: the response is computed inside
+ * {@link ConcurrentHashMap#compute}, which locks that key's bin rather than the whole cache.
+ * Keys are also queued in insertion order, which is expiry order since every entry has the same
+ * TTL. Each insert drops expired entries from the head of the queue, and once the cache grows past
+ * {@code max-entries} it drops the oldest down to 90% of that, so a full cache is trimmed in
+ * batches rather than on every insert.
+ */
+@Service
+public class IdempotencyCache {
+
+    private final int maxEntries;
+    private final int lowWatermark;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>(1024);
+    private final Queue<Inserted> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyCache(
+            @Value("${idempotency.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.ttl-ms:300000}") long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.lowWatermark = maxEntries - Math.max(1, maxEntries / 10);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Return the cached value for {@code key}, or compute, cache and return a new one.
+     */
+    public <T> Result<T> getOrCompute(String key, Supplier<T> supplier) {
+        long now = System.currentTimeMillis();
+        Entry cached = entries.get(key);
+        if (cached == null || cached.expiresAt <= now) {
+            Entry[] computed = new Entry[1];
+            cached = entries.compute(key, (k, existing) -> {
+                if (existing != null && existing.expiresAt > now) {
+                    return existing;
+                }
+                computed[0] = new Entry(supplier.get(), now + ttlMillis);
+                return computed[0];
+            });
+            if (cached == computed[0]) {
+                insertionOrder.offer(new Inserted(key, cached));
+                evict(now);
+                return new Result<>(value(cached), false);
+            }
+        }
+        return new Result<>(value(cached), true);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Inserted oldest;
+        while ((oldest = insertionOrder.peek()) != null && oldest.entry.expiresAt <= now) {
+            removeOldest();
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        // Concurrent inserts may both trim; either way the cache ends up at or just below the watermark
+        for (int excess = entries.size() - lowWatermark; excess > 0; excess--) {
+            if (!removeOldest()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Drop the oldest queued key, unless it has been replaced since. Returns false if the queue is
+     * empty.
+     */
+    private boolean removeOldest() {
+        Inserted oldest = insertionOrder.poll();
+        if (oldest == null) {
+            return false;
+        }
+        entries.remove(oldest.key, oldest.entry);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T value(Entry entry) {
+        return (T) entry.value;
+    }
+
+    private record Entry(Object value, long expiresAt) {}
+
+    private record Inserted(String key, Entry entry) {}
+
+    public record Result<T>(T value, boolean replayed) {}
+}
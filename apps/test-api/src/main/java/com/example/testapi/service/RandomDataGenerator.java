@@ -3,13 +3,11 @@ package com.example.testapi.service;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class RandomDataGenerator {
 
-    private final Random random = new Random();
-
     private static final List<String> MESSAGES = List.of(
         "Request processed successfully",
         "Account action completed",
@@ -24,7 +22,17 @@ public class RandomDataGenerator {
     );
 
     public String generateMessage() {
-        return MESSAGES.get(random.nextInt(MESSAGES.size()));
+        return MESSAGES.get(nextMessageIndex());
+    }
+
+    /**
+     * Index of a random message in {@link #messages()}, for callers that pre-encode the messages.
+     */
+    public int nextMessageIndex() {
+        return ThreadLocalRandom.current().nextInt(MESSAGES.size());
     }
-}
 
+    public static List<String> messages() {
+        return MESSAGES;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.testapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket rate limiter with a global bucket and one bucket per client.
+ *
+ * A request is admitted only if both buckets have a token. If the global bucket rejects it, the
+ * client's token is given back, so retries against a saturated server do not also drain the
+ * client's own budget. A rejected request is told how long to wait until the bucket that rejected
+ * it has refilled, which the API returns as Retry-After. A rate of 0 disables that bucket. Per-client buckets are kept in a small LRU map.
+ */
+@Service
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final double globalRate;
+    private final double globalBurst;
+    private final double clientRate;
+    private final double clientBurst;
+    private final TokenBucket globalBucket;
+    private final Map<String, TokenBucket> clientBuckets;
+
+    private final Counter globalRejected;
+    private final Counter clientRejected;
+
+    public RateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:false}") boolean enabled,
+            @Value("${rate-limit.global.rate-per-second:0}") double globalRate,
+            @Value("${rate-limit.global.burst:0}") double globalBurst,
+            @Value("${rate-limit.per-client.rate-per-second:0}") double clientRate,
+            @Value("${rate-limit.per-client.burst:0}") double clientBurst,
+            @Value("${rate-limit.per-client.max-clients:1000}") int maxClients) {
+        this.enabled = enabled;
+        this.globalRate = globalRate;
+        this.globalBurst = Math.max(globalBurst, 1);
+        this.clientRate = clientRate;
+        this.clientBurst = Math.max(clientBurst, 1);
+        this.globalBucket = globalRate > 0 ? new TokenBucket(globalRate, this.globalBurst) : null;
+        this.clientBuckets = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxClients;
+            }
+        };
+
+        this.globalRejected = Counter.builder("api.ratelimit.rejected")
+            .description("Requests rejected with 429 by the rate limiter")
+            .tag("scope", "global")
+            .register(meterRegistry);
+        this.clientRejected = Counter.builder("api.ratelimit.rejected")
+            .description("Requests rejected with 429 by the rate limiter")
+            .tag("scope", "client")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Try to admit a request from {@code clientId}.
+     *
+     * @return 0 if the request is admitted, otherwise the number of milliseconds after which a
+     *         retry can be admitted
+     */
+    public long tryAcquire(String clientId) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+
+        TokenBucket clientBucket = null;
+        if (clientRate > 0) {
+            synchronized (clientBuckets) {
+                clientBucket = clientBuckets.computeIfAbsent(clientId, id -> new TokenBucket(clientRate, clientBurst));
+            }
+            long waitMillis = clientBucket.tryAcquire(now);
+            if (waitMillis > 0) {
+                clientRejected.increment();
+                return waitMillis;
+            }
+        }
+
+        if (globalBucket != null) {
+            long waitMillis = globalBucket.tryAcquire(now);
+            if (waitMillis > 0) {
+                if (clientBucket != null) {
+                    clientBucket.release();
+                }
+                globalRejected.increment();
+                return waitMillis;
+            }
+        }
+        return 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static final class TokenBucket {
+
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double ratePerSecond, double capacity) {
+            this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * Take a token, or return how many milliseconds until one is available.
+         */
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano / 1_000_000));
+        }
+
+        /**
+         * Return a token taken by a request that was not admitted after all.
+         */
+        synchronized void release() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+}
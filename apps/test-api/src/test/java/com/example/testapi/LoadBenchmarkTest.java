@@ -0,0 +1,144 @@
+package com.example.testapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closed-loop load test of {@code POST /api/accounts}: a fixed number of clients each send a
+ * request as soon as the previous one is answered. Reports req/s, p50/p99 latency, and req/s per
+ * core of CPU actually spent by the server's Tomcat threads, which stays meaningful even though
+ * the load generator runs in the same JVM.
+ *
+ * Run with {@code mvn test -Pbenchmark}; tune with {@code -Dbenchmark.clients},
+ * {@code -Dbenchmark.seconds} and {@code -Dbenchmark.warmup-seconds}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "request-logging.sample-every=0")
+class LoadBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadBenchmarkTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 64);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final int WARMUP_SECONDS = Integer.getInteger("benchmark.warmup-seconds", 5);
+
+    private static final String BODY = "{\"firstName\":\"John\",\"lastName\":\"Doe\","
+        + "\"accountNumber\":\"1234567890\",\"accountAction\":\"CREATE\"}";
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void sustainedThroughput() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/accounts"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(BODY))
+            .build();
+
+        run(client, request, WARMUP_SECONDS);
+
+        long serverCpuBefore = serverCpuNanos();
+        Run result = run(client, request, SECONDS);
+        double serverCpuSeconds = (serverCpuNanos() - serverCpuBefore) / 1e9;
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        double requestsPerSecond = latencies.length / (double) SECONDS;
+
+        log.info("test-api load benchmark: {} clients for {}s on {} cores",
+            CLIENTS, SECONDS, Runtime.getRuntime().availableProcessors());
+        log.info("  requests: {} ({} errors)", latencies.length, result.errors());
+        log.info(String.format("  throughput: %.0f req/s", requestsPerSecond));
+        log.info(String.format("  latency: p50 %.2f ms, p99 %.2f ms",
+            percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6));
+        log.info(String.format("  server CPU: %.1f cores, %.0f req/s per core",
+            serverCpuSeconds / SECONDS, latencies.length / serverCpuSeconds));
+
+        assertThat(result.errors()).isZero();
+    }
+
+    private Run run(HttpClient client, HttpRequest request, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(workers.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> future : futures) {
+                long[] samples = future.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + samples.length);
+                System.arraycopy(samples, 0, all, offset, samples.length);
+            }
+            return new Run(all, errors.get());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * CPU time used so far by Tomcat's connector threads (acceptor, poller and request workers).
+     */
+    private static long serverCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("http-nio-")) {
+                total += Math.max(threads.getThreadCpuTime(thread.getId()), 0);
+            }
+        }
+        return total;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))];
+    }
+
+    private record Run(long[] latencies, long errors) {}
+}
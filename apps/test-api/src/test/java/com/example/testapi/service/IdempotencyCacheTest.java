@@ -0,0 +1,43 @@
+package com.example.testapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void replaysTheFirstResponseForAKey() {
+        IdempotencyCache cache = new IdempotencyCache(100, 60_000);
+
+        IdempotencyCache.Result<String> first = cache.getOrCompute("key", () -> "first");
+        IdempotencyCache.Result<String> second = cache.getOrCompute("key", () -> "second");
+
+        assertThat(first.value()).isEqualTo("first");
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.value()).isEqualTo("first");
+        assertThat(second.replayed()).isTrue();
+    }
+
+    @Test
+    void fullCacheIsTrimmedToTheWatermarkOldestFirst() {
+        IdempotencyCache cache = new IdempotencyCache(100, 60_000);
+        for (int i = 0; i <= 100; i++) {
+            cache.getOrCompute("key-" + i, () -> "value");
+        }
+
+        assertThat(cache.size()).isEqualTo(90);
+        assertThat(cache.getOrCompute("key-0", () -> "new").replayed()).isFalse();
+        assertThat(cache.getOrCompute("key-100", () -> "new").replayed()).isTrue();
+    }
+
+    @Test
+    void expiredEntriesAreRecomputedAndDropped() throws InterruptedException {
+        IdempotencyCache cache = new IdempotencyCache(100, 20);
+        cache.getOrCompute("old", () -> "value");
+        Thread.sleep(40);
+
+        assertThat(cache.getOrCompute("old", () -> "again").value()).isEqualTo("again");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.testapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void globalRejectionGivesTheClientTokenBack() {
+        // One global token refilling every 1000s; two client tokens refilling every 500s
+        RateLimiter limiter = new RateLimiter(new SimpleMeterRegistry(), true, 0.001, 1, 0.002, 2, 10);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        for (int i = 0; i < 5; i++) {
+            // Still rejected by the global bucket, not by a client bucket drained by the rejections
+            assertThat(limiter.tryAcquire("a")).isGreaterThan(600_000L);
+        }
+    }
+
+    @Test
+    void clientBucketLimitsOnItsOwn() {
+        RateLimiter limiter = new RateLimiter(new SimpleMeterRegistry(), true, 0, 0, 0.002, 2, 10);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isBetween(400_000L, 500_000L);
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.testconsumer.capture;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Writes captured records into fixed-size, memory-mapped segment files for replay by test-producer.
+ *
+ * A segment starts with [int magic "TCAP"][int version] and is followed by frames of
+ * [int length][payload]; a zero length marks the end of the written data. The payload is
+ * <pre>
+ * [long timestamp][int partition]
+ * [int keyLength][key bytes]                     (-1 for a null key)
+ * [int headerCount]([int nameLength][name][int valueLength][value])*
+ * [int valueLength][value bytes]                 (-1 for a null value)
+ * </pre>
+ * in big-endian order. The value is stored exactly as it was on the wire. The key is the UTF-8
+ * encoding of the key the consumer's {@code StringDeserializer} produced, which is the wire form for
+ * UTF-8 text keys such as test-producer's account numbers, but not for arbitrary binary keys.
+ * test-producer's {@code CaptureReader} reads the same layout; keep the two in step.
+ *
+ * Each open starts a new segment after the existing ones, so several capture sessions can share a
+ * directory and replay back to back.
+ */
+public class CaptureSegmentWriter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(CaptureSegmentWriter.class);
+
+    public static final int MAGIC = 0x54434150;
+    public static final int VERSION = 1;
+    public static final int SEGMENT_HEADER_BYTES = 8;
+
+    private static final String SEGMENT_PREFIX = "capture-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxBytes;
+
+    // Guarded by "this"
+    private long segment;
+    private MappedByteBuffer buffer;
+    private long writtenBytes;
+
+    private CaptureSegmentWriter(Path directory, int segmentSize, long maxBytes) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Open a capture in {@code directory}, writing at most {@code maxBytes} of segments.
+     */
+    public static CaptureSegmentWriter open(Path directory, int segmentSize, long maxBytes) throws IOException {
+        Files.createDirectories(directory);
+        CaptureSegmentWriter writer = new CaptureSegmentWriter(directory, segmentSize, maxBytes);
+        writer.segment = writer.lastSegment() + 1;
+        writer.buffer = writer.map(writer.segment);
+        writer.writtenBytes = SEGMENT_HEADER_BYTES;
+        return writer;
+    }
+
+    /**
+     * Append one record; returns false if it does not fit in a segment or the capture has reached
+     * its size limit.
+     */
+    public synchronized boolean append(long timestamp, int partition, byte[] key, Headers headers,
+                                       Header rawValueMarker, byte[] value) {
+        int payloadSize = 8 + 4 + 4 + length(key) + 4 + 4 + length(value);
+        int headerCount = 0;
+        for (Header header : headers) {
+            if (header == rawValueMarker) {
+                break;
+            }
+            payloadSize += 4 + header.key().getBytes(StandardCharsets.UTF_8).length + 4 + length(header.value());
+            headerCount++;
+        }
+        int frameSize = 4 + payloadSize;
+        if (SEGMENT_HEADER_BYTES + frameSize + 4 > segmentSize) {
+            return false;
+        }
+        if (buffer.position() + frameSize + 4 > segmentSize) {
+            if (writtenBytes + segmentSize > maxBytes) {
+                return false;
+            }
+            roll();
+        }
+
+        // Payload first, then the length that makes the frame visible to a reader
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putLong(timestamp).putInt(partition);
+        putBytes(key);
+        buffer.putInt(headerCount);
+        int written = 0;
+        for (Header header : headers) {
+            if (written++ == headerCount) {
+                break;
+            }
+            putBytes(header.key().getBytes(StandardCharsets.UTF_8));
+            putBytes(header.value());
+        }
+        putBytes(value);
+        buffer.putInt(start, payloadSize);
+        writtenBytes += frameSize;
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private void roll() {
+        buffer.force();
+        segment++;
+        buffer = map(segment);
+        writtenBytes += SEGMENT_HEADER_BYTES;
+        log.debug("Rolled capture to segment {}", segment);
+    }
+
+    private void putBytes(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private MappedByteBuffer map(long segment) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(segment).toFile(), "rw")) {
+            file.setLength(segmentSize);
+            MappedByteBuffer mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            mapped.putInt(MAGIC).putInt(VERSION);
+            return mapped;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map capture segment " + segment, e);
+        }
+    }
+
+    private long lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .mapToLong(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .max()
+                .orElse(-1);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
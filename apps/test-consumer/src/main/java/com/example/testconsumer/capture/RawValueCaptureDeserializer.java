@@ -0,0 +1,48 @@
+package com.example.testconsumer.capture;
+
+import com.example.testconsumer.model.AccountMessage;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer that keeps the raw value bytes for {@link TrafficCaptureInterceptor}.
+ *
+ * Before delegating, it adds {@link #RAW_VALUE_HEADER} holding the bytes as received (no copy).
+ * Headers the delegate adds afterwards, such as the quarantine markers, come after it, so the
+ * headers before the marker are exactly the record's own.
+ */
+public class RawValueCaptureDeserializer implements Deserializer<AccountMessage> {
+
+    public static final String RAW_VALUE_HEADER = "x-capture-raw-value";
+
+    private final Deserializer<AccountMessage> delegate;
+
+    public RawValueCaptureDeserializer(Deserializer<AccountMessage> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public AccountMessage deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public AccountMessage deserialize(String topic, Headers headers, byte[] data) {
+        if (headers != null) {
+            headers.add(RAW_VALUE_HEADER, data);
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
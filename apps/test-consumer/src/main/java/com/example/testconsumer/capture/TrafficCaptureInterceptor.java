@@ -0,0 +1,115 @@
+package com.example.testconsumer.capture;
+
+import com.example.testconsumer.model.AccountMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures consumed records (timestamp, partition, key, headers and raw value) into
+ * {@link CaptureSegmentWriter} segments, for test-producer to replay with the original timing.
+ *
+ * Runs first among the record interceptors, so poison records are captured too. The raw value
+ * comes from the marker header added by {@link RawValueCaptureDeserializer}, which is removed
+ * here before the record goes on. Records delivered again after a deferred poll or a seek are
+ * captured once, by offset.
+ */
+@Component
+@ConditionalOnProperty(name = "capture.enabled", havingValue = "true")
+public class TrafficCaptureInterceptor implements RecordInterceptor<String, AccountMessage> {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficCaptureInterceptor.class);
+
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final long maxBytes;
+    private final Counter capturedCounter;
+    private final Counter capturedBytesCounter;
+    private final Counter skippedCounter;
+    private final Map<Integer, Long> nextOffsets = new ConcurrentHashMap<>();
+
+    private CaptureSegmentWriter writer;
+    private volatile boolean full;
+
+    public TrafficCaptureInterceptor(
+            MeterRegistry meterRegistry,
+            @Value("${capture.directory:./capture}") String directory,
+            @Value("${capture.segment-size-bytes:67108864}") int segmentSizeBytes,
+            @Value("${capture.max-bytes:1073741824}") long maxBytes) {
+        this.directory = Path.of(directory);
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.maxBytes = maxBytes;
+
+        this.capturedCounter = Counter.builder("capture.records")
+            .description("Number of consumed records written to the traffic capture")
+            .register(meterRegistry);
+        this.capturedBytesCounter = Counter.builder("capture.bytes")
+            .description("Key and value bytes written to the traffic capture")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.skippedCounter = Counter.builder("capture.skipped")
+            .description("Number of records not captured because the capture was full or a record too large")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            writer = CaptureSegmentWriter.open(directory, segmentSizeBytes, maxBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open traffic capture at " + directory, e);
+        }
+        log.info("Capturing consumed traffic to {} (segment size {} bytes, up to {} bytes)",
+            directory.toAbsolutePath(), segmentSizeBytes, maxBytes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.close();
+    }
+
+    @Override
+    public ConsumerRecord<String, AccountMessage> intercept(ConsumerRecord<String, AccountMessage> record,
+                                                            Consumer<String, AccountMessage> consumer) {
+        Header marker = record.headers().lastHeader(RawValueCaptureDeserializer.RAW_VALUE_HEADER);
+        if (marker == null) {
+            return record;
+        }
+        Long next = nextOffsets.get(record.partition());
+        if (next == null || record.offset() >= next) {
+            byte[] key = record.key() != null ? record.key().getBytes(StandardCharsets.UTF_8) : null;
+            if (writer.append(record.timestamp(), record.partition(), key, record.headers(), marker, marker.value())) {
+                nextOffsets.put(record.partition(), record.offset() + 1);
+                capturedCounter.increment();
+                capturedBytesCounter.increment((key != null ? key.length : 0)
+                    + (marker.value() != null ? marker.value().length : 0));
+            } else {
+                skippedCounter.increment();
+                if (!full) {
+                    full = true;
+                    log.warn("Traffic capture at {} is full or got an oversized record; further records are skipped",
+                        directory.toAbsolutePath());
+                }
+            }
+        }
+        record.headers().remove(RawValueCaptureDeserializer.RAW_VALUE_HEADER);
+        return record;
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.testconsumer.config;
 
+import com.example.testconsumer.capture.RawValueCaptureDeserializer;
+import com.example.testconsumer.capture.TrafficCaptureInterceptor;
+import com.example.testconsumer.consumer.AccountRebalanceListener;
+import com.example.testconsumer.consumer.PollBudgetController;
 import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.quarantine.PoisonTolerantDeserializer;
+import com.example.testconsumer.quarantine.QuarantineInterceptor;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.clients.consumer.RangeAssignor;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +23,8 @@ import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
@@ -32,6 +44,24 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.auto-offset-reset:earliest}")
     private String autoOffsetReset;
 
+    @Value("${kafka.rebalance.cooperative:true}")
+    private boolean cooperativeRebalance;
+
+    @Value("${kafka.rebalance.group-instance-id:}")
+    private String groupInstanceId;
+
+    @Value("${kafka.rebalance.session-timeout-ms:45000}")
+    private int sessionTimeoutMs;
+
+    @Value("${kafka.poll.max-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.poll.max-interval-ms:300000}")
+    private int maxPollIntervalMs;
+
+    @Value("${capture.enabled:false}")
+    private boolean captureEnabled;
+
     @Value("${spring.kafka.properties.sasl.mechanism:#{null}}")
     private String saslMechanism;
 
@@ -53,6 +83,24 @@ public class KafkaConsumerConfig {
         // Disable auto-commit for manual acknowledgement with error handling
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
+        // Incremental rebalancing: only the partitions that move are revoked, the rest keep flowing
+        if (cooperativeRebalance) {
+            props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, List.of(CooperativeStickyAssignor.class));
+        } else {
+            props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, List.of(RangeAssignor.class));
+        }
+
+        // Static membership: a pod that restarts within the session timeout rejoins without a rebalance.
+        // The container appends -<n> per consumer when concurrency is above 1.
+        if (groupInstanceId != null && !groupInstanceId.isBlank()) {
+            props.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, groupInstanceId);
+        }
+        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, sessionTimeoutMs);
+
+        // Ceiling for the adaptive poll budget; the listener may process fewer per poll
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollIntervalMs);
+
         // Azure Event Hub / Kafka security settings
         if (securityProtocol != null) {
             props.put("security.protocol", securityProtocol);
@@ -70,8 +118,14 @@ public class KafkaConsumerConfig {
         // Ignore type headers from producer - use our own AccountMessage class
         deserializer.setUseTypeHeaders(false);
 
+        // Decode failures are marked on the record instead of failing inside poll()
+        Deserializer<AccountMessage> valueDeserializer = new PoisonTolerantDeserializer(deserializer);
+        if (captureEnabled) {
+            // Keep the raw value bytes for the traffic capture
+            valueDeserializer = new RawValueCaptureDeserializer(valueDeserializer);
+        }
         DefaultKafkaConsumerFactory<String, AccountMessage> factory = 
-            new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+            new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), valueDeserializer);
         
         // Add Micrometer listener to expose native Kafka consumer metrics
         factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
@@ -82,7 +136,11 @@ public class KafkaConsumerConfig {
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, AccountMessage> kafkaListenerContainerFactory(
             ConsumerFactory<String, AccountMessage> consumerFactory,
-            CommonErrorHandler kafkaErrorHandler) {
+            CommonErrorHandler kafkaErrorHandler,
+            AccountRebalanceListener rebalanceListener,
+            PollBudgetController pollBudgetController,
+            QuarantineInterceptor quarantineInterceptor,
+            ObjectProvider<TrafficCaptureInterceptor> captureInterceptor) {
         
         ConcurrentKafkaListenerContainerFactory<String, AccountMessage> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
@@ -91,6 +149,19 @@ public class KafkaConsumerConfig {
         
         // Set the custom error handler with retry and DLQ support
         factory.setCommonErrorHandler(kafkaErrorHandler);
+
+        // Drain, commit and restore per-partition state on rebalance
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+
+        // The listener acknowledges processed records (see BrokerCommitPolicy) and nacks the
+        // remainder of a poll once the poll budget is spent
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Undecodable records are quarantined before they reach the listener or count against the budget.
+        // With capture enabled, every record is captured first, poison included
+        TrafficCaptureInterceptor capture = captureInterceptor.getIfAvailable();
+        factory.setRecordInterceptor(capture != null
+            ? new CompositeRecordInterceptor<>(capture, quarantineInterceptor, pollBudgetController)
+            : new CompositeRecordInterceptor<>(quarantineInterceptor, pollBudgetController));
         
         return factory;
     }
@@ -1,7 +1,13 @@
 package com.example.testconsumer.config;
 
+import com.example.testconsumer.consumer.ProcessedOffsetTracker;
 import com.example.testconsumer.exception.NonRetryableException;
 import com.example.testconsumer.exception.RetryableException;
+import com.example.testconsumer.retry.RetryAfterBackOffHandler;
+import com.example.testconsumer.retry.RetryBudget;
+import com.example.testconsumer.retry.RetryBudgetBackOff;
+import com.example.testconsumer.service.AccountTransactionRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.TopicPartition;
@@ -15,11 +21,18 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.BackOffHandler;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ContainerPausingBackOffHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultBackOffHandler;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerPauseService;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
 import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.scheduling.TaskScheduler;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -56,6 +69,12 @@ public class KafkaErrorHandlerConfig {
     @Value("${kafka.error-handler.max-interval-ms:10000}")
     private long maxIntervalMs;
 
+    @Value("${kafka.error-handler.retry-after.max-ms:60000}")
+    private long maxRetryAfterMs;
+
+    @Value("${kafka.error-handler.pause-partitions:true}")
+    private boolean pausePartitions;
+
     /**
      * Producer factory for DLQ publishing
      */
@@ -110,22 +129,51 @@ public class KafkaErrorHandlerConfig {
         );
     }
 
+    /**
+     * Pauses listener containers during a back-off instead of blocking the consumer thread
+     */
+    @Bean
+    public ListenerContainerPauseService listenerContainerPauseService(ListenerContainerRegistry registry,
+                                                                       TaskScheduler taskScheduler) {
+        return new ListenerContainerPauseService(registry, taskScheduler);
+    }
+
     /**
      * Default Error Handler with:
      * - Blocking retries for RetryableException
      * - Exponential backoff (1s, 2s, 4s, etc.)
-     * - Max 3 retries
-     * - DLQ recovery after retries exhausted
+     * - Max 3 retries, further limited by the shared retry budget
+     * - The delay stretched to the test-api's Retry-After, and the consumer's partitions paused
+     *   for the delay rather than the thread sleeping (unless pause-partitions is off)
+     * - DLQ recovery after retries exhausted, after which the record counts as processed
+     *   for the offset store
      */
     @Bean
-    public CommonErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer recoverer) {
+    public CommonErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer deadLetterRecoverer,
+                                                AccountTransactionRecorder transactionRecorder,
+                                                ProcessedOffsetTracker offsetTracker,
+                                                RetryBudget retryBudget,
+                                                ListenerContainerPauseService pauseService,
+                                                MeterRegistry meterRegistry) {
+        ConsumerRecordRecoverer recoverer = (record, exception) -> {
+            deadLetterRecoverer.accept(record, exception);
+            transactionRecorder.recordOffset(record.topic(), record.partition(), record.offset());
+            offsetTracker.onProcessed(record.topic(), record.partition(), record.offset());
+        };
+
         // Configure exponential backoff
         ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(maxRetries);
         backOff.setInitialInterval(initialIntervalMs);
         backOff.setMultiplier(multiplier);
         backOff.setMaxInterval(maxIntervalMs);
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        // Stop retrying early once retries exceed the budget's share of first-attempt traffic
+        BackOffHandler backOffHandler = new RetryAfterBackOffHandler(
+            pausePartitions ? new ContainerPausingBackOffHandler(pauseService) : new DefaultBackOffHandler(),
+            maxRetryAfterMs,
+            meterRegistry);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+            recoverer, new RetryBudgetBackOff(backOff, retryBudget), backOffHandler);
 
         // Configure which exceptions are retryable
         // RetryableException - will be retried with backoff
@@ -145,8 +193,10 @@ public class KafkaErrorHandlerConfig {
                 ex.getMessage());
         });
 
-        log.info("Configured Kafka error handler with {} max retries, initial interval {}ms, multiplier {}, max interval {}ms",
-            maxRetries, initialIntervalMs, multiplier, maxIntervalMs);
+        log.info("Configured Kafka error handler with {} max retries, initial interval {}ms, multiplier {}, max interval {}ms, "
+                + "Retry-After up to {}ms, {} during back-off",
+            maxRetries, initialIntervalMs, multiplier, maxIntervalMs, maxRetryAfterMs,
+            pausePartitions ? "pausing partitions" : "blocking");
 
         return errorHandler;
     }
@@ -2,6 +2,7 @@ package com.example.testconsumer.config;
 
 import com.example.testconsumer.model.FailedMessage;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -56,5 +57,36 @@ public class KafkaProducerConfig {
     public KafkaTemplate<String, FailedMessage> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    /**
+     * Producer factory for the quarantine topic: raw bytes, sent one at a time by the listener thread
+     */
+    @Bean
+    public ProducerFactory<byte[], byte[]> quarantineProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.RETRIES_CONFIG, 3);
+
+        // Azure Event Hub / Kafka security settings
+        if (securityProtocol != null) {
+            props.put("security.protocol", securityProtocol);
+        }
+        if (saslMechanism != null) {
+            props.put("sasl.mechanism", saslMechanism);
+        }
+        if (saslJaasConfig != null) {
+            props.put("sasl.jaas.config", saslJaasConfig);
+        }
+
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<byte[], byte[]> quarantineKafkaTemplate() {
+        return new KafkaTemplate<>(quarantineProducerFactory());
+    }
 }
 
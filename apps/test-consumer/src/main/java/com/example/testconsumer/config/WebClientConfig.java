@@ -1,5 +1,6 @@
 package com.example.testconsumer.config;
 
+import com.example.testconsumer.transport.AccountApiTransport;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
@@ -19,6 +20,9 @@ public class WebClientConfig {
     @Value("${api.test-api.base-url:http://localhost:8089}")
     private String testApiBaseUrl;
 
+    @Value("${api.test-api.client-id:test-consumer}")
+    private String clientId;
+
     @Value("${api.test-api.timeout.connect:5000}")
     private int connectTimeout;
 
@@ -39,6 +43,7 @@ public class WebClientConfig {
 
         return WebClient.builder()
             .baseUrl(testApiBaseUrl)
+            .defaultHeader(AccountApiTransport.CLIENT_ID_HEADER, clientId)
             .clientConnector(new ReactorClientHttpConnector(httpClient))
             .build();
     }
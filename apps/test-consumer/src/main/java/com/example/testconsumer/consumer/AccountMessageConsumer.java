@@ -5,7 +5,10 @@ import com.example.testconsumer.exception.NonRetryableException;
 import com.example.testconsumer.exception.RetryableException;
 import com.example.testconsumer.model.AccountMessage;
 import com.example.testconsumer.model.ApiResult;
-import com.example.testconsumer.service.AccountTransactionService;
+import com.example.testconsumer.quarantine.PoisonTolerantDeserializer;
+import com.example.testconsumer.retry.RetryBudget;
+import com.example.testconsumer.shedding.EventAgeMonitor;
+import com.example.testconsumer.service.AccountTransactionRecorder;
 import com.example.testconsumer.service.TestApiClient;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -14,9 +17,11 @@ import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.Instant;
 
 /**
@@ -24,8 +29,16 @@ import java.time.Instant;
  * 
  * Error handling:
  * - RetryableException: Retried by Kafka DefaultErrorHandler with exponential backoff.
- *   After max retries, message is sent to DLQ.
+ *   After max retries, or once the shared retry budget is spent, message is sent to DLQ.
  * - NonRetryableException: Not retried, sent directly to DLQ.
+ * - Undecodable records are quarantined before they get here; one only arrives if its quarantine
+ *   publish failed, and is then retried like a RetryableException.
+ *
+ * While events are older than the freshness SLO ({@link EventAgeMonitor}), messages are only
+ * persisted and the API call is left to the catch-up worker.
+ *
+ * Records beyond the current poll budget ({@link PollBudgetController}) are nacked and
+ * redelivered by the next poll.
  */
 @Component
 public class AccountMessageConsumer {
@@ -36,17 +49,32 @@ public class AccountMessageConsumer {
     private static final String EVENT_ENQUEUED_TIME_HEADER = "x-opt-enqueued-time";
 
     private final TestApiClient testApiClient;
-    private final AccountTransactionService transactionService;
+    private final AccountTransactionRecorder transactionRecorder;
+    private final ProcessedOffsetTracker offsetTracker;
+    private final PollBudgetController pollBudget;
+    private final BrokerCommitPolicy commitPolicy;
+    private final RetryBudget retryBudget;
+    private final EventAgeMonitor eventAgeMonitor;
     private final Counter messagesConsumedCounter;
     private final Counter messagesSuccessCounter;
     private final Counter messagesErrorCounter;
 
     public AccountMessageConsumer(
             TestApiClient testApiClient,
-            AccountTransactionService transactionService,
+            AccountTransactionRecorder transactionRecorder,
+            ProcessedOffsetTracker offsetTracker,
+            PollBudgetController pollBudget,
+            BrokerCommitPolicy commitPolicy,
+            RetryBudget retryBudget,
+            EventAgeMonitor eventAgeMonitor,
             MeterRegistry meterRegistry) {
         this.testApiClient = testApiClient;
-        this.transactionService = transactionService;
+        this.transactionRecorder = transactionRecorder;
+        this.offsetTracker = offsetTracker;
+        this.pollBudget = pollBudget;
+        this.commitPolicy = commitPolicy;
+        this.retryBudget = retryBudget;
+        this.eventAgeMonitor = eventAgeMonitor;
 
         this.messagesConsumedCounter = Counter.builder("kafka.messages.consumed")
             .description("Number of Kafka messages consumed")
@@ -65,35 +93,67 @@ public class AccountMessageConsumer {
         topics = "${kafka.topic.accounts:accounts}",
         groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void consume(ConsumerRecord<String, AccountMessage> record) {
+    public void consume(ConsumerRecord<String, AccountMessage> record, Acknowledgment ack) {
+        if (!pollBudget.tryAcquire()) {
+            // Poll budget spent: hand this and the remaining records back to the next poll
+            ack.nack(Duration.ZERO);
+            return;
+        }
         messagesConsumedCounter.increment();
+        retryBudget.recordAttempt();
+
+        if (PoisonTolerantDeserializer.isPoison(record)) {
+            // Only reaches the listener when the quarantine publish failed; retry it through the error handler
+            messagesErrorCounter.increment();
+            throw new RetryableException("Could not quarantine undecodable record from partition ["
+                + record.partition() + "] offset [" + record.offset() + "]");
+        }
 
         AccountMessage message = record.value();
         Instant eventEnqueuedTime = extractEventEnqueuedTime(record);
 
-        log.info("Received message from topic [{}] partition [{}] offset [{}]",
-            record.topic(), record.partition(), record.offset());
-        log.info("Message key: {}", record.key());
-        log.info("Event enqueued time: {}", eventEnqueuedTime);
-        log.info("Message payload: firstName={}, lastName={}, accountNumber={}, accountAction={}",
-            message.firstName(),
-            message.lastName(),
-            maskAccountNumber(message.accountNumber()),
-            message.accountAction());
+        logReceived(record, eventEnqueuedTime);
+        if (offsetTracker.checkReprocessed(record.topic(), record.partition(), record.offset())) {
+            log.warn("Offset [{}] on partition [{}] was already processed by this instance",
+                record.offset(), record.partition());
+        }
 
-        // Save the incoming message to database immediately (status will be null)
-        AccountTransaction transaction = transactionService.saveIncomingMessage(
+        // Degraded mode: persist only and leave the API call to the catch-up worker
+        Instant eventTime = eventEnqueuedTime != null || record.timestamp() < 0
+            ? eventEnqueuedTime
+            : Instant.ofEpochMilli(record.timestamp());
+        if (eventAgeMonitor.shouldDefer(eventTime)) {
+            transactionRecorder.recordDeferred(
+                message,
+                record.topic(),
+                record.partition(),
+                record.offset(),
+                eventEnqueuedTime
+            );
+            // In write-behind mode the row has no id until it is flushed, so log the record's position
+            log.info("Degraded mode: recorded message {}-{}@{} for catch-up",
+                record.topic(), record.partition(), record.offset());
+            offsetTracker.onProcessed(record.topic(), record.partition(), record.offset());
+            if (commitPolicy.shouldAcknowledge()) {
+                ack.acknowledge();
+            }
+            return;
+        }
+
+        // Record the incoming message immediately (status will be null)
+        AccountTransaction transaction = transactionRecorder.recordReceived(
             message,
             record.topic(),
             record.partition(),
             record.offset(),
             eventEnqueuedTime
         );
-        log.info("Saved incoming message to database with id: {}", transaction.getId());
+        log.info("Recorded incoming message {}-{}@{}", record.topic(), record.partition(), record.offset());
 
         try {
             // Call the test-api with the consumed message
-            ApiResult result = testApiClient.postAccount(message);
+            ApiResult result = testApiClient.postAccount(message,
+                TestApiClient.idempotencyKey(record.topic(), record.partition(), record.offset()));
 
             // Log the successful response
             log.info("Successfully processed message. API Response: status={}, firstName={}, lastName={}, accountAction={}, message={}",
@@ -104,11 +164,15 @@ public class AccountMessageConsumer {
                 result.response().message());
 
             // Update the transaction with the HTTP status code
-            transactionService.updateWithStatus(
-                transaction.getId(),
+            transactionRecorder.recordStatus(
+                transaction,
                 result.httpStatusCode(),
                 result.response().message()
             );
+            offsetTracker.onProcessed(record.topic(), record.partition(), record.offset());
+            if (commitPolicy.shouldAcknowledge()) {
+                ack.acknowledge();
+            }
 
             messagesSuccessCounter.increment();
 
@@ -118,8 +182,8 @@ public class AccountMessageConsumer {
             messagesErrorCounter.increment();
 
             // Update transaction with error status
-            transactionService.updateWithError(
-                transaction.getId(),
+            transactionRecorder.recordError(
+                transaction,
                 e.getHttpStatusCode(),
                 e.getMessage()
             );
@@ -133,8 +197,8 @@ public class AccountMessageConsumer {
             messagesErrorCounter.increment();
 
             // Update transaction with pending retry status
-            transactionService.updateWithError(
-                transaction.getId(),
+            transactionRecorder.recordError(
+                transaction,
                 -1,
                 "Pending retry: " + e.getMessage()
             );
@@ -148,8 +212,8 @@ public class AccountMessageConsumer {
             messagesErrorCounter.increment();
 
             // Update transaction with error status
-            transactionService.updateWithError(
-                transaction.getId(),
+            transactionRecorder.recordError(
+                transaction,
                 -2,
                 "Unexpected: " + e.getMessage()
             );
@@ -159,11 +223,27 @@ public class AccountMessageConsumer {
         }
     }
 
+    /**
+     * The INFO lines logged for every consumed record.
+     */
+    static void logReceived(ConsumerRecord<String, AccountMessage> record, Instant eventEnqueuedTime) {
+        AccountMessage message = record.value();
+        log.info("Received message from topic [{}] partition [{}] offset [{}]",
+            record.topic(), record.partition(), record.offset());
+        log.info("Message key: {}", record.key());
+        log.info("Event enqueued time: {}", eventEnqueuedTime);
+        log.info("Message payload: firstName={}, lastName={}, accountNumber={}, accountAction={}",
+            message.firstName(),
+            message.lastName(),
+            maskAccountNumber(message.accountNumber()),
+            message.accountAction());
+    }
+
     /**
      * Extract the EventEnqueuedUtcTime from Azure Event Hub headers.
      * Azure Event Hub adds this header when messages are enqueued.
      */
-    private Instant extractEventEnqueuedTime(ConsumerRecord<String, AccountMessage> record) {
+    static Instant extractEventEnqueuedTime(ConsumerRecord<String, AccountMessage> record) {
         // Log all headers for debugging
         if (log.isDebugEnabled()) {
             log.debug("Message headers:");
@@ -217,7 +297,7 @@ public class AccountMessageConsumer {
         return null;
     }
 
-    private String maskAccountNumber(String accountNumber) {
+    static String maskAccountNumber(String accountNumber) {
         if (accountNumber == null || accountNumber.length() < 4) {
             return "****";
         }
@@ -0,0 +1,188 @@
+package com.example.testconsumer.consumer;
+
+import com.example.testconsumer.journal.WriteBehindJournal;
+import com.example.testconsumer.service.OffsetStoreService;
+import com.example.testconsumer.state.AccountStateStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebalance callbacks for the account listener container.
+ *
+ * Before partitions are revoked, pending journal entries are flushed and the offsets of every
+ * record processed so far are committed, so the next owner does not process them again. Restores
+ * per-partition state when partitions are assigned and releases it when they are revoked. In
+ * offset-store mode the consumer seeks to the offsets stored in the database instead of the
+ * broker's committed offsets.
+ *
+ * With cooperative assignment the callbacks only receive the partitions that actually move.
+ */
+@Component
+public class AccountRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountRebalanceListener.class);
+
+    private final OffsetStoreService offsetStore;
+    private final ProcessedOffsetTracker offsetTracker;
+    private final WriteBehindJournal journal;
+    private final AccountStateStore stateStore;
+    private final boolean brokerCommitsEnabled;
+
+    private final Counter rebalanceCounter;
+    private final Counter revokedCounter;
+    private final Counter lostCounter;
+    private final Timer rebalanceTimer;
+
+    private final Set<TopicPartition> assignedPartitions = ConcurrentHashMap.newKeySet();
+
+    // Start of the rebalance each consumer is currently going through
+    private final Map<Consumer<?, ?>, Long> rebalanceStarts = new ConcurrentHashMap<>();
+
+    public AccountRebalanceListener(
+            OffsetStoreService offsetStore,
+            ProcessedOffsetTracker offsetTracker,
+            BrokerCommitPolicy commitPolicy,
+            ObjectProvider<WriteBehindJournal> journalProvider,
+            ObjectProvider<AccountStateStore> stateStoreProvider,
+            MeterRegistry meterRegistry) {
+        this.offsetStore = offsetStore;
+        this.offsetTracker = offsetTracker;
+        this.journal = journalProvider.getIfAvailable();
+        this.stateStore = stateStoreProvider.getIfAvailable();
+        this.brokerCommitsEnabled = commitPolicy.isEnabled();
+
+        this.rebalanceCounter = Counter.builder("kafka.rebalance.count")
+            .description("Number of consumer group rebalances")
+            .register(meterRegistry);
+
+        this.revokedCounter = Counter.builder("kafka.rebalance.partitions.revoked")
+            .description("Number of partitions revoked from this consumer")
+            .register(meterRegistry);
+
+        this.lostCounter = Counter.builder("kafka.rebalance.partitions.lost")
+            .description("Number of partitions lost without a clean revocation")
+            .register(meterRegistry);
+
+        this.rebalanceTimer = Timer.builder("kafka.rebalance.duration")
+            .description("Time from the start of a rebalance until assigned partitions are ready")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        rebalanceStarts.putIfAbsent(consumer, System.nanoTime());
+        if (partitions.isEmpty()) {
+            return;
+        }
+        log.info("Partitions revoked: {}", partitions);
+        revokedCounter.increment(partitions.size());
+        assignedPartitions.removeAll(partitions);
+
+        long start = System.nanoTime();
+        flushJournal();
+        commitProcessed(consumer, partitions);
+        if (stateStore != null) {
+            stateStore.onPartitionsRevoked(partitions);
+        }
+        log.info("Drained {} revoked partitions in {}ms", partitions.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        rebalanceStarts.putIfAbsent(consumer, System.nanoTime());
+        if (partitions.isEmpty()) {
+            return;
+        }
+        log.warn("Partitions lost: {}", partitions);
+        lostCounter.increment(partitions.size());
+        assignedPartitions.removeAll(partitions);
+
+        // The partitions already belong to another member, so nothing can be committed
+        flushJournal();
+        if (stateStore != null) {
+            stateStore.onPartitionsRevoked(partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long start = rebalanceStarts.getOrDefault(consumer, System.nanoTime());
+        try {
+            if (partitions.isEmpty()) {
+                return;
+            }
+            log.info("Partitions assigned: {}", partitions);
+            if (offsetStore.isEnabled()) {
+                // Entries replayed after a restart must reach the database before offsets are read
+                flushJournal();
+                seekToStoredOffsets(consumer, partitions);
+            }
+            if (stateStore != null) {
+                stateStore.onPartitionsAssigned(partitions);
+            }
+            assignedPartitions.addAll(partitions);
+        } finally {
+            rebalanceStarts.remove(consumer);
+            rebalanceCounter.increment();
+            rebalanceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Partitions currently owned by this instance.
+     */
+    public Set<TopicPartition> assignedPartitions() {
+        return Set.copyOf(assignedPartitions);
+    }
+
+    private void commitProcessed(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!brokerCommitsEnabled) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.commitOffsets(partitions);
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            consumer.commitSync(offsets);
+            log.info("Committed offsets before revocation: {}", offsets);
+        } catch (KafkaException e) {
+            log.warn("Failed to commit offsets before revocation: {}", e.getMessage());
+        }
+    }
+
+    private void seekToStoredOffsets(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            OptionalLong processed = offsetStore.findOffset(partition.topic(), partition.partition());
+            if (processed.isPresent()) {
+                consumer.seek(partition, processed.getAsLong() + 1);
+                log.info("Seeking {} to stored offset {}", partition, processed.getAsLong() + 1);
+            } else {
+                log.info("No stored offset for {}, using committed offset", partition);
+            }
+        }
+    }
+
+    private void flushJournal() {
+        if (journal != null) {
+            journal.flush();
+        }
+    }
+}
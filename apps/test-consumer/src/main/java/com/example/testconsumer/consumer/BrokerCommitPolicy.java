@@ -0,0 +1,48 @@
+package com.example.testconsumer.consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when the listener acknowledges records for a broker offset commit.
+ *
+ * Normally every processed record is acknowledged and the container commits once per poll. In
+ * offset-store mode the database holds the authoritative offsets, so the broker commit is a
+ * fallback made at most once per {@code offset-store.broker-commit-interval-ms} on each listener
+ * thread, or never when the interval is 0. Acknowledgments are cumulative per partition, so the
+ * records that were skipped are covered by the next acknowledged one.
+ */
+@Component
+public class BrokerCommitPolicy {
+
+    private final boolean offsetStoreEnabled;
+    private final long intervalNanos;
+    private final ThreadLocal<long[]> lastAcknowledged = ThreadLocal.withInitial(() -> new long[] {System.nanoTime()});
+
+    public BrokerCommitPolicy(
+            @Value("${offset-store.enabled:false}") boolean offsetStoreEnabled,
+            @Value("${offset-store.broker-commit-interval-ms:60000}") long intervalMs) {
+        this.offsetStoreEnabled = offsetStoreEnabled;
+        this.intervalNanos = intervalMs * 1_000_000L;
+    }
+
+    public boolean isEnabled() {
+        return !offsetStoreEnabled || intervalNanos > 0;
+    }
+
+    public boolean shouldAcknowledge() {
+        if (!offsetStoreEnabled) {
+            return true;
+        }
+        if (intervalNanos <= 0) {
+            return false;
+        }
+        long[] last = lastAcknowledged.get();
+        long now = System.nanoTime();
+        if (now - last[0] < intervalNanos) {
+            return false;
+        }
+        last[0] = now;
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.testconsumer.consumer;
+
+import com.example.testconsumer.model.AccountMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizes the number of records handed to the listener per poll from observed processing time.
+ *
+ * {@code max.poll.records} cannot change on a live consumer, so it is set as a ceiling and this
+ * controller caps how many of the polled records are processed: it keeps an exponentially weighted
+ * average of per-record processing time and allows as many records per poll as fit in a target
+ * fraction of {@code max.poll.interval.ms}. The listener asks {@link #tryAcquire()} before each
+ * record and nacks the rest of the poll once the budget is spent, so they are fetched again on the
+ * next poll instead of pushing the consumer past the poll interval.
+ */
+@Component
+public class PollBudgetController implements RecordInterceptor<String, AccountMessage> {
+
+    private static final Logger log = LoggerFactory.getLogger(PollBudgetController.class);
+
+    private final boolean enabled;
+    private final int maxPollRecords;
+    private final int minPollRecords;
+    private final long targetNanos;
+    private final double smoothing;
+
+    private final Counter deferredCounter;
+
+    private final ThreadLocal<PollState> pollState = ThreadLocal.withInitial(PollState::new);
+    private volatile double averageRecordNanos;
+
+    public PollBudgetController(
+            MeterRegistry meterRegistry,
+            @Value("${kafka.poll.adaptive.enabled:true}") boolean enabled,
+            @Value("${kafka.poll.max-records:500}") int maxPollRecords,
+            @Value("${kafka.poll.adaptive.min-records:1}") int minPollRecords,
+            @Value("${kafka.poll.max-interval-ms:300000}") long maxPollIntervalMs,
+            @Value("${kafka.poll.adaptive.target-fraction:0.5}") double targetFraction,
+            @Value("${kafka.poll.adaptive.smoothing:0.2}") double smoothing) {
+        this.enabled = enabled;
+        this.maxPollRecords = maxPollRecords;
+        this.minPollRecords = Math.max(1, Math.min(minPollRecords, maxPollRecords));
+        this.targetNanos = (long) (maxPollIntervalMs * 1_000_000L * targetFraction);
+        this.smoothing = smoothing;
+
+        // Start optimistic: the full ceiling fits until measurements say otherwise
+        this.averageRecordNanos = (double) targetNanos / maxPollRecords;
+
+        this.deferredCounter = Counter.builder("kafka.poll.deferred")
+            .description("Number of polled records handed back to the next poll because the budget was spent")
+            .register(meterRegistry);
+
+        Gauge.builder("kafka.poll.budget", this, PollBudgetController::budget)
+            .description("Records the listener may process per poll")
+            .register(meterRegistry);
+
+        Gauge.builder("kafka.poll.record.time", this, controller -> controller.averageRecordNanos / 1_000_000.0)
+            .description("Moving average of per-record processing time")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+
+        log.info("Poll budget {}: ceiling {} records, target {}ms per poll",
+            enabled ? "enabled" : "disabled", maxPollRecords, targetNanos / 1_000_000);
+    }
+
+    /**
+     * Records the listener may process per poll at the current average processing time.
+     */
+    public int budget() {
+        if (!enabled) {
+            return maxPollRecords;
+        }
+        double fit = targetNanos / Math.max(1.0, averageRecordNanos);
+        return (int) Math.max(minPollRecords, Math.min(maxPollRecords, fit));
+    }
+
+    /**
+     * Claim a slot in the current poll's budget. Returns false if the record should be handed
+     * back to the next poll.
+     */
+    public boolean tryAcquire() {
+        PollState state = pollState.get();
+        if (state.handed >= state.budget) {
+            deferredCounter.increment();
+            return false;
+        }
+        state.handed++;
+        state.measuring = true;
+        return true;
+    }
+
+    @Override
+    public void setupThreadState(Consumer<?, ?> consumer) {
+        PollState state = pollState.get();
+        state.handed = 0;
+        state.budget = budget();
+    }
+
+    @Override
+    public ConsumerRecord<String, AccountMessage> intercept(ConsumerRecord<String, AccountMessage> record,
+                                                            Consumer<String, AccountMessage> consumer) {
+        PollState state = pollState.get();
+        state.measuring = false;
+        state.recordStart = System.nanoTime();
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<String, AccountMessage> record, Consumer<String, AccountMessage> consumer) {
+        PollState state = pollState.get();
+        if (!state.measuring) {
+            return;
+        }
+        state.measuring = false;
+        long elapsed = System.nanoTime() - state.recordStart;
+        averageRecordNanos = averageRecordNanos + smoothing * (elapsed - averageRecordNanos);
+    }
+
+    private static final class PollState {
+        int handed;
+        int budget = Integer.MAX_VALUE;
+        boolean measuring;
+        long recordStart;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.testconsumer.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Highest offset fully processed by this instance, per partition.
+ *
+ * A record is processed once its status is recorded or it has been dead-lettered. The watermark is
+ * kept after a partition is revoked so that records delivered again after a rebalance can be
+ * counted as reprocessed.
+ */
+@Component
+public class ProcessedOffsetTracker {
+
+    private final Map<TopicPartition, Long> processed = new ConcurrentHashMap<>();
+    private final Counter reprocessedCounter;
+
+    public ProcessedOffsetTracker(MeterRegistry meterRegistry) {
+        this.reprocessedCounter = Counter.builder("kafka.rebalance.reprocessed")
+            .description("Number of records delivered again after this instance had already processed them")
+            .register(meterRegistry);
+    }
+
+    public void onProcessed(String topic, int partition, long offset) {
+        processed.merge(new TopicPartition(topic, partition), offset, Math::max);
+    }
+
+    /**
+     * Check whether a delivered record was already processed by this instance, counting it if so.
+     */
+    public boolean checkReprocessed(String topic, int partition, long offset) {
+        Long watermark = processed.get(new TopicPartition(topic, partition));
+        if (watermark != null && offset <= watermark) {
+            reprocessedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Offsets to commit for the given partitions: the next offset after the last processed record.
+     */
+    public Map<TopicPartition, OffsetAndMetadata> commitOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            Long watermark = processed.get(partition);
+            if (watermark != null) {
+                offsets.put(partition, new OffsetAndMetadata(watermark + 1));
+            }
+        }
+        return offsets;
+    }
+}
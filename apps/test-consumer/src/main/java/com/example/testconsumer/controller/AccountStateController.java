@@ -0,0 +1,96 @@
+package com.example.testconsumer.controller;
+
+import com.example.testconsumer.state.AccountStateStore;
+import com.example.testconsumer.state.AccountStateStore.AccountStatus;
+import com.example.testconsumer.state.AccountStateStore.PartitionSummary;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only aggregate queries served from the in-memory {@link AccountStateStore}.
+ *
+ * Counts cover the partitions currently assigned to this consumer instance.
+ */
+@RestController
+@RequestMapping("/api/state")
+@ConditionalOnProperty(name = "state-store.enabled", havingValue = "true")
+public class AccountStateController {
+
+    private final AccountStateStore stateStore;
+
+    public AccountStateController(AccountStateStore stateStore) {
+        this.stateStore = stateStore;
+    }
+
+    /**
+     * Transaction counts by account action
+     */
+    @GetMapping("/actions")
+    public ResponseEntity<Map<String, Long>> countsByAction() {
+        return ResponseEntity.ok(stateStore.countsByAccountAction());
+    }
+
+    @GetMapping("/actions/{accountAction}")
+    public ResponseEntity<Map<String, Object>> countByAction(@PathVariable String accountAction) {
+        return ResponseEntity.ok(Map.of(
+                "accountAction", accountAction,
+                "count", stateStore.countByAccountAction(accountAction)
+        ));
+    }
+
+    /**
+     * Transaction counts by status code, plus the number still pending (status null)
+     */
+    @GetMapping("/statuses")
+    public ResponseEntity<Map<String, Object>> countsByStatus() {
+        return ResponseEntity.ok(Map.of(
+                "statuses", stateStore.countsByStatus(),
+                "pending", stateStore.countByStatusIsNull()
+        ));
+    }
+
+    @GetMapping("/statuses/{status}")
+    public ResponseEntity<Map<String, Object>> countByStatus(@PathVariable int status) {
+        return ResponseEntity.ok(Map.of(
+                "status", status,
+                "count", stateStore.countByStatus(status)
+        ));
+    }
+
+    @GetMapping("/pending")
+    public ResponseEntity<Map<String, Long>> pending() {
+        return ResponseEntity.ok(Map.of("pending", stateStore.countByStatusIsNull()));
+    }
+
+    /**
+     * Transactions received per minute over the last N minutes
+     */
+    @GetMapping("/minutes")
+    public ResponseEntity<Map<Instant, Long>> countsByMinute(@RequestParam(defaultValue = "60") int minutes) {
+        return ResponseEntity.ok(stateStore.countsByMinute(minutes));
+    }
+
+    /**
+     * Latest status for an account number
+     */
+    @GetMapping("/accounts/{accountNumber}")
+    public ResponseEntity<AccountStatus> latestStatus(@PathVariable String accountNumber) {
+        return stateStore.latestStatus(accountNumber)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/partitions")
+    public ResponseEntity<List<PartitionSummary>> partitions() {
+        return ResponseEntity.ok(stateStore.partitionSummaries());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.testconsumer.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Last processed Kafka offset per consumer group and partition, written in the same database
+ * transaction as the {@link AccountTransaction} rows it covers.
+ */
+@Entity
+@Table(name = "consumer_offsets")
+public class ConsumerOffset {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "processed_offset", nullable = false)
+    private Long processedOffset;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected ConsumerOffset() {
+    }
+
+    public ConsumerOffset(Key id, long processedOffset) {
+        this.id = id;
+        this.processedOffset = processedOffset;
+        this.updatedAt = Instant.now();
+    }
+
+    public Key getId() {
+        return id;
+    }
+
+    public Long getProcessedOffset() {
+        return processedOffset;
+    }
+
+    public void setProcessedOffset(Long processedOffset) {
+        this.processedOffset = processedOffset;
+        this.updatedAt = Instant.now();
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumerOffset{" +
+            "consumerGroup='" + id.getConsumerGroup() + '\'' +
+            ", kafkaTopic='" + id.getKafkaTopic() + '\'' +
+            ", kafkaPartition=" + id.getKafkaPartition() +
+            ", processedOffset=" + processedOffset +
+            ", updatedAt=" + updatedAt +
+            '}';
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "consumer_group", nullable = false, length = 100)
+        private String consumerGroup;
+
+        @Column(name = "kafka_topic", nullable = false, length = 100)
+        private String kafkaTopic;
+
+        @Column(name = "kafka_partition", nullable = false)
+        private Integer kafkaPartition;
+
+        protected Key() {
+        }
+
+        public Key(String consumerGroup, String kafkaTopic, int kafkaPartition) {
+            this.consumerGroup = consumerGroup;
+            this.kafkaTopic = kafkaTopic;
+            this.kafkaPartition = kafkaPartition;
+        }
+
+        public String getConsumerGroup() {
+            return consumerGroup;
+        }
+
+        public String getKafkaTopic() {
+            return kafkaTopic;
+        }
+
+        public Integer getKafkaPartition() {
+            return kafkaPartition;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(consumerGroup, key.consumerGroup)
+                && Objects.equals(kafkaTopic, key.kafkaTopic)
+                && Objects.equals(kafkaPartition, key.kafkaPartition);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(consumerGroup, kafkaTopic, kafkaPartition);
+        }
+    }
+}
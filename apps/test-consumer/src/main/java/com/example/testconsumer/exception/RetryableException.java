@@ -1,17 +1,37 @@
 package com.example.testconsumer.exception;
 
+import java.time.Duration;
+
 /**
  * Exception thrown for retryable errors (network issues, timeouts).
  * Messages causing this exception will be retried and eventually sent to DLQ.
  */
 public class RetryableException extends RuntimeException {
 
+    private final Duration retryAfter;
+
     public RetryableException(String message) {
-        super(message);
+        this(message, (Duration) null);
     }
 
     public RetryableException(String message, Throwable cause) {
         super(message, cause);
+        this.retryAfter = null;
+    }
+
+    /**
+     * @param retryAfter how long the server asked us to wait before retrying (Retry-After)
+     */
+    public RetryableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Server-requested delay before the next attempt, or null if the server gave none.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
     }
 }
 
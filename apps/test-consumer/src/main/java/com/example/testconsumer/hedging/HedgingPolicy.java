@@ -0,0 +1,124 @@
+package com.example.testconsumer.hedging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * When to send a hedged (second, identical) request to the test-api.
+ *
+ * The hedge delay follows a percentile of recent response times, so only the slowest few percent
+ * of calls are hedged. Hedges are limited by a token budget: every request earns {@code budget-ratio}
+ * of a token up to {@code budget-burst}, and every hedge spends one, so hedging can never add more
+ * than that fraction of extra load, even when the API slows down as a whole.
+ */
+@Component
+public class HedgingPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingPolicy.class);
+
+    private final boolean enabled;
+    private final long minDelayMs;
+    private final int minSamples;
+    private final double budgetRatio;
+    private final double budgetBurst;
+    private final LatencyTracker latencyTracker;
+
+    private final Counter hedgeCounter;
+    private final Counter hedgeWinCounter;
+    private final Counter budgetExhaustedCounter;
+
+    private double tokens;
+
+    public HedgingPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${api.test-api.hedging.enabled:false}") boolean enabled,
+            @Value("${api.test-api.hedging.percentile:0.95}") double percentile,
+            @Value("${api.test-api.hedging.min-delay-ms:20}") long minDelayMs,
+            @Value("${api.test-api.hedging.window-size:1000}") int windowSize,
+            @Value("${api.test-api.hedging.min-samples:100}") int minSamples,
+            @Value("${api.test-api.hedging.budget-ratio:0.1}") double budgetRatio,
+            @Value("${api.test-api.hedging.budget-burst:10}") double budgetBurst) {
+        this.enabled = enabled;
+        this.minDelayMs = minDelayMs;
+        this.minSamples = minSamples;
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        this.latencyTracker = new LatencyTracker(windowSize, percentile, 32);
+        this.tokens = budgetBurst;
+
+        this.hedgeCounter = Counter.builder("api.hedge.sent")
+            .description("Number of hedged requests sent to test-api")
+            .register(meterRegistry);
+
+        this.hedgeWinCounter = Counter.builder("api.hedge.won")
+            .description("Number of hedged requests that answered before the original")
+            .register(meterRegistry);
+
+        this.budgetExhaustedCounter = Counter.builder("api.hedge.budget.exhausted")
+            .description("Number of hedges skipped because the hedge budget was spent")
+            .register(meterRegistry);
+
+        Gauge.builder("api.hedge.delay", this, HedgingPolicy::hedgeDelayMs)
+            .description("Current delay before a hedged request is sent")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+
+        if (enabled) {
+            log.info("Request hedging enabled at p{} of the last {} calls, budget {} of requests",
+                (int) (percentile * 100), windowSize, budgetRatio);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Delay after which a request should be hedged, or -1 while there are too few samples.
+     */
+    public long hedgeDelayMs() {
+        if (latencyTracker.sampleCount() < minSamples) {
+            return -1;
+        }
+        long percentile = latencyTracker.percentile();
+        return percentile < 0 ? -1 : Math.max(minDelayMs, percentile);
+    }
+
+    /**
+     * Earn hedge budget for an original (non-hedge) request.
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(budgetBurst, tokens + budgetRatio);
+    }
+
+    /**
+     * Record the latency of a successful response.
+     */
+    public void onResponse(long latencyMs) {
+        latencyTracker.record(latencyMs);
+    }
+
+    /**
+     * Claim budget for a hedge. Returns false if the budget is spent.
+     */
+    public boolean tryAcquireHedge() {
+        synchronized (this) {
+            if (tokens < 1) {
+                budgetExhaustedCounter.increment();
+                return false;
+            }
+            tokens -= 1;
+        }
+        hedgeCounter.increment();
+        return true;
+    }
+
+    public void onHedgeWon() {
+        hedgeWinCounter.increment();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.testconsumer.hedging;
+
+import java.util.Arrays;
+
+/**
+ * Percentile of recent latencies over a fixed-size ring buffer of samples.
+ *
+ * The percentile is recomputed from a sorted copy every {@code recomputeEvery} samples rather than
+ * on every read, which keeps the per-request cost negligible.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int recomputeEvery;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long cachedPercentile = -1;
+
+    public LatencyTracker(int windowSize, double percentile, int recomputeEvery) {
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+        this.recomputeEvery = Math.max(1, recomputeEvery);
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (++sinceRecompute >= recomputeEvery) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedPercentile = sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    public synchronized int sampleCount() {
+        return count;
+    }
+
+    /**
+     * Latency at the tracked percentile, or -1 until enough samples have been recorded.
+     */
+    public long percentile() {
+        return cachedPercentile;
+    }
+}
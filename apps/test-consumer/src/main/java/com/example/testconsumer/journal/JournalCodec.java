@@ -0,0 +1,130 @@
+package com.example.testconsumer.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Binary encoding of {@link JournalEntry} payloads.
+ *
+ * Strings are written as an int length (-1 for null) followed by UTF-8 bytes, instants as epoch
+ * seconds plus nanos (Long.MIN_VALUE seconds for null).
+ */
+final class JournalCodec {
+
+    private static final long NULL_INSTANT = Long.MIN_VALUE;
+
+    // type + appendedAt + partition + offset + status flag/value + 4 instants
+    private static final int FIXED_BYTES = 1 + 8 + 4 + 8 + 1 + 4 + 4 * 12;
+    private static final int STRING_FIELDS = 6;
+
+    /**
+     * Byte offset of {@code appendedAt} within an encoded payload.
+     */
+    static final int APPENDED_AT_OFFSET = 1;
+
+    private JournalCodec() {
+    }
+
+    static byte[][] strings(JournalEntry entry) {
+        return new byte[][] {
+            bytes(entry.kafkaTopic()),
+            bytes(entry.firstName()),
+            bytes(entry.lastName()),
+            bytes(entry.accountNumber()),
+            bytes(entry.accountAction()),
+            bytes(entry.responseMessage())
+        };
+    }
+
+    static int encodedSize(byte[][] strings) {
+        int size = FIXED_BYTES + STRING_FIELDS * 4;
+        for (byte[] value : strings) {
+            if (value != null) {
+                size += value.length;
+            }
+        }
+        return size;
+    }
+
+    static void encode(JournalEntry entry, byte[][] strings, ByteBuffer buffer) {
+        buffer.put((byte) entry.type().ordinal());
+        buffer.putLong(entry.appendedAt());
+        putString(buffer, strings[0]);
+        buffer.putInt(entry.kafkaPartition());
+        buffer.putLong(entry.kafkaOffset());
+        putString(buffer, strings[1]);
+        putString(buffer, strings[2]);
+        putString(buffer, strings[3]);
+        putString(buffer, strings[4]);
+        putInstant(buffer, entry.eventEnqueuedTime());
+        putInstant(buffer, entry.producerTs());
+        putInstant(buffer, entry.receivedAt());
+        buffer.put((byte) (entry.status() != null ? 1 : 0));
+        buffer.putInt(entry.status() != null ? entry.status() : 0);
+        putString(buffer, strings[5]);
+        putInstant(buffer, entry.processedAt());
+    }
+
+    static JournalEntry decode(ByteBuffer buffer) {
+        JournalEntry.Type type = JournalEntry.Type.values()[buffer.get()];
+        long appendedAt = buffer.getLong();
+        String topic = getString(buffer);
+        int partition = buffer.getInt();
+        long offset = buffer.getLong();
+        String firstName = getString(buffer);
+        String lastName = getString(buffer);
+        String accountNumber = getString(buffer);
+        String accountAction = getString(buffer);
+        Instant eventEnqueuedTime = getInstant(buffer);
+        Instant producerTs = getInstant(buffer);
+        Instant receivedAt = getInstant(buffer);
+        boolean hasStatus = buffer.get() == 1;
+        int status = buffer.getInt();
+        String responseMessage = getString(buffer);
+        Instant processedAt = getInstant(buffer);
+
+        return new JournalEntry(type, appendedAt, topic, partition, offset, firstName, lastName,
+            accountNumber, accountAction, eventEnqueuedTime, producerTs, receivedAt,
+            hasStatus ? status : null, responseMessage, processedAt);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void putInstant(ByteBuffer buffer, Instant value) {
+        if (value == null) {
+            buffer.putLong(NULL_INSTANT);
+            buffer.putInt(0);
+            return;
+        }
+        buffer.putLong(value.getEpochSecond());
+        buffer.putInt(value.getNano());
+    }
+
+    private static Instant getInstant(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NULL_INSTANT ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.testconsumer.journal;
+
+import com.example.testconsumer.entity.AccountTransaction;
+
+import java.time.Instant;
+
+/**
+ * A single write-behind journal record describing a change to an {@link AccountTransaction}.
+ *
+ * RECEIVED entries carry the full row as it was first recorded. STATUS and ERROR entries carry the
+ * outcome of processing and are matched to their row by Kafka topic, partition and offset; only
+ * STATUS marks the record as processed for the offset store. OFFSET entries carry nothing but the
+ * Kafka position of a record that was handled without a row change, such as a dead-lettered one.
+ */
+public record JournalEntry(
+    Type type,
+    long appendedAt,
+    String kafkaTopic,
+    int kafkaPartition,
+    long kafkaOffset,
+    String firstName,
+    String lastName,
+    String accountNumber,
+    String accountAction,
+    Instant eventEnqueuedTime,
+    Instant producerTs,
+    Instant receivedAt,
+    Integer status,
+    String responseMessage,
+    Instant processedAt
+) {
+
+    public enum Type {
+        RECEIVED,
+        STATUS,
+        ERROR,
+        OFFSET
+    }
+
+    public static JournalEntry received(AccountTransaction transaction) {
+        return of(Type.RECEIVED, transaction);
+    }
+
+    public static JournalEntry status(AccountTransaction transaction) {
+        return of(Type.STATUS, transaction);
+    }
+
+    public static JournalEntry error(AccountTransaction transaction) {
+        return of(Type.ERROR, transaction);
+    }
+
+    public static JournalEntry offset(String topic, int partition, long offset) {
+        return new JournalEntry(Type.OFFSET, System.currentTimeMillis(), topic, partition, offset,
+            null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static JournalEntry of(Type type, AccountTransaction transaction) {
+        return new JournalEntry(
+            type,
+            System.currentTimeMillis(),
+            transaction.getKafkaTopic(),
+            transaction.getKafkaPartition(),
+            transaction.getKafkaOffset(),
+            transaction.getFirstName(),
+            transaction.getLastName(),
+            transaction.getAccountNumber(),
+            transaction.getAccountAction(),
+            transaction.getEventEnqueuedTime(),
+            transaction.getProducerTs(),
+            transaction.getReceivedAt(),
+            transaction.getStatus(),
+            transaction.getResponseMessage(),
+            transaction.getProcessedAt()
+        );
+    }
+
+    /**
+     * Key identifying the Kafka record this entry belongs to.
+     */
+    public String offsetKey() {
+        return kafkaTopic + "-" + kafkaPartition + "@" + kafkaOffset;
+    }
+
+    public AccountTransaction toTransaction() {
+        AccountTransaction transaction = new AccountTransaction();
+        transaction.setFirstName(firstName);
+        transaction.setLastName(lastName);
+        transaction.setAccountNumber(accountNumber);
+        transaction.setAccountAction(accountAction);
+        transaction.setKafkaTopic(kafkaTopic);
+        transaction.setKafkaPartition(kafkaPartition);
+        transaction.setKafkaOffset(kafkaOffset);
+        transaction.setEventEnqueuedTime(eventEnqueuedTime);
+        transaction.setProducerTs(producerTs);
+        transaction.setReceivedAt(receivedAt);
+        transaction.setStatus(status);
+        transaction.setResponseMessage(responseMessage);
+        transaction.setProcessedAt(processedAt);
+        return transaction;
+    }
+}
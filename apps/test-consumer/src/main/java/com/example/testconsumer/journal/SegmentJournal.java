@@ -0,0 +1,535 @@
+package com.example.testconsumer.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link JournalEntry} records kept in fixed-size, memory-mapped segment files.
+ *
+ * Each frame is laid out as [int length][int crc32][payload]; a zero length marks the end of the
+ * written data in a segment. Writers append under a lock and publish their position through a
+ * volatile, so a single reader (the flusher) can drain frames without locking. The reader commits
+ * its position to a checkpoint file, and anything after the checkpoint is replayed on restart.
+ *
+ * A frame whose checksum does not match is skipped; if the length itself is unreadable, the rest
+ * of the segment is skipped (rolling the writer first if it is the segment being written). Either
+ * way the entries that could not be read are counted as lost, {@link #corruptions()} goes up once
+ * the reader commits past them, and the segment is kept as {@code segment-N.log.corrupt} instead
+ * of being deleted. A torn frame at the very end of the last segment is expected after a crash and
+ * is truncated on recovery instead.
+ */
+public class SegmentJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    // Returned by nextFrame() for a frame that failed its checksum; the reader is already past it
+    private static final ByteBuffer CORRUPT_FRAME = ByteBuffer.allocate(0);
+    // Returned by nextFrame() when the frame length is invalid, so no later frame can be found
+    private static final ByteBuffer UNREADABLE = ByteBuffer.allocate(0);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+
+    // Writer state, guarded by "this"
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private final CRC32 writeCrc = new CRC32();
+    private long writeSegmentRecords;
+
+    // Entries appended to each completed segment, guarded by "this"
+    private final Map<Long, Long> segmentRecords = new HashMap<>();
+
+    // Writer position (segment << 32 | position) visible to the reader
+    private volatile long published;
+
+    // Reader state, owned by the flusher thread
+    private long readSegment;
+    private int readPosition;
+    private ByteBuffer readBuffer;
+    private long readRecords;
+    private long readSegmentRecords;
+    private long committedSegment;
+    private int committedPosition;
+    private long committedSegmentRecords;
+    private long pendingCorruptions;
+    private long pendingLost;
+    private final Set<Long> corruptSegments = new HashSet<>();
+    private final CRC32 readCrc = new CRC32();
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong committedRecords = new AtomicLong();
+    private final AtomicLong lostRecords = new AtomicLong();
+    private final AtomicLong corruptions = new AtomicLong();
+    private volatile long oldestPendingAppendedAt;
+
+    private SegmentJournal(Path directory, int segmentSize, boolean forceOnAppend) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceOnAppend = forceOnAppend;
+    }
+
+    /**
+     * Open (or create) the journal in the given directory, recovering the writer position and the
+     * number of entries that were appended but never committed.
+     */
+    public static SegmentJournal open(Path directory, int segmentSize, boolean forceOnAppend) throws IOException {
+        SegmentJournal journal = new SegmentJournal(directory, segmentSize, forceOnAppend);
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Append an entry. Safe to call from multiple threads.
+     */
+    public synchronized void append(JournalEntry entry) {
+        byte[][] strings = JournalCodec.strings(entry);
+        int payloadSize = JournalCodec.encodedSize(strings);
+        int frameSize = FRAME_HEADER_BYTES + payloadSize;
+        if (frameSize + 4 > segmentSize) {
+            throw new IllegalArgumentException("Journal entry of " + frameSize + " bytes exceeds segment size " + segmentSize);
+        }
+
+        if (scratch.capacity() < payloadSize) {
+            scratch = ByteBuffer.allocate(Math.max(payloadSize, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        JournalCodec.encode(entry, strings, scratch);
+        scratch.flip();
+
+        writeCrc.reset();
+        writeCrc.update(scratch.duplicate());
+
+        int position = writeBuffer.position();
+        if (position + frameSize + 4 > segmentSize) {
+            roll();
+            position = 0;
+        }
+
+        // Write the payload and checksum first, then the length that makes the frame visible
+        writeBuffer.putInt(position + 4, (int) writeCrc.getValue());
+        writeBuffer.put(position + FRAME_HEADER_BYTES, scratch, 0, payloadSize);
+        writeBuffer.putInt(position, payloadSize);
+        writeBuffer.position(position + frameSize);
+
+        if (forceOnAppend) {
+            writeBuffer.force(position, frameSize);
+        }
+
+        writeSegmentRecords++;
+        appendedRecords.incrementAndGet();
+        published = pack(writeSegment, position + frameSize);
+    }
+
+    /**
+     * Read up to {@code maxEntries} entries past the reader position. Entries stay pending until
+     * {@link #commit()} is called, or are read again after {@link #rewind()}.
+     */
+    public List<JournalEntry> read(int maxEntries) {
+        List<JournalEntry> entries = new ArrayList<>(Math.min(maxEntries, 1024));
+        long limit = published;
+
+        while (entries.size() < maxEntries) {
+            long limitSegment = limit >>> 32;
+            int limitPosition = (int) limit;
+
+            if (readSegment == limitSegment && readPosition >= limitPosition) {
+                break;
+            }
+
+            ByteBuffer frame = nextFrame();
+            if (frame == CORRUPT_FRAME) {
+                // The length was intact, so the next frame starts right after the skipped one
+                markCorrupt("checksum mismatch");
+                readSegmentRecords++;
+                pendingLost++;
+                continue;
+            }
+            if (frame == null || frame == UNREADABLE) {
+                if (readSegment == limitSegment) {
+                    // Data ends before the published position of the segment being written, so
+                    // its frames can no longer be followed; let the writer move on to a new segment
+                    markCorrupt(frame == null ? "unexpected end of data" : "invalid frame length");
+                    abandonWriteSegment();
+                    limit = published;
+                } else if (frame == UNREADABLE) {
+                    markCorrupt("invalid frame length");
+                }
+                // End of a completed segment, move to the next one
+                leaveSegment();
+                continue;
+            }
+
+            JournalEntry entry = JournalCodec.decode(frame);
+            if (readRecords == 0) {
+                oldestPendingAppendedAt = entry.appendedAt();
+            }
+            entries.add(entry);
+            readRecords++;
+            readSegmentRecords++;
+        }
+        return entries;
+    }
+
+    /**
+     * Mark everything read so far as durably flushed. Fully consumed segments are deleted, or kept
+     * aside if they were corrupt. Does nothing if the reader has not moved.
+     */
+    public void commit() {
+        if (readSegment == committedSegment && readPosition == committedPosition && pendingCorruptions == 0) {
+            return;
+        }
+        long previousSegment = committedSegment;
+        committedSegment = readSegment;
+        committedPosition = readPosition;
+        committedSegmentRecords = readSegmentRecords;
+        committedRecords.addAndGet(readRecords);
+        readRecords = 0;
+        corruptions.addAndGet(pendingCorruptions);
+        lostRecords.addAndGet(pendingLost);
+        pendingCorruptions = 0;
+        pendingLost = 0;
+        oldestPendingAppendedAt = peekAppendedAt();
+
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            log.warn("Failed to write journal checkpoint {}:{}: {}", committedSegment, committedPosition, e.getMessage());
+        }
+
+        for (long segment = previousSegment; segment < committedSegment; segment++) {
+            synchronized (this) {
+                segmentRecords.remove(segment);
+            }
+            try {
+                if (corruptSegments.remove(segment)) {
+                    Path quarantined = directory.resolve(segmentPath(segment).getFileName() + CORRUPT_SUFFIX);
+                    Files.move(segmentPath(segment), quarantined, StandardCopyOption.REPLACE_EXISTING);
+                    log.error("Moved corrupt journal segment {} to {}", segment, quarantined);
+                } else {
+                    Files.deleteIfExists(segmentPath(segment));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to remove flushed journal segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Return the reader to the last committed position so pending entries are read again.
+     */
+    public void rewind() {
+        if (readSegment != committedSegment) {
+            readBuffer = null;
+        }
+        readSegment = committedSegment;
+        readPosition = committedPosition;
+        readSegmentRecords = committedSegmentRecords;
+        readRecords = 0;
+        pendingCorruptions = 0;
+        pendingLost = 0;
+    }
+
+    /**
+     * Number of entries appended but not yet committed.
+     */
+    public long depth() {
+        return appendedRecords.get() - committedRecords.get() - lostRecords.get();
+    }
+
+    /**
+     * Number of corrupt frames or segment tails the reader has committed past.
+     */
+    public long corruptions() {
+        return corruptions.get();
+    }
+
+    /**
+     * Number of appended entries that could not be read back because of corruption.
+     */
+    public long lostRecords() {
+        return lostRecords.get();
+    }
+
+    /**
+     * Append time (epoch millis) of the oldest uncommitted entry, or 0 if the journal is drained.
+     */
+    public long oldestPendingAppendedAt() {
+        return depth() > 0 ? oldestPendingAppendedAt : 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+
+    private ByteBuffer nextFrame() {
+        if (readBuffer == null) {
+            readBuffer = mapForRead(readSegment);
+        }
+        if (readPosition + FRAME_HEADER_BYTES > segmentSize) {
+            return null;
+        }
+
+        int length = readBuffer.getInt(readPosition);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || readPosition + FRAME_HEADER_BYTES + length > segmentSize) {
+            return UNREADABLE;
+        }
+
+        ByteBuffer payload = readBuffer.slice(readPosition + FRAME_HEADER_BYTES, length);
+        readCrc.reset();
+        readCrc.update(payload.duplicate());
+        boolean valid = (int) readCrc.getValue() == readBuffer.getInt(readPosition + 4);
+
+        readPosition += FRAME_HEADER_BYTES + length;
+        return valid ? payload : CORRUPT_FRAME;
+    }
+
+    private void markCorrupt(String reason) {
+        corruptSegments.add(readSegment);
+        pendingCorruptions++;
+        log.error("Corrupt journal segment {} at position {} ({}), skipping", readSegment, readPosition, reason);
+    }
+
+    /**
+     * Move the reader to the start of the next segment, counting entries of this one it never got to.
+     */
+    private void leaveSegment() {
+        long appended;
+        synchronized (this) {
+            appended = segmentRecords.getOrDefault(readSegment, 0L);
+        }
+        long lost = appended - readSegmentRecords;
+        if (lost > 0) {
+            if (!corruptSegments.contains(readSegment)) {
+                markCorrupt("missing entries");
+            }
+            pendingLost += lost;
+            log.error("Lost {} entries in corrupt journal segment {}", lost, readSegment);
+        }
+        readSegment++;
+        readPosition = 0;
+        readBuffer = null;
+        readSegmentRecords = 0;
+    }
+
+    private synchronized void abandonWriteSegment() {
+        if (writeSegment == readSegment) {
+            roll();
+        }
+    }
+
+    private long peekAppendedAt() {
+        long limit = published;
+        if (readSegment == (limit >>> 32) && readPosition >= (int) limit) {
+            return 0;
+        }
+        if (readBuffer == null) {
+            readBuffer = mapForRead(readSegment);
+        }
+        if (readPosition + FRAME_HEADER_BYTES > segmentSize) {
+            return System.currentTimeMillis();
+        }
+        int length = readBuffer.getInt(readPosition);
+        if (length <= 0 || readPosition + FRAME_HEADER_BYTES + length > segmentSize) {
+            // Next entry lives in a later segment (or cannot be read); approximate with now
+            return System.currentTimeMillis();
+        }
+        return readBuffer.getLong(readPosition + FRAME_HEADER_BYTES + JournalCodec.APPENDED_AT_OFFSET);
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> segments = listSegments();
+        long[] checkpoint = readCheckpoint();
+        long startSegment = checkpoint != null ? checkpoint[0] : (segments.isEmpty() ? 0 : segments.get(0));
+        int startPosition = checkpoint != null ? (int) checkpoint[1] : 0;
+        if (!segments.isEmpty() && startSegment < segments.get(0)) {
+            startSegment = segments.get(0);
+            startPosition = 0;
+        }
+
+        for (long segment : segments) {
+            if (segment < startSegment) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+
+        readSegment = startSegment;
+        readPosition = startPosition;
+        committedSegment = startSegment;
+        committedPosition = startPosition;
+
+        // Count the entries left over from the previous run and find the end of the written data
+        long recovered = 0;
+        long lastSegment = startSegment;
+        long lastSegmentRecords = 0;
+        int endPosition = startPosition;
+        for (long segment : segments) {
+            if (segment < startSegment) {
+                continue;
+            }
+            boolean last = segment == segments.get(segments.size() - 1);
+            lastSegment = segment;
+            readSegment = segment;
+            readPosition = segment == startSegment ? startPosition : 0;
+            readBuffer = null;
+
+            // Frames that fail their checksum still count, so the reader reports them as lost
+            long count = 0;
+            while (true) {
+                int frameStart = readPosition;
+                ByteBuffer frame = nextFrame();
+                if (frame == null || frame == UNREADABLE) {
+                    break;
+                }
+                if (frame == CORRUPT_FRAME) {
+                    if (last && isEndOfData()) {
+                        // Torn final write: truncated below
+                        readPosition = frameStart;
+                        break;
+                    }
+                }
+                count++;
+            }
+            if (last) {
+                lastSegmentRecords = count;
+            } else {
+                segmentRecords.put(segment, count);
+            }
+            recovered += count;
+            endPosition = readPosition;
+        }
+        rewind();
+        readBuffer = null;
+
+        appendedRecords.set(recovered);
+        committedRecords.set(0);
+
+        writeSegment = lastSegment;
+        writeSegmentRecords = lastSegmentRecords;
+        writeBuffer = mapForWrite(lastSegment);
+        if (writeBuffer.getInt(endPosition) != 0) {
+            log.warn("Truncating torn write at journal segment {} position {}", lastSegment, endPosition);
+            for (int i = endPosition; i < segmentSize; i++) {
+                writeBuffer.put(i, (byte) 0);
+            }
+        }
+        writeBuffer.position(endPosition);
+        published = pack(writeSegment, endPosition);
+
+        if (recovered > 0) {
+            log.info("Recovered {} unflushed journal entries from {}", recovered, directory);
+        }
+    }
+
+    private boolean isEndOfData() {
+        return readPosition + FRAME_HEADER_BYTES > segmentSize || readBuffer.getInt(readPosition) == 0;
+    }
+
+    private void roll() {
+        if (forceOnAppend) {
+            writeBuffer.force();
+        }
+        segmentRecords.put(writeSegment, writeSegmentRecords);
+        writeSegmentRecords = 0;
+        writeSegment++;
+        writeBuffer = mapForWrite(writeSegment);
+        published = pack(writeSegment, 0);
+        log.debug("Rolled journal to segment {}", writeSegment);
+    }
+
+    private MappedByteBuffer mapForWrite(long segment) {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(segment).toFile(), "rw")) {
+            if (file.length() < segmentSize) {
+                file.setLength(segmentSize);
+            }
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + segment, e);
+        }
+    }
+
+    private ByteBuffer mapForRead(long segment) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + segment, e);
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 12) {
+            log.warn("Ignoring truncated journal checkpoint {}", path);
+            return null;
+        }
+        return new long[] {buffer.getLong(), buffer.getInt()};
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(committedSegment).putInt(committedPosition);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long pack(long segment, int position) {
+        return (segment << 32) | (position & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.testconsumer.journal;
+
+import com.example.testconsumer.service.AccountTransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind persistence for {@code AccountTransaction} changes.
+ *
+ * The listener thread appends entries to a local {@link SegmentJournal} and returns immediately;
+ * a background flusher drains the journal to the database in large batches. Entries that were
+ * journaled but not flushed before a restart are replayed on startup.
+ *
+ * Requires the database offset store: a record is acknowledged once it is journaled, so only
+ * offsets stored with the flushed batch say what reached the database. If the journal is lost
+ * with entries still unflushed, the consumer resumes from those offsets and consumes them again.
+ */
+@Component
+@ConditionalOnProperty(name = "persistence.write-behind.enabled", havingValue = "true")
+public class WriteBehindJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindJournal.class);
+
+    private final AccountTransactionService transactionService;
+    private final Path journalDir;
+    private final int segmentSizeBytes;
+    private final int flushBatchSize;
+    private final long flushIntervalMs;
+    private final boolean forceOnAppend;
+
+    private final Counter flushedCounter;
+    private final Counter flushErrorCounter;
+    private final Timer flushTimer;
+    private final MeterRegistry meterRegistry;
+
+    private SegmentJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+    private long replayRemaining;
+    private long recoveredEntries;
+
+    public WriteBehindJournal(
+            AccountTransactionService transactionService,
+            MeterRegistry meterRegistry,
+            @Value("${persistence.write-behind.journal-dir:./journal}") String journalDir,
+            @Value("${persistence.write-behind.segment-size-bytes:67108864}") int segmentSizeBytes,
+            @Value("${persistence.write-behind.flush-batch-size:500}") int flushBatchSize,
+            @Value("${persistence.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${persistence.write-behind.force-on-append:false}") boolean forceOnAppend,
+            @Value("${offset-store.enabled:false}") boolean offsetStoreEnabled) {
+        if (!offsetStoreEnabled) {
+            throw new IllegalStateException("persistence.write-behind.enabled requires offset-store.enabled: "
+                + "without it, records acknowledged to the broker but not yet flushed are lost with the journal");
+        }
+        this.transactionService = transactionService;
+        this.meterRegistry = meterRegistry;
+        this.journalDir = Path.of(journalDir);
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.flushBatchSize = flushBatchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.forceOnAppend = forceOnAppend;
+
+        this.flushedCounter = Counter.builder("journal.flush.records")
+            .description("Number of journal entries flushed to the database")
+            .register(meterRegistry);
+
+        this.flushErrorCounter = Counter.builder("journal.flush.errors")
+            .description("Number of failed journal flush batches")
+            .register(meterRegistry);
+
+        this.flushTimer = Timer.builder("journal.flush.duration")
+            .description("Time taken to flush a journal batch to the database")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            journal = SegmentJournal.open(journalDir, segmentSizeBytes, forceOnAppend);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-behind journal at " + journalDir, e);
+        }
+        replayRemaining = journal.depth();
+        recoveredEntries = replayRemaining;
+
+        Gauge.builder("journal.depth", journal, SegmentJournal::depth)
+            .description("Number of journal entries not yet flushed to the database")
+            .register(meterRegistry);
+
+        Gauge.builder("journal.flush.lag", journal, j -> {
+                long oldest = j.oldestPendingAppendedAt();
+                return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+            })
+            .description("Age in milliseconds of the oldest journal entry not yet flushed")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+
+        FunctionCounter.builder("journal.corruptions", journal, SegmentJournal::corruptions)
+            .description("Number of corrupt journal frames or segment tails skipped by the flusher")
+            .register(meterRegistry);
+
+        FunctionCounter.builder("journal.lost.records", journal, SegmentJournal::lostRecords)
+            .description("Number of journal entries that could not be read back because of corruption")
+            .register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        log.info("Write-behind journal started at {} (segment size {} bytes, batch size {}, interval {}ms, {} entries to replay)",
+            journalDir.toAbsolutePath(), segmentSizeBytes, flushBatchSize, flushIntervalMs, replayRemaining);
+    }
+
+    /**
+     * Append an entry to the journal. The entry is flushed to the database asynchronously.
+     */
+    public void append(JournalEntry entry) {
+        journal.append(entry);
+    }
+
+    public long depth() {
+        return journal.depth();
+    }
+
+    /**
+     * Entries found unflushed in the journal at startup. They reach the database without passing
+     * through the listener, so in-memory state built from snapshots does not include them.
+     */
+    public long recoveredEntries() {
+        return recoveredEntries;
+    }
+
+    public long corruptions() {
+        return journal.corruptions();
+    }
+
+    public long lostRecords() {
+        return journal.lostRecords();
+    }
+
+    /**
+     * Flush everything appended so far on the calling thread, e.g. before partitions change owner.
+     * Stops early if a batch fails; the flusher thread keeps retrying it.
+     */
+    public void flush() {
+        int flushed;
+        do {
+            flushed = flushOnce();
+        } while (flushed > 0);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Drain whatever the listener appended after the flusher's last pass
+        flush();
+
+        journal.close();
+        log.info("Write-behind journal stopped with {} entries pending", journal.depth());
+    }
+
+    private void flushLoop() {
+        while (running) {
+            int flushed = flushOnce();
+            if (flushed < flushBatchSize && running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+    }
+
+    private synchronized int flushOnce() {
+        List<JournalEntry> batch = journal.read(flushBatchSize);
+        if (batch.isEmpty()) {
+            // The reader may still have skipped corrupt frames
+            journal.commit();
+            return 0;
+        }
+
+        // Entries replayed after a restart may already have reached the database
+        boolean deduplicate = replayRemaining > 0;
+        long start = System.nanoTime();
+        try {
+            transactionService.persistJournalBatch(batch, deduplicate);
+            journal.commit();
+        } catch (RuntimeException e) {
+            journal.rewind();
+            flushErrorCounter.increment();
+            log.error("Failed to flush {} journal entries, will retry: {}", batch.size(), e.getMessage(), e);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(flushIntervalMs, 1000)));
+            return 0;
+        }
+
+        replayRemaining = Math.max(0, replayRemaining - batch.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        flushedCounter.increment(batch.size());
+        log.debug("Flushed {} journal entries, {} pending", batch.size(), journal.depth());
+        return batch.size();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.testconsumer.journal;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the write-behind journal DOWN once the flusher has skipped a corrupt frame. Entries in
+ * the corrupt region never reach the database, so this stays DOWN until someone has looked at the
+ * quarantined {@code .corrupt} segment and restarted the consumer.
+ */
+@Component
+@ConditionalOnProperty(name = "persistence.write-behind.enabled", havingValue = "true")
+public class WriteBehindJournalHealthIndicator implements HealthIndicator {
+
+    private final WriteBehindJournal journal;
+
+    public WriteBehindJournalHealthIndicator(WriteBehindJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Health health() {
+        long corruptions = journal.corruptions();
+        Health.Builder builder = corruptions > 0 ? Health.down() : Health.up();
+        return builder
+            .withDetail("depth", journal.depth())
+            .withDetail("corruptions", corruptions)
+            .withDetail("lostRecords", journal.lostRecords())
+            .build();
+    }
+}
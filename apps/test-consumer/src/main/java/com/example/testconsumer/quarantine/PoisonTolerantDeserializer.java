@@ -0,0 +1,84 @@
+package com.example.testconsumer.quarantine;
+
+import com.example.testconsumer.model.AccountMessage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Value deserializer that never fails inside {@code poll()}.
+ *
+ * Delegates to the JSON deserializer. If decoding fails, or the payload is empty, the record is
+ * returned with a null value and marked with {@link #REASON_HEADER} and {@link #RAW_VALUE_HEADER},
+ * so {@link QuarantineInterceptor} can forward it to the quarantine topic instead of the
+ * consumer looping on the same offset.
+ *
+ * Quarantined records keep their headers, so a record that was fixed and re-published to the main
+ * topic may still carry these markers. They are removed before decoding, so only a failure of this
+ * deserialization marks the record.
+ */
+public class PoisonTolerantDeserializer implements Deserializer<AccountMessage> {
+
+    public static final String REASON_HEADER = "x-quarantine-reason";
+    public static final String RAW_VALUE_HEADER = "x-quarantine-raw-value";
+
+    private final Deserializer<AccountMessage> delegate;
+
+    public PoisonTolerantDeserializer(Deserializer<AccountMessage> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public AccountMessage deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public AccountMessage deserialize(String topic, Headers headers, byte[] data) {
+        if (headers != null) {
+            headers.remove(REASON_HEADER);
+            headers.remove(RAW_VALUE_HEADER);
+        }
+        if (data == null || data.length == 0) {
+            return markPoison(headers, data, "Empty payload");
+        }
+        try {
+            AccountMessage message = headers != null
+                ? delegate.deserialize(topic, headers, data)
+                : delegate.deserialize(topic, data);
+            return message != null ? message : markPoison(headers, data, "Payload decoded to null");
+        } catch (RuntimeException e) {
+            return markPoison(headers, data, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the record was marked as undecodable by this deserializer: no value, plus the marker.
+     */
+    public static boolean isPoison(ConsumerRecord<?, ?> record) {
+        return record.value() == null && record.headers().lastHeader(REASON_HEADER) != null;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static AccountMessage markPoison(Headers headers, byte[] data, String reason) {
+        if (headers == null) {
+            // Without headers there is no way to mark the record; let the failure surface
+            throw new IllegalStateException("Cannot deserialize AccountMessage: " + reason);
+        }
+        headers.add(REASON_HEADER, reason.getBytes(StandardCharsets.UTF_8));
+        headers.add(RAW_VALUE_HEADER, data != null ? data : new byte[0]);
+        return null;
+    }
+}
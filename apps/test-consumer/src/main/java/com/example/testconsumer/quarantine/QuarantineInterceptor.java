@@ -0,0 +1,31 @@
+package com.example.testconsumer.quarantine;
+
+import com.example.testconsumer.model.AccountMessage;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diverts records marked by {@link PoisonTolerantDeserializer} to the {@link QuarantineService}
+ * before they reach the listener. A poison record is only passed on to the listener if it could
+ * not be quarantined, so that the listener fails it and the error handler retries it.
+ */
+@Component
+public class QuarantineInterceptor implements RecordInterceptor<String, AccountMessage> {
+
+    private final QuarantineService quarantineService;
+
+    public QuarantineInterceptor(QuarantineService quarantineService) {
+        this.quarantineService = quarantineService;
+    }
+
+    @Override
+    public ConsumerRecord<String, AccountMessage> intercept(ConsumerRecord<String, AccountMessage> record,
+                                                            Consumer<String, AccountMessage> consumer) {
+        if (PoisonTolerantDeserializer.isPoison(record)) {
+            return quarantineService.quarantine(record) ? null : record;
+        }
+        return record;
+    }
+}
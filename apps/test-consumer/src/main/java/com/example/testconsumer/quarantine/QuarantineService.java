@@ -0,0 +1,135 @@
+package com.example.testconsumer.quarantine;
+
+import com.example.testconsumer.consumer.ProcessedOffsetTracker;
+import com.example.testconsumer.service.AccountTransactionRecorder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Forwards undecodable records to the quarantine topic.
+ *
+ * The raw value bytes and original headers are republished as-is, plus headers describing where
+ * the record came from. The listener thread waits for the send to be acknowledged, as the DLQ
+ * recoverer does, and only then records the offset as processed. If the send fails, the record is
+ * handed on to the listener, which fails it so the error handler retries it.
+ */
+@Service
+public class QuarantineService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuarantineService.class);
+
+    public static final String ORIGINAL_TOPIC_HEADER = "x-quarantine-original-topic";
+    public static final String ORIGINAL_PARTITION_HEADER = "x-quarantine-original-partition";
+    public static final String ORIGINAL_OFFSET_HEADER = "x-quarantine-original-offset";
+    public static final String ORIGINAL_TIMESTAMP_HEADER = "x-quarantine-original-timestamp";
+
+    private final KafkaTemplate<byte[], byte[]> quarantineKafkaTemplate;
+    private final AccountTransactionRecorder transactionRecorder;
+    private final ProcessedOffsetTracker offsetTracker;
+    private final MeterRegistry meterRegistry;
+    private final String quarantineTopic;
+    private final long sendTimeoutMs;
+    private final Counter publishedCounter;
+    private final Counter publishErrorCounter;
+    private final Map<Integer, Counter> poisonCounters = new ConcurrentHashMap<>();
+
+    public QuarantineService(
+            @Qualifier("quarantineKafkaTemplate") KafkaTemplate<byte[], byte[]> quarantineKafkaTemplate,
+            AccountTransactionRecorder transactionRecorder,
+            ProcessedOffsetTracker offsetTracker,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.topic.quarantine:accounts-quarantine}") String quarantineTopic,
+            @Value("${kafka.quarantine.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.quarantineKafkaTemplate = quarantineKafkaTemplate;
+        this.transactionRecorder = transactionRecorder;
+        this.offsetTracker = offsetTracker;
+        this.meterRegistry = meterRegistry;
+        this.quarantineTopic = quarantineTopic;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        this.publishedCounter = Counter.builder("kafka.quarantine.published")
+            .description("Number of poison records published to the quarantine topic")
+            .register(meterRegistry);
+
+        this.publishErrorCounter = Counter.builder("kafka.quarantine.errors")
+            .description("Number of poison records that could not be published to the quarantine topic")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Publish the record to the quarantine topic and wait for the acknowledgement.
+     *
+     * @return whether the record was quarantined and counts as processed
+     */
+    public boolean quarantine(ConsumerRecord<String, ?> record) {
+        poisonCounter(record.partition()).increment();
+
+        Header reason = record.headers().lastHeader(PoisonTolerantDeserializer.REASON_HEADER);
+        Header rawValue = record.headers().lastHeader(PoisonTolerantDeserializer.RAW_VALUE_HEADER);
+        log.warn("Quarantining undecodable record from topic [{}] partition [{}] offset [{}]: {}",
+            record.topic(), record.partition(), record.offset(),
+            reason != null ? new String(reason.value(), StandardCharsets.UTF_8) : "unknown");
+
+        ProducerRecord<byte[], byte[]> quarantined = new ProducerRecord<>(
+            quarantineTopic,
+            null,
+            record.key() != null ? record.key().getBytes(StandardCharsets.UTF_8) : null,
+            rawValue != null ? rawValue.value() : null);
+        for (Header header : record.headers()) {
+            if (!PoisonTolerantDeserializer.RAW_VALUE_HEADER.equals(header.key())) {
+                quarantined.headers().add(header);
+            }
+        }
+        quarantined.headers()
+            .add(ORIGINAL_TOPIC_HEADER, record.topic().getBytes(StandardCharsets.UTF_8))
+            .add(ORIGINAL_PARTITION_HEADER, ByteBuffer.allocate(4).putInt(record.partition()).array())
+            .add(ORIGINAL_OFFSET_HEADER, ByteBuffer.allocate(8).putLong(record.offset()).array())
+            .add(ORIGINAL_TIMESTAMP_HEADER, ByteBuffer.allocate(8).putLong(record.timestamp()).array());
+
+        try {
+            quarantineKafkaTemplate.send(quarantined).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return sendFailed(record, e);
+        } catch (ExecutionException | TimeoutException e) {
+            return sendFailed(record, e);
+        }
+
+        transactionRecorder.recordOffset(record.topic(), record.partition(), record.offset());
+        offsetTracker.onProcessed(record.topic(), record.partition(), record.offset());
+        publishedCounter.increment();
+        return true;
+    }
+
+    private boolean sendFailed(ConsumerRecord<String, ?> record, Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Failed to quarantine record from partition [{}] offset [{}]: {}",
+            record.partition(), record.offset(), cause.getMessage(), cause);
+        publishErrorCounter.increment();
+        return false;
+    }
+
+    private Counter poisonCounter(int partition) {
+        return poisonCounters.computeIfAbsent(partition, p -> Counter.builder("kafka.messages.poison")
+            .description("Number of undecodable records per partition")
+            .tag("partition", String.valueOf(p))
+            .register(meterRegistry));
+    }
+}
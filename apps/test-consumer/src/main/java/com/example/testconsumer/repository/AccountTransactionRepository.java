@@ -1,11 +1,16 @@
 package com.example.testconsumer.repository;
 
 import com.example.testconsumer.entity.AccountTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountTransactionRepository extends JpaRepository<AccountTransaction, Long> {
@@ -29,9 +34,23 @@ public interface AccountTransactionRepository extends JpaRepository<AccountTrans
     List<AccountTransaction> findByKafkaTopicAndKafkaPartitionAndKafkaOffset(
         String topic, Integer partition, Long offset);
 
+    List<AccountTransaction> findByStatusIsNullAndKafkaTopicAndKafkaPartitionInAndReceivedAtBeforeOrderByIdAsc(
+        String topic, Collection<Integer> partitions, Instant receivedBefore, Pageable pageable);
+
     long countByAccountAction(String accountAction);
 
     long countByStatus(Integer status);
 
     long countByStatusIsNull();
+
+    Stream<TransactionSummary> findByKafkaTopicAndKafkaPartitionOrderByIdAsc(String topic, Integer partition);
+
+    @Query("select max(t.kafkaOffset) from AccountTransaction t where t.kafkaTopic = :topic and t.kafkaPartition = :partition")
+    Long findMaxKafkaOffset(@Param("topic") String topic, @Param("partition") Integer partition);
+
+    @Query("select max(t.receivedAt) from AccountTransaction t where t.kafkaTopic = :topic and t.kafkaPartition = :partition")
+    Instant findMaxReceivedAt(@Param("topic") String topic, @Param("partition") Integer partition);
+
+    @Query("select max(t.processedAt) from AccountTransaction t where t.kafkaTopic = :topic and t.kafkaPartition = :partition")
+    Instant findMaxProcessedAt(@Param("topic") String topic, @Param("partition") Integer partition);
 }
@@ -0,0 +1,9 @@
+package com.example.testconsumer.repository;
+
+import com.example.testconsumer.entity.ConsumerOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConsumerOffsetRepository extends JpaRepository<ConsumerOffset, ConsumerOffset.Key> {
+}
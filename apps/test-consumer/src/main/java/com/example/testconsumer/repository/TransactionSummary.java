@@ -0,0 +1,21 @@
+package com.example.testconsumer.repository;
+
+import java.time.Instant;
+
+/**
+ * Closed projection of the columns needed to rebuild in-memory aggregates.
+ */
+public interface TransactionSummary {
+
+    String getAccountNumber();
+
+    String getAccountAction();
+
+    Integer getStatus();
+
+    Long getKafkaOffset();
+
+    Instant getReceivedAt();
+
+    Instant getProcessedAt();
+}
@@ -0,0 +1,79 @@
+package com.example.testconsumer.retry;
+
+import com.example.testconsumer.exception.RetryableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.BackOffHandler;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * {@link BackOffHandler} that stretches the back-off to the server's Retry-After when the failure
+ * carries one, so a rate-limited consumer waits as long as the test-api asked instead of retrying
+ * on its own exponential schedule. The (possibly stretched) delay is then handed to the delegate,
+ * which pauses the container's partitions or sleeps.
+ */
+public class RetryAfterBackOffHandler implements BackOffHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryAfterBackOffHandler.class);
+
+    private final BackOffHandler delegate;
+    private final long maxRetryAfterMs;
+    private final Counter honouredCounter;
+    private final Timer delayTimer;
+
+    public RetryAfterBackOffHandler(BackOffHandler delegate, long maxRetryAfterMs, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.honouredCounter = Counter.builder("retry.after.honoured")
+            .description("Retries delayed by a Retry-After hint from the test-api")
+            .register(meterRegistry);
+        this.delayTimer = Timer.builder("retry.after.delay")
+            .description("Back-off applied before a retry, including Retry-After hints")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void onNextBackOff(MessageListenerContainer container, Exception exception, long nextBackOff) {
+        long delay = withRetryAfter(exception, nextBackOff);
+        delayTimer.record(Duration.ofMillis(delay));
+        delegate.onNextBackOff(container, exception, delay);
+    }
+
+    @Override
+    public void onNextBackOff(MessageListenerContainer container, TopicPartition partition, long nextBackOff) {
+        delayTimer.record(Duration.ofMillis(nextBackOff));
+        delegate.onNextBackOff(container, partition, nextBackOff);
+    }
+
+    private long withRetryAfter(Exception exception, long nextBackOff) {
+        Duration retryAfter = findRetryAfter(exception);
+        if (retryAfter == null) {
+            return nextBackOff;
+        }
+        long retryAfterMs = Math.min(retryAfter.toMillis(), maxRetryAfterMs);
+        if (retryAfterMs <= nextBackOff) {
+            return nextBackOff;
+        }
+        honouredCounter.increment();
+        log.info("test-api asked to retry after {}ms, backing off for that instead of {}ms", retryAfterMs, nextBackOff);
+        return retryAfterMs;
+    }
+
+    private static Duration findRetryAfter(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryableException retryable) {
+                return retryable.getRetryAfter();
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.testconsumer.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retry budget shared by all listener threads.
+ *
+ * Tracks delivery attempts and retries over a sliding window of one-second buckets. A retry is
+ * allowed only while retries in the window stay within {@code ratio} of first attempts, with a
+ * small per-second floor so isolated failures are still retried when traffic is light. During a
+ * downstream outage the budget runs out quickly and failed records go to the DLQ instead of
+ * multiplying calls to the degraded API.
+ */
+@Component
+public class RetryBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryBudget.class);
+
+    private final boolean enabled;
+    private final double ratio;
+    private final int minRetries;
+    private final long[] bucketSeconds;
+    private final long[] attempts;
+    private final long[] retries;
+
+    private final Counter allowedCounter;
+    private final Counter exhaustedCounter;
+
+    public RetryBudget(
+            MeterRegistry meterRegistry,
+            @Value("${kafka.error-handler.retry-budget.enabled:true}") boolean enabled,
+            @Value("${kafka.error-handler.retry-budget.ratio:0.2}") double ratio,
+            @Value("${kafka.error-handler.retry-budget.window-seconds:10}") int windowSeconds,
+            @Value("${kafka.error-handler.retry-budget.min-retries-per-second:1}") int minRetriesPerSecond) {
+        this.enabled = enabled;
+        this.ratio = ratio;
+        this.minRetries = minRetriesPerSecond * windowSeconds;
+        this.bucketSeconds = new long[windowSeconds];
+        this.attempts = new long[windowSeconds];
+        this.retries = new long[windowSeconds];
+
+        this.allowedCounter = Counter.builder("retry.budget.allowed")
+            .description("Number of retries allowed by the retry budget")
+            .register(meterRegistry);
+
+        this.exhaustedCounter = Counter.builder("retry.budget.exhausted")
+            .description("Number of retries refused because the retry budget was spent")
+            .register(meterRegistry);
+
+        Gauge.builder("retry.budget.available", this, RetryBudget::available)
+            .description("Retries currently left in the retry budget")
+            .register(meterRegistry);
+
+        log.info("Retry budget {}: {} of first attempts over {}s, floor {} retries",
+            enabled ? "enabled" : "disabled", ratio, windowSeconds, minRetries);
+    }
+
+    /**
+     * Record a delivery of a record to the listener, first attempt or retry.
+     */
+    public synchronized void recordAttempt() {
+        attempts[bucket()]++;
+    }
+
+    /**
+     * Claim a retry from the budget. Returns false if the budget is spent.
+     */
+    public synchronized boolean tryAcquireRetry() {
+        if (!enabled) {
+            return true;
+        }
+        int current = bucket();
+        if (available() < 1) {
+            exhaustedCounter.increment();
+            return false;
+        }
+        retries[current]++;
+        allowedCounter.increment();
+        return true;
+    }
+
+    synchronized long available() {
+        long now = System.currentTimeMillis() / 1000;
+        long windowAttempts = 0;
+        long windowRetries = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (now - bucketSeconds[i] < bucketSeconds.length) {
+                windowAttempts += attempts[i];
+                windowRetries += retries[i];
+            }
+        }
+        // Retried deliveries are attempts too; only first attempts earn budget
+        long firstAttempts = Math.max(0, windowAttempts - windowRetries);
+        long allowed = Math.max(minRetries, (long) (firstAttempts * ratio));
+        return allowed - windowRetries;
+    }
+
+    private int bucket() {
+        long second = System.currentTimeMillis() / 1000;
+        int index = (int) (second % bucketSeconds.length);
+        if (bucketSeconds[index] != second) {
+            bucketSeconds[index] = second;
+            attempts[index] = 0;
+            retries[index] = 0;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.testconsumer.retry;
+
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * {@link BackOff} that stops retrying as soon as the shared {@link RetryBudget} is spent, even if
+ * the delegate would allow more attempts. The error handler then recovers the record (DLQ).
+ */
+public class RetryBudgetBackOff implements BackOff {
+
+    private final BackOff delegate;
+    private final RetryBudget retryBudget;
+
+    public RetryBudgetBackOff(BackOff delegate, RetryBudget retryBudget) {
+        this.delegate = delegate;
+        this.retryBudget = retryBudget;
+    }
+
+    @Override
+    public BackOffExecution start() {
+        BackOffExecution execution = delegate.start();
+        return () -> {
+            long next = execution.nextBackOff();
+            if (next == BackOffExecution.STOP || !retryBudget.tryAcquireRetry()) {
+                return BackOffExecution.STOP;
+            }
+            return next;
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.testconsumer.service;
+
+import com.example.testconsumer.entity.AccountTransaction;
+import com.example.testconsumer.journal.JournalEntry;
+import com.example.testconsumer.journal.WriteBehindJournal;
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.state.AccountStateStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Records the lifecycle of a consumed message.
+ *
+ * By default every change is written synchronously through {@link AccountTransactionService}.
+ * When write-behind persistence is enabled, changes are appended to the local
+ * {@link WriteBehindJournal} instead and reach the database asynchronously, so the returned
+ * transaction has no id yet.
+ *
+ * Every change is also applied to the {@link AccountStateStore} when it is enabled.
+ *
+ * A record counts as processed for the {@link OffsetStoreService} once its status is recorded or,
+ * for failed records, once {@link #recordOffset} is called after dead-lettering.
+ */
+@Service
+public class AccountTransactionRecorder {
+
+    private final AccountTransactionService transactionService;
+    private final WriteBehindJournal journal;
+    private final AccountStateStore stateStore;
+    private final OffsetStoreService offsetStore;
+
+    public AccountTransactionRecorder(
+            AccountTransactionService transactionService,
+            OffsetStoreService offsetStore,
+            ObjectProvider<WriteBehindJournal> journalProvider,
+            ObjectProvider<AccountStateStore> stateStoreProvider) {
+        this.transactionService = transactionService;
+        this.offsetStore = offsetStore;
+        this.journal = journalProvider.getIfAvailable();
+        this.stateStore = stateStoreProvider.getIfAvailable();
+    }
+
+    public AccountTransaction recordReceived(AccountMessage message, String topic, int partition,
+                                             long offset, Instant eventEnqueuedTime) {
+        AccountTransaction transaction;
+        if (journal == null) {
+            transaction = transactionService.saveIncomingMessage(message, topic, partition, offset, eventEnqueuedTime);
+        } else {
+            transaction = transactionService.newIncomingTransaction(message, topic, partition, offset, eventEnqueuedTime);
+            journal.append(JournalEntry.received(transaction));
+        }
+
+        if (stateStore != null) {
+            stateStore.onReceived(transaction);
+        }
+        return transaction;
+    }
+
+    /**
+     * Record a message whose API call is deferred. The row keeps a null status until the catch-up
+     * worker completes it, but the record already counts as processed for the offset store.
+     */
+    public AccountTransaction recordDeferred(AccountMessage message, String topic, int partition,
+                                             long offset, Instant eventEnqueuedTime) {
+        AccountTransaction transaction;
+        if (journal == null) {
+            transaction = transactionService.saveDeferredMessage(message, topic, partition, offset, eventEnqueuedTime);
+        } else {
+            transaction = transactionService.newIncomingTransaction(message, topic, partition, offset, eventEnqueuedTime);
+            journal.append(JournalEntry.received(transaction));
+            if (offsetStore.isEnabled()) {
+                journal.append(JournalEntry.offset(topic, partition, offset));
+            }
+        }
+
+        if (stateStore != null) {
+            stateStore.onReceived(transaction);
+        }
+        return transaction;
+    }
+
+    public void recordStatus(AccountTransaction transaction, int httpStatusCode, String responseMessage) {
+        if (journal == null) {
+            AccountTransaction updated = transactionService.updateWithStatus(transaction.getId(), httpStatusCode, responseMessage);
+            completed(updated);
+            return;
+        }
+        complete(transaction, httpStatusCode, responseMessage, JournalEntry.Type.STATUS);
+    }
+
+    public void recordError(AccountTransaction transaction, int errorCode, String errorMessage) {
+        if (journal == null) {
+            AccountTransaction updated = transactionService.updateWithError(transaction.getId(), errorCode, errorMessage);
+            completed(updated);
+            return;
+        }
+        complete(transaction, errorCode, errorMessage, JournalEntry.Type.ERROR);
+    }
+
+    /**
+     * Mark a record as processed without changing its row, e.g. after it was sent to the DLQ.
+     */
+    public void recordOffset(String topic, int partition, long offset) {
+        if (!offsetStore.isEnabled()) {
+            return;
+        }
+        if (journal == null) {
+            offsetStore.storeOffset(topic, partition, offset);
+        } else {
+            journal.append(JournalEntry.offset(topic, partition, offset));
+        }
+    }
+
+    public boolean isWriteBehind() {
+        return journal != null;
+    }
+
+    private void complete(AccountTransaction transaction, int status, String responseMessage, JournalEntry.Type type) {
+        transaction.setStatus(status);
+        transaction.setResponseMessage(responseMessage);
+        transaction.setProcessedAt(Instant.now());
+        journal.append(type == JournalEntry.Type.STATUS ? JournalEntry.status(transaction) : JournalEntry.error(transaction));
+        completed(transaction);
+    }
+
+    private void completed(AccountTransaction transaction) {
+        if (stateStore != null) {
+            stateStore.onCompleted(transaction);
+        }
+    }
+}
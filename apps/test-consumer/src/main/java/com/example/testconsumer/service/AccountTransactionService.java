@@ -1,16 +1,28 @@
 package com.example.testconsumer.service;
 
 import com.example.testconsumer.entity.AccountTransaction;
+import com.example.testconsumer.journal.JournalEntry;
 import com.example.testconsumer.model.AccountMessage;
 import com.example.testconsumer.repository.AccountTransactionRepository;
+import com.example.testconsumer.repository.TransactionSummary;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AccountTransactionService {
@@ -18,13 +30,16 @@ public class AccountTransactionService {
     private static final Logger log = LoggerFactory.getLogger(AccountTransactionService.class);
 
     private final AccountTransactionRepository repository;
+    private final OffsetStoreService offsetStore;
     private final Counter dbSaveSuccessCounter;
     private final Counter dbSaveErrorCounter;
     private final Counter dbUpdateSuccessCounter;
     private final Counter dbUpdateErrorCounter;
 
-    public AccountTransactionService(AccountTransactionRepository repository, MeterRegistry meterRegistry) {
+    public AccountTransactionService(AccountTransactionRepository repository, OffsetStoreService offsetStore,
+                                     MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.offsetStore = offsetStore;
 
         this.dbSaveSuccessCounter = Counter.builder("database.save.success")
             .description("Number of successful database saves")
@@ -51,18 +66,7 @@ public class AccountTransactionService {
     public AccountTransaction saveIncomingMessage(AccountMessage message, String topic, int partition, 
                                                    long offset, Instant eventEnqueuedTime) {
         try {
-            AccountTransaction transaction = new AccountTransaction();
-            transaction.setFirstName(message.firstName());
-            transaction.setLastName(message.lastName());
-            transaction.setAccountNumber(message.accountNumber());
-            transaction.setAccountAction(message.accountAction());
-            transaction.setKafkaTopic(topic);
-            transaction.setKafkaPartition(partition);
-            transaction.setKafkaOffset(offset);
-            transaction.setEventEnqueuedTime(eventEnqueuedTime);
-            transaction.setProducerTs(message.producerTs());
-            transaction.setReceivedAt(Instant.now());
-            // status is null initially
+            AccountTransaction transaction = newIncomingTransaction(message, topic, partition, offset, eventEnqueuedTime);
 
             AccountTransaction saved = repository.save(transaction);
 
@@ -82,8 +86,41 @@ public class AccountTransactionService {
         }
     }
 
+    /**
+     * Save an incoming message whose API call is deferred to the catch-up worker.
+     * Status stays null, but the record's offset is stored as processed in the same transaction.
+     */
+    @Transactional
+    public AccountTransaction saveDeferredMessage(AccountMessage message, String topic, int partition,
+                                                  long offset, Instant eventEnqueuedTime) {
+        AccountTransaction saved = saveIncomingMessage(message, topic, partition, offset, eventEnqueuedTime);
+        offsetStore.storeOffset(topic, partition, offset);
+        return saved;
+    }
+
+    /**
+     * Build (but do not save) the transaction row for an incoming message.
+     * Status will be null initially.
+     */
+    public AccountTransaction newIncomingTransaction(AccountMessage message, String topic, int partition,
+                                                     long offset, Instant eventEnqueuedTime) {
+        AccountTransaction transaction = new AccountTransaction();
+        transaction.setFirstName(message.firstName());
+        transaction.setLastName(message.lastName());
+        transaction.setAccountNumber(message.accountNumber());
+        transaction.setAccountAction(message.accountAction());
+        transaction.setKafkaTopic(topic);
+        transaction.setKafkaPartition(partition);
+        transaction.setKafkaOffset(offset);
+        transaction.setEventEnqueuedTime(eventEnqueuedTime);
+        transaction.setProducerTs(message.producerTs());
+        transaction.setReceivedAt(Instant.now());
+        return transaction;
+    }
+
     /**
      * Update the transaction with the HTTP status code from the API response.
+     * The record's offset is stored as processed in the same database transaction.
      */
     @Transactional
     public AccountTransaction updateWithStatus(Long transactionId, int httpStatusCode, String responseMessage) {
@@ -96,6 +133,7 @@ public class AccountTransactionService {
             transaction.setProcessedAt(Instant.now());
 
             AccountTransaction updated = repository.save(transaction);
+            offsetStore.storeOffset(updated.getKafkaTopic(), updated.getKafkaPartition(), updated.getKafkaOffset());
 
             log.info("Updated transaction with status: id={}, status={}, processedAt={}",
                 updated.getId(),
@@ -114,6 +152,7 @@ public class AccountTransactionService {
 
     /**
      * Update the transaction with error status (for failed API calls).
+     * The offset is not stored here: the record is still retried or dead-lettered afterwards.
      */
     @Transactional
     public AccountTransaction updateWithError(Long transactionId, int errorCode, String errorMessage) {
@@ -142,6 +181,148 @@ public class AccountTransactionService {
         }
     }
 
+    /**
+     * Persist a batch of write-behind journal entries in a single database transaction.
+     *
+     * STATUS and ERROR entries are applied to the row received earlier in the same batch or,
+     * failing that, to the latest row already stored for the same Kafka offset. When
+     * {@code deduplicate} is set (replay after a restart), RECEIVED entries whose row already exists
+     * are not inserted again. The highest STATUS or OFFSET entry per partition is written to the
+     * offset store in the same transaction.
+     */
+    @Transactional
+    public void persistJournalBatch(List<JournalEntry> entries, boolean deduplicate) {
+        Map<String, AccountTransaction> latestByOffset = new HashMap<>();
+        List<AccountTransaction> batch = new ArrayList<>(entries.size());
+        Map<TopicPartition, Long> processedOffsets = new HashMap<>();
+        int inserts = 0;
+
+        try {
+            for (JournalEntry entry : entries) {
+                String key = entry.offsetKey();
+
+                if (entry.type() == JournalEntry.Type.STATUS || entry.type() == JournalEntry.Type.OFFSET) {
+                    processedOffsets.merge(new TopicPartition(entry.kafkaTopic(), entry.kafkaPartition()),
+                        entry.kafkaOffset(), Math::max);
+                }
+                if (entry.type() == JournalEntry.Type.OFFSET) {
+                    continue;
+                }
+
+                if (entry.type() == JournalEntry.Type.RECEIVED) {
+                    AccountTransaction transaction = deduplicate ? findJournaledRow(entry) : null;
+                    if (transaction == null) {
+                        transaction = entry.toTransaction();
+                        batch.add(transaction);
+                        inserts++;
+                    }
+                    latestByOffset.put(key, transaction);
+                    continue;
+                }
+
+                AccountTransaction transaction = latestByOffset.get(key);
+                if (transaction == null) {
+                    transaction = findLatestRow(entry);
+                    if (transaction == null) {
+                        log.warn("No transaction found for journaled status: topic={}, partition={}, offset={}",
+                            entry.kafkaTopic(), entry.kafkaPartition(), entry.kafkaOffset());
+                        continue;
+                    }
+                    latestByOffset.put(key, transaction);
+                    batch.add(transaction);
+                }
+                transaction.setStatus(entry.status());
+                transaction.setResponseMessage(entry.responseMessage());
+                transaction.setProcessedAt(entry.processedAt());
+            }
+
+            repository.saveAll(batch);
+            offsetStore.storeOffsets(processedOffsets);
+
+            log.info("Persisted journal batch: entries={}, inserted={}, updated={}",
+                entries.size(), inserts, batch.size() - inserts);
+
+            dbSaveSuccessCounter.increment(inserts);
+            dbUpdateSuccessCounter.increment(batch.size() - inserts);
+
+        } catch (Exception e) {
+            log.error("Failed to persist journal batch of {} entries: {}", entries.size(), e.getMessage(), e);
+            dbSaveErrorCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Stream the stored transactions of a partition in insertion order.
+     */
+    @Transactional(readOnly = true)
+    public long forEachInPartition(String topic, int partition, Consumer<TransactionSummary> action) {
+        long rows = 0;
+        try (Stream<TransactionSummary> stream = repository.findByKafkaTopicAndKafkaPartitionOrderByIdAsc(topic, partition)) {
+            for (TransactionSummary summary : (Iterable<TransactionSummary>) stream::iterator) {
+                action.accept(summary);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Oldest transactions of the given partitions that are still without a status and were
+     * received before {@code receivedBefore}.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountTransaction> findPending(String topic, Collection<Integer> partitions,
+                                                Instant receivedBefore, int limit) {
+        return repository.findByStatusIsNullAndKafkaTopicAndKafkaPartitionInAndReceivedAtBeforeOrderByIdAsc(
+            topic, partitions, receivedBefore, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Highest Kafka offset stored for a partition, or -1 if there are no rows.
+     */
+    @Transactional(readOnly = true)
+    public long maxStoredOffset(String topic, int partition) {
+        Long offset = repository.findMaxKafkaOffset(topic, partition);
+        return offset != null ? offset : -1;
+    }
+
+    /**
+     * Latest received or processed time stored for a partition in epoch millis, or -1 if there are
+     * no rows. Unlike the offset, this also moves when an older row gets its status.
+     */
+    @Transactional(readOnly = true)
+    public long lastStoredUpdateMillis(String topic, int partition) {
+        Instant received = repository.findMaxReceivedAt(topic, partition);
+        Instant processed = repository.findMaxProcessedAt(topic, partition);
+        long millis = -1;
+        if (received != null) {
+            millis = received.toEpochMilli();
+        }
+        if (processed != null) {
+            millis = Math.max(millis, processed.toEpochMilli());
+        }
+        return millis;
+    }
+
+    private AccountTransaction findJournaledRow(JournalEntry entry) {
+        return repository.findByKafkaTopicAndKafkaPartitionAndKafkaOffset(
+                entry.kafkaTopic(), entry.kafkaPartition(), entry.kafkaOffset())
+            .stream()
+            .filter(row -> row.getReceivedAt() != null && entry.receivedAt() != null
+                && row.getReceivedAt().toEpochMilli() == entry.receivedAt().toEpochMilli())
+            .findFirst()
+            .orElse(null);
+    }
+
+    private AccountTransaction findLatestRow(JournalEntry entry) {
+        return repository.findByKafkaTopicAndKafkaPartitionAndKafkaOffset(
+                entry.kafkaTopic(), entry.kafkaPartition(), entry.kafkaOffset())
+            .stream()
+            .max(Comparator.comparing(AccountTransaction::getId))
+            .orElse(null);
+    }
+
     private String maskAccountNumber(String accountNumber) {
         if (accountNumber == null || accountNumber.length() < 4) {
             return "****";
@@ -0,0 +1,90 @@
+package com.example.testconsumer.service;
+
+import com.example.testconsumer.entity.ConsumerOffset;
+import com.example.testconsumer.repository.ConsumerOffsetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Database-backed store of processed Kafka offsets.
+ *
+ * When enabled, offsets are written inside the caller's transaction so they commit atomically
+ * with the {@code AccountTransaction} rows, and the consumer seeks from them on partition
+ * assignment. Offsets only ever move forward.
+ */
+@Service
+public class OffsetStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(OffsetStoreService.class);
+
+    private final ConsumerOffsetRepository repository;
+    private final boolean enabled;
+    private final String consumerGroup;
+    private final Counter offsetStoreCounter;
+
+    public OffsetStoreService(
+            ConsumerOffsetRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${offset-store.enabled:false}") boolean enabled,
+            @Value("${spring.kafka.consumer.group-id}") String consumerGroup) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.consumerGroup = consumerGroup;
+
+        this.offsetStoreCounter = Counter.builder("database.offset.store")
+            .description("Number of offsets written to the database offset store")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record {@code offset} as processed for the partition. Joins the caller's transaction.
+     */
+    @Transactional
+    public void storeOffset(String topic, int partition, long offset) {
+        if (!enabled) {
+            return;
+        }
+        ConsumerOffset.Key key = new ConsumerOffset.Key(consumerGroup, topic, partition);
+        ConsumerOffset stored = repository.findById(key).orElse(null);
+        if (stored == null) {
+            repository.save(new ConsumerOffset(key, offset));
+        } else if (stored.getProcessedOffset() < offset) {
+            stored.setProcessedOffset(offset);
+        } else {
+            return;
+        }
+        offsetStoreCounter.increment();
+        log.debug("Stored processed offset {} for {}-{}", offset, topic, partition);
+    }
+
+    /**
+     * Record the processed offset of each partition in {@code offsets}. Joins the caller's transaction.
+     */
+    @Transactional
+    public void storeOffsets(Map<TopicPartition, Long> offsets) {
+        offsets.forEach((partition, offset) -> storeOffset(partition.topic(), partition.partition(), offset));
+    }
+
+    /**
+     * Last processed offset stored for the partition, if any.
+     */
+    @Transactional(readOnly = true)
+    public OptionalLong findOffset(String topic, int partition) {
+        return repository.findById(new ConsumerOffset.Key(consumerGroup, topic, partition))
+            .map(stored -> OptionalLong.of(stored.getProcessedOffset()))
+            .orElse(OptionalLong.empty());
+    }
+}
@@ -2,16 +2,24 @@ package com.example.testconsumer.service;
 
 import com.example.testconsumer.exception.NonRetryableException;
 import com.example.testconsumer.exception.RetryableException;
+import com.example.testconsumer.hedging.HedgingPolicy;
 import com.example.testconsumer.model.AccountMessage;
-import com.example.testconsumer.model.AccountResponse;
 import com.example.testconsumer.model.ApiResult;
+import com.example.testconsumer.transport.AccountApiTransport;
+import com.example.testconsumer.transport.ApiTransportResponse;
+import com.example.testconsumer.transport.TransportException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Client for calling the test-api.
@@ -20,71 +28,160 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
  * Throws NonRetryableException for 4xx client errors.
  * 
  * Retry logic with exponential backoff is handled by the Kafka DefaultErrorHandler.
+ *
+ * Requests go through the {@link AccountApiTransport} selected with {@code api.transport.type}.
+ *
+ * Every request carries an Idempotency-Key header. With hedging enabled, a request that has not
+ * answered within the {@link HedgingPolicy} delay is sent a second time with the same key and the
+ * first successful response wins.
  */
 @Service
 public class TestApiClient {
 
     private static final Logger log = LoggerFactory.getLogger(TestApiClient.class);
 
-    private final WebClient webClient;
+    private final AccountApiTransport transport;
+    private final HedgingPolicy hedgingPolicy;
+
+    public TestApiClient(AccountApiTransport transport, HedgingPolicy hedgingPolicy) {
+        this.transport = transport;
+        this.hedgingPolicy = hedgingPolicy;
+        log.info("Calling test-api over the {} transport", transport.name());
+    }
 
-    public TestApiClient(WebClient testApiWebClient) {
-        this.webClient = testApiWebClient;
+    /**
+     * Idempotency key for a Kafka record: the same record always maps to the same key.
+     */
+    public static String idempotencyKey(String topic, int partition, long offset) {
+        return topic + "-" + partition + "-" + offset;
     }
 
     /**
      * Post account message to test-api and return result with HTTP status code.
      * 
+     * @param idempotencyKey key that lets test-api recognise repeated requests for the same record
      * @throws RetryableException for network errors or retryable HTTP status codes (5xx, 429)
      * @throws NonRetryableException for non-retryable HTTP status codes (4xx)
      */
-    public ApiResult postAccount(AccountMessage message) {
+    public ApiResult postAccount(AccountMessage message, String idempotencyKey) {
         log.info("Calling test-api with message: firstName={}, lastName={}, accountAction={}",
             message.firstName(), message.lastName(), message.accountAction());
 
-        try {
-            ResponseEntity<AccountResponse> responseEntity = executeRequest(message);
-            int statusCode = responseEntity.getStatusCode().value();
-            AccountResponse response = responseEntity.getBody();
-            
-            log.info("test-api response: status={}, body={}", statusCode, response);
-            return ApiResult.success(response, statusCode);
-
-        } catch (WebClientRequestException e) {
-            // Network errors (connection refused, timeout, etc.) - retryable
-            log.warn("Network error calling test-api: {}", e.getMessage());
-            throw new RetryableException("Network error: " + e.getMessage(), e);
+        ApiTransportResponse response = hedgingPolicy.isEnabled()
+            ? executeHedged(message, idempotencyKey)
+            : await(sendRequest(message, idempotencyKey));
+
+        log.info("test-api response: status={}, body={}", response.statusCode(), response.body());
+        return ApiResult.success(response.body(), response.statusCode());
+    }
+
+    /**
+     * Send one request. The future completes normally only for 2xx responses; otherwise it fails
+     * with a {@link RetryableException} or {@link NonRetryableException}.
+     */
+    private CompletableFuture<ApiTransportResponse> sendRequest(AccountMessage message, String idempotencyKey) {
+        long start = System.nanoTime();
+        return transport.post(message, idempotencyKey).handle((response, ex) -> {
+            if (ex != null) {
+                throw toException(ex);
+            }
+            if (response.isSuccess()) {
+                hedgingPolicy.onResponse((System.nanoTime() - start) / 1_000_000);
+                return response;
+            }
 
-        } catch (WebClientResponseException e) {
             // HTTP response errors
-            int statusCode = e.getStatusCode().value();
-            String responseBody = e.getResponseBodyAsString();
+            int statusCode = response.statusCode();
+            String responseBody = response.errorBody();
             log.error("test-api returned HTTP {}: {}", statusCode, responseBody);
 
             if (isRetryableStatusCode(statusCode)) {
-                // 5xx server errors and 429 (too many requests) - retryable
+                // 5xx server errors and 429 (too many requests) - retryable, after the
+                // server's Retry-After if it sent one
                 throw new RetryableException(
                     String.format("Retryable HTTP error %d: %s", statusCode, responseBody),
-                    e
-                );
-            } else {
-                // 4xx client errors - non-retryable
-                throw new NonRetryableException(
-                    String.format("Non-retryable HTTP error %d: %s", statusCode, responseBody),
-                    statusCode,
-                    e
-                );
+                    response.retryAfter());
+            }
+            // 4xx client errors - non-retryable
+            throw new NonRetryableException(
+                String.format("Non-retryable HTTP error %d: %s", statusCode, responseBody),
+                statusCode);
+        });
+    }
+
+    private static RuntimeException toException(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TransportException) {
+            // Network errors (connection refused, timeout, etc.) - retryable
+            log.warn("Network error calling test-api: {}", cause.getMessage());
+            return new RetryableException("Network error: " + cause.getMessage(), cause);
+        }
+        return unwrap(cause);
+    }
+
+    private ApiTransportResponse executeHedged(AccountMessage message, String idempotencyKey) {
+        hedgingPolicy.onRequest();
+        CompletableFuture<ApiTransportResponse> primary = sendRequest(message, idempotencyKey);
+
+        long hedgeDelayMs = hedgingPolicy.hedgeDelayMs();
+        if (hedgeDelayMs < 0) {
+            return await(primary);
+        }
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!hedgingPolicy.tryAcquireHedge()) {
+                return await(primary);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RetryableException("Interrupted while calling test-api", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        log.debug("test-api has not answered in {}ms, sending hedged request", hedgeDelayMs);
+        CompletableFuture<ApiTransportResponse> hedge = sendRequest(message, idempotencyKey);
+        hedge.thenRun(() -> {
+            if (!primary.isDone()) {
+                hedgingPolicy.onHedgeWon();
             }
+        });
+        // The slower request is left to complete on its own; its response is discarded
+        return await(firstSuccessful(primary, hedge));
+    }
+
+    /**
+     * Complete with the first of the two futures to succeed, or with the last failure if both fail.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> future : List.of(first, second)) {
+            future.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(ex);
+                }
+            });
         }
+        return result;
     }
 
-    private ResponseEntity<AccountResponse> executeRequest(AccountMessage message) {
-        return webClient.post()
-            .uri("/api/accounts")
-            .bodyValue(message)
-            .retrieve()
-            .toEntity(AccountResponse.class)
-            .block();
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            throw unwrap(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new RetryableException(cause.getMessage(), cause);
     }
 
     private boolean isRetryableStatusCode(int statusCode) {
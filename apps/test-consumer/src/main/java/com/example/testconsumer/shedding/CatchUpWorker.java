@@ -0,0 +1,175 @@
+package com.example.testconsumer.shedding;
+
+import com.example.testconsumer.consumer.AccountRebalanceListener;
+import com.example.testconsumer.entity.AccountTransaction;
+import com.example.testconsumer.exception.NonRetryableException;
+import com.example.testconsumer.exception.RetryableException;
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.model.ApiResult;
+import com.example.testconsumer.service.AccountTransactionRecorder;
+import com.example.testconsumer.service.AccountTransactionService;
+import com.example.testconsumer.service.TestApiClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Completes transactions that were persisted without an API call.
+ *
+ * Periodically picks the oldest {@code status IS NULL} rows of the partitions this instance owns
+ * that are older than a grace period (so records still being processed normally are left alone),
+ * calls the test-api for them at no more than {@code rate-per-second}, and records the outcome.
+ * Retryable failures leave the row pending for the next run.
+ *
+ * Runs on its own {@code catch-up} thread rather than the shared {@code @Scheduled} one: a run
+ * paces its calls for up to {@code interval-ms}, and the shared scheduler also resumes containers
+ * paused by the error handler's back-off.
+ */
+@Component
+@ConditionalOnProperty(name = "load-shedding.enabled", havingValue = "true")
+public class CatchUpWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(CatchUpWorker.class);
+
+    private final AccountTransactionService transactionService;
+    private final AccountTransactionRecorder transactionRecorder;
+    private final TestApiClient testApiClient;
+    private final AccountRebalanceListener rebalanceListener;
+    private final long ratePerSecond;
+    private final long intervalMs;
+    private final long gracePeriodMs;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+
+    private ScheduledExecutorService executor;
+
+    public CatchUpWorker(
+            AccountTransactionService transactionService,
+            AccountTransactionRecorder transactionRecorder,
+            TestApiClient testApiClient,
+            AccountRebalanceListener rebalanceListener,
+            MeterRegistry meterRegistry,
+            @Value("${load-shedding.catch-up.rate-per-second:20}") long ratePerSecond,
+            @Value("${load-shedding.catch-up.interval-ms:1000}") long intervalMs,
+            @Value("${load-shedding.catch-up.grace-period-ms:60000}") long gracePeriodMs) {
+        this.transactionService = transactionService;
+        this.transactionRecorder = transactionRecorder;
+        this.testApiClient = testApiClient;
+        this.rebalanceListener = rebalanceListener;
+        this.ratePerSecond = ratePerSecond;
+        this.intervalMs = intervalMs;
+        this.gracePeriodMs = gracePeriodMs;
+
+        this.completedCounter = Counter.builder("shedding.catchup.completed")
+            .description("Number of deferred transactions completed by the catch-up worker")
+            .register(meterRegistry);
+
+        this.failedCounter = Counter.builder("shedding.catchup.errors")
+            .description("Number of catch-up API calls that failed")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runCatchUp, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Interrupts the pacing between calls
+        executor.shutdownNow();
+    }
+
+    private void runCatchUp() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule
+            log.error("Catch-up run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    void catchUp() {
+        Map<String, List<Integer>> partitionsByTopic = new TreeMap<>();
+        for (TopicPartition partition : rebalanceListener.assignedPartitions()) {
+            partitionsByTopic.computeIfAbsent(partition.topic(), topic -> new ArrayList<>()).add(partition.partition());
+        }
+        if (partitionsByTopic.isEmpty()) {
+            return;
+        }
+
+        int limit = (int) Math.max(1, ratePerSecond * intervalMs / 1000);
+        long spacingNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        Instant receivedBefore = Instant.now().minusMillis(gracePeriodMs);
+
+        int completed = 0;
+        for (Map.Entry<String, List<Integer>> entry : partitionsByTopic.entrySet()) {
+            List<AccountTransaction> pending = transactionService.findPending(
+                entry.getKey(), entry.getValue(), receivedBefore, limit - completed);
+            for (AccountTransaction transaction : pending) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                if (complete(transaction)) {
+                    completed++;
+                }
+                LockSupport.parkNanos(spacingNanos - (System.nanoTime() - start));
+            }
+            if (completed >= limit) {
+                break;
+            }
+        }
+
+        if (completed > 0) {
+            log.info("Catch-up completed {} deferred transactions", completed);
+        }
+    }
+
+    private boolean complete(AccountTransaction transaction) {
+        AccountMessage message = new AccountMessage(
+            transaction.getFirstName(),
+            transaction.getLastName(),
+            transaction.getAccountNumber(),
+            transaction.getAccountAction(),
+            transaction.getProducerTs());
+        try {
+            ApiResult result = testApiClient.postAccount(message, TestApiClient.idempotencyKey(
+                transaction.getKafkaTopic(), transaction.getKafkaPartition(), transaction.getKafkaOffset()));
+            transactionRecorder.recordStatus(transaction, result.httpStatusCode(), result.response().message());
+            completedCounter.increment();
+            return true;
+        } catch (NonRetryableException e) {
+            failedCounter.increment();
+            transactionRecorder.recordError(transaction, e.getHttpStatusCode(), e.getMessage());
+            return true;
+        } catch (RetryableException e) {
+            failedCounter.increment();
+            log.warn("Catch-up call failed for transaction id={}, will retry: {}", transaction.getId(), e.getMessage());
+            return false;
+        }
+    }
+}
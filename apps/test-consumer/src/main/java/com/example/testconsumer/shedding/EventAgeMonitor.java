@@ -0,0 +1,89 @@
+package com.example.testconsumer.shedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Switches the consumer into degraded mode when events arrive older than the freshness SLO.
+ *
+ * Keeps a moving average of event age (now minus enqueued time). Degraded mode turns on when the
+ * average exceeds {@code event-age-slo-ms} and back off once it falls below
+ * {@code recover-ratio} of the SLO, so the mode does not flap around the threshold. While
+ * degraded, the listener only persists received records and leaves the API call to the
+ * {@link CatchUpWorker}.
+ */
+@Component
+public class EventAgeMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(EventAgeMonitor.class);
+
+    private final boolean enabled;
+    private final long sloMs;
+    private final long recoverMs;
+    private final double smoothing;
+    private final Counter deferredCounter;
+
+    private volatile double averageAgeMs;
+    private volatile boolean degraded;
+
+    public EventAgeMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${load-shedding.enabled:false}") boolean enabled,
+            @Value("${load-shedding.event-age-slo-ms:30000}") long sloMs,
+            @Value("${load-shedding.recover-ratio:0.5}") double recoverRatio,
+            @Value("${load-shedding.smoothing:0.05}") double smoothing) {
+        this.enabled = enabled;
+        this.sloMs = sloMs;
+        this.recoverMs = (long) (sloMs * recoverRatio);
+        this.smoothing = smoothing;
+
+        this.deferredCounter = Counter.builder("shedding.deferred")
+            .description("Number of records persisted without an API call while degraded")
+            .register(meterRegistry);
+
+        Gauge.builder("shedding.event.age", this, monitor -> monitor.averageAgeMs)
+            .description("Moving average of event age at consumption")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+
+        Gauge.builder("shedding.degraded", this, monitor -> monitor.degraded ? 1 : 0)
+            .description("1 while the consumer is in degraded (load-shedding) mode")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Observe a record's event time and return whether its API call should be deferred.
+     */
+    public boolean shouldDefer(Instant eventTime) {
+        if (!enabled || eventTime == null) {
+            return false;
+        }
+        long age = Math.max(0, System.currentTimeMillis() - eventTime.toEpochMilli());
+        double average = averageAgeMs + smoothing * (age - averageAgeMs);
+        averageAgeMs = average;
+
+        if (!degraded && average > sloMs) {
+            degraded = true;
+            log.warn("Event age {}ms above SLO {}ms, entering degraded mode", (long) average, sloMs);
+        } else if (degraded && average < recoverMs) {
+            degraded = false;
+            log.info("Event age {}ms below {}ms, leaving degraded mode", (long) average, recoverMs);
+        }
+
+        if (degraded) {
+            deferredCounter.increment();
+        }
+        return degraded;
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+}
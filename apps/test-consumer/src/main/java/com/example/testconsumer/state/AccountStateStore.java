@@ -0,0 +1,328 @@
+package com.example.testconsumer.state;
+
+import com.example.testconsumer.entity.AccountTransaction;
+import com.example.testconsumer.journal.WriteBehindJournal;
+import com.example.testconsumer.service.AccountTransactionService;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory, per-partition aggregates of account transactions.
+ *
+ * Keeps counts by action, by status and by minute bucket plus the latest status per account, so
+ * dashboard queries no longer run COUNTs against SQL. Aggregates are updated as records are
+ * processed, restored from a local snapshot or rebuilt from the table when a partition is
+ * assigned, and snapshotted when it is revoked.
+ *
+ * A snapshot is only used if the table holds nothing newer: no higher offset and no later received
+ * or processed time, since a status update can arrive for an offset the snapshot already covers.
+ * Entries the write-behind journal recovered at startup are written to the table without passing
+ * through these aggregates, so after such a recovery each partition is rebuilt from the table the
+ * first time it is assigned.
+ */
+@Component
+@ConditionalOnProperty(name = "state-store.enabled", havingValue = "true")
+public class AccountStateStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountStateStore.class);
+
+    private final AccountTransactionService transactionService;
+    private final ObjectProvider<WriteBehindJournal> journalProvider;
+    private final Path snapshotDir;
+    private final int minuteRetention;
+    private final int expectedAccounts;
+
+    private final Map<TopicPartition, PartitionAggregate> partitions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> actionIds = new ConcurrentHashMap<>();
+    private final List<String> actionNames = new CopyOnWriteArrayList<>();
+    // Partitions restored at least once since startup
+    private final Set<TopicPartition> restored = ConcurrentHashMap.newKeySet();
+
+    public AccountStateStore(
+            AccountTransactionService transactionService,
+            ObjectProvider<WriteBehindJournal> journalProvider,
+            @Value("${state-store.snapshot-dir:./state}") String snapshotDir,
+            @Value("${state-store.minute-retention:1440}") int minuteRetention,
+            @Value("${state-store.expected-accounts-per-partition:65536}") int expectedAccounts) {
+        this.transactionService = transactionService;
+        this.journalProvider = journalProvider;
+        this.snapshotDir = Path.of(snapshotDir);
+        this.minuteRetention = minuteRetention;
+        this.expectedAccounts = expectedAccounts;
+    }
+
+    public void onReceived(AccountTransaction transaction) {
+        PartitionAggregate aggregate = partitions.get(partitionOf(transaction));
+        if (aggregate == null) {
+            return;
+        }
+        aggregate.received(
+            actionId(transaction.getAccountAction()),
+            accountHash(transaction.getAccountNumber()),
+            millis(transaction.getReceivedAt()),
+            transaction.getKafkaOffset());
+    }
+
+    public void onCompleted(AccountTransaction transaction) {
+        PartitionAggregate aggregate = partitions.get(partitionOf(transaction));
+        if (aggregate == null || transaction.getStatus() == null) {
+            return;
+        }
+        aggregate.completed(
+            transaction.getStatus(),
+            accountHash(transaction.getAccountNumber()),
+            millis(transaction.getProcessedAt()));
+    }
+
+    /**
+     * Restore aggregates for newly assigned partitions, from a snapshot if it is at least as
+     * recent as the table, otherwise by scanning the partition's rows.
+     */
+    public void onPartitionsAssigned(Collection<TopicPartition> assigned) {
+        WriteBehindJournal journal = journalProvider.getIfAvailable();
+        boolean journalRecovered = journal != null && journal.recoveredEntries() > 0;
+        for (TopicPartition partition : assigned) {
+            long start = System.nanoTime();
+            PartitionAggregate aggregate = null;
+            if (!journalRecovered || restored.contains(partition)) {
+                aggregate = readSnapshot(partition);
+            }
+            String source = "snapshot";
+            if (aggregate == null || isStale(partition, aggregate)) {
+                aggregate = rebuildFromTable(partition);
+                source = "table";
+            }
+            partitions.put(partition, aggregate);
+            restored.add(partition);
+
+            log.info("Restored state for {} from {}: {} transactions up to offset {} in {}ms",
+                partition, source, aggregate.totalCount(), aggregate.lastOffset(),
+                (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Snapshot and release aggregates for partitions this consumer no longer owns.
+     */
+    public void onPartitionsRevoked(Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            PartitionAggregate aggregate = partitions.remove(partition);
+            if (aggregate != null) {
+                writeSnapshot(partition, aggregate);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void snapshotAll() {
+        partitions.forEach(this::writeSnapshot);
+    }
+
+    public long countByAccountAction(String accountAction) {
+        Integer actionId = actionIds.get(accountAction);
+        if (actionId == null) {
+            return 0;
+        }
+        long count = 0;
+        for (PartitionAggregate aggregate : partitions.values()) {
+            count += aggregate.actionCount(actionId);
+        }
+        return count;
+    }
+
+    public Map<String, Long> countsByAccountAction() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (PartitionAggregate aggregate : partitions.values()) {
+            aggregate.forEachAction((actionId, count) ->
+                counts.merge(actionNames.get((int) actionId), count, Long::sum));
+        }
+        return counts;
+    }
+
+    public long countByStatus(int status) {
+        long count = 0;
+        for (PartitionAggregate aggregate : partitions.values()) {
+            count += aggregate.statusCount(status);
+        }
+        return count;
+    }
+
+    public Map<Integer, Long> countsByStatus() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (PartitionAggregate aggregate : partitions.values()) {
+            aggregate.forEachStatus((status, count) -> counts.merge((int) status, count, Long::sum));
+        }
+        return counts;
+    }
+
+    public long countByStatusIsNull() {
+        long count = 0;
+        for (PartitionAggregate aggregate : partitions.values()) {
+            count += aggregate.pendingCount();
+        }
+        return count;
+    }
+
+    /**
+     * Transactions received per minute for the last {@code minutes} minutes, oldest first.
+     */
+    public Map<Instant, Long> countsByMinute(int minutes) {
+        long currentMinute = System.currentTimeMillis() / 60_000;
+        int window = Math.min(minutes, minuteRetention);
+        Map<Instant, Long> counts = new TreeMap<>();
+        for (long minute = currentMinute - window + 1; minute <= currentMinute; minute++) {
+            long count = 0;
+            for (PartitionAggregate aggregate : partitions.values()) {
+                count += aggregate.minuteCount(minute);
+            }
+            counts.put(Instant.ofEpochSecond(minute * 60), count);
+        }
+        return counts;
+    }
+
+    /**
+     * Latest known status for an account, or empty if the account has not been seen on the
+     * partitions owned by this consumer. A pending transaction is reported with a null status.
+     */
+    public Optional<AccountStatus> latestStatus(String accountNumber) {
+        long hash = accountHash(accountNumber);
+        long latest = Long.MIN_VALUE;
+        for (PartitionAggregate aggregate : partitions.values()) {
+            long packed = aggregate.latest(hash);
+            if (packed != Long.MIN_VALUE
+                && (latest == Long.MIN_VALUE || PartitionAggregate.unpackTimestamp(packed) > PartitionAggregate.unpackTimestamp(latest))) {
+                latest = packed;
+            }
+        }
+        if (latest == Long.MIN_VALUE) {
+            return Optional.empty();
+        }
+        int status = PartitionAggregate.unpackStatus(latest);
+        return Optional.of(new AccountStatus(
+            accountNumber,
+            status == PartitionAggregate.PENDING ? null : status,
+            Instant.ofEpochMilli(PartitionAggregate.unpackTimestamp(latest))));
+    }
+
+    public List<PartitionSummary> partitionSummaries() {
+        List<PartitionSummary> summaries = new ArrayList<>();
+        partitions.forEach((partition, aggregate) -> summaries.add(new PartitionSummary(
+            partition.topic(), partition.partition(), aggregate.lastOffset(),
+            aggregate.totalCount(), aggregate.pendingCount())));
+        return summaries;
+    }
+
+    private boolean isStale(TopicPartition partition, PartitionAggregate snapshot) {
+        return snapshot.lastOffset() < transactionService.maxStoredOffset(partition.topic(), partition.partition())
+            || snapshot.lastUpdateMillis() < transactionService.lastStoredUpdateMillis(partition.topic(), partition.partition());
+    }
+
+    private PartitionAggregate rebuildFromTable(TopicPartition partition) {
+        PartitionAggregate aggregate = new PartitionAggregate(minuteRetention, expectedAccounts);
+        transactionService.forEachInPartition(partition.topic(), partition.partition(), row -> aggregate.load(
+            actionId(row.getAccountAction()),
+            accountHash(row.getAccountNumber()),
+            row.getStatus(),
+            millis(row.getReceivedAt()),
+            millis(row.getProcessedAt()),
+            row.getKafkaOffset() != null ? row.getKafkaOffset() : -1));
+        return aggregate;
+    }
+
+    private PartitionAggregate readSnapshot(TopicPartition partition) {
+        Path path = snapshotPath(partition);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return PartitionAggregate.readFrom(in, minuteRetention, this::actionId);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable state snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(TopicPartition partition, PartitionAggregate aggregate) {
+        Path path = snapshotPath(partition);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotDir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                aggregate.writeTo(out, actionNames);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote state snapshot for {} at offset {}", partition, aggregate.lastOffset());
+        } catch (IOException e) {
+            log.warn("Failed to write state snapshot for {}: {}", partition, e.getMessage());
+        }
+    }
+
+    private Path snapshotPath(TopicPartition partition) {
+        return snapshotDir.resolve(partition.topic() + "-" + partition.partition() + ".snapshot");
+    }
+
+    private int actionId(String accountAction) {
+        String action = accountAction != null ? accountAction : "";
+        Integer id = actionIds.get(action);
+        if (id != null) {
+            return id;
+        }
+        synchronized (actionNames) {
+            return actionIds.computeIfAbsent(action, name -> {
+                actionNames.add(name);
+                return actionNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the account number. Collisions are negligible at realistic cardinalities.
+     */
+    static long accountHash(String accountNumber) {
+        long hash = 0xcbf29ce484222325L;
+        if (accountNumber != null) {
+            for (int i = 0; i < accountNumber.length(); i++) {
+                hash ^= accountNumber.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash == Long.MIN_VALUE ? Long.MIN_VALUE + 1 : hash;
+    }
+
+    private static TopicPartition partitionOf(AccountTransaction transaction) {
+        return new TopicPartition(transaction.getKafkaTopic(), transaction.getKafkaPartition());
+    }
+
+    private static long millis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : 0;
+    }
+
+    public record AccountStatus(String accountNumber, Integer status, Instant updatedAt) {}
+
+    public record PartitionSummary(String topic, int partition, long lastOffset, long transactions, long pending) {}
+}
@@ -0,0 +1,105 @@
+package com.example.testconsumer.state;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code long} with linear probing.
+ *
+ * Avoids boxing on the hot path. {@link Long#MIN_VALUE} is reserved as the empty-slot marker and
+ * cannot be used as a key. Not thread-safe; callers synchronize externally.
+ */
+final class LongLongHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    long get(long key, long defaultValue) {
+        int index = indexOf(key);
+        return keys[index] == key ? values[index] : defaultValue;
+    }
+
+    void put(long key, long value) {
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+        growIfNeeded();
+    }
+
+    void addTo(long key, long delta) {
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            values[index] = delta;
+            size++;
+            growIfNeeded();
+            return;
+        }
+        values[index] += delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(LongLongConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key Long.MIN_VALUE is reserved");
+        }
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void growIfNeeded() {
+        if (size * 2 <= keys.length) {
+            return;
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.testconsumer.state;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Incremental aggregates for the transactions of a single partition.
+ *
+ * Counts are kept by action id, by status code and by minute bucket, together with the latest
+ * status per account (keyed by a 64-bit hash of the account number). All access is synchronized
+ * on the instance: the listener thread owning the partition writes, REST threads read.
+ */
+final class PartitionAggregate {
+
+    /**
+     * Status value used for transactions that have been received but not processed yet.
+     */
+    static final int PENDING = Integer.MIN_VALUE;
+
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int STATUS_BITS = 12;
+    private static final int STATUS_BIAS = 16;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final long PENDING_CODE = STATUS_MASK;
+
+    private final LongLongHashMap actionCounts = new LongLongHashMap(16);
+    private final LongLongHashMap statusCounts = new LongLongHashMap(16);
+    private final LongLongHashMap latestStatus;
+    private final long[] minuteKeys;
+    private final long[] minuteCounts;
+    private long pendingCount;
+    private long totalCount;
+    private long lastOffset = -1;
+    private long lastUpdateMillis = -1;
+
+    PartitionAggregate(int minuteRetention, int expectedAccounts) {
+        this.minuteKeys = new long[minuteRetention];
+        this.minuteCounts = new long[minuteRetention];
+        this.latestStatus = new LongLongHashMap(expectedAccounts);
+    }
+
+    synchronized void received(int actionId, long accountHash, long receivedAtMillis, long offset) {
+        actionCounts.addTo(actionId, 1);
+        pendingCount++;
+        totalCount++;
+        lastOffset = Math.max(lastOffset, offset);
+        lastUpdateMillis = Math.max(lastUpdateMillis, receivedAtMillis);
+        addToMinute(receivedAtMillis / 60_000, 1);
+        latestStatus.put(accountHash, pack(PENDING, receivedAtMillis));
+    }
+
+    synchronized void completed(int status, long accountHash, long processedAtMillis) {
+        if (pendingCount > 0) {
+            pendingCount--;
+        }
+        statusCounts.addTo(status, 1);
+        lastUpdateMillis = Math.max(lastUpdateMillis, processedAtMillis);
+        latestStatus.put(accountHash, pack(status, processedAtMillis));
+    }
+
+    /**
+     * Apply a row loaded from the database during a rebuild.
+     */
+    synchronized void load(int actionId, long accountHash, Integer status, long receivedAtMillis,
+                           long processedAtMillis, long offset) {
+        actionCounts.addTo(actionId, 1);
+        totalCount++;
+        lastOffset = Math.max(lastOffset, offset);
+        lastUpdateMillis = Math.max(lastUpdateMillis, Math.max(receivedAtMillis, processedAtMillis));
+        addToMinute(receivedAtMillis / 60_000, 1);
+        if (status == null) {
+            pendingCount++;
+            latestStatus.put(accountHash, pack(PENDING, receivedAtMillis));
+        } else {
+            statusCounts.addTo(status, 1);
+            latestStatus.put(accountHash, pack(status, Math.max(processedAtMillis, receivedAtMillis)));
+        }
+    }
+
+    synchronized long actionCount(int actionId) {
+        return actionCounts.get(actionId, 0);
+    }
+
+    synchronized void forEachAction(LongLongHashMap.LongLongConsumer consumer) {
+        actionCounts.forEach(consumer);
+    }
+
+    synchronized long statusCount(int status) {
+        return statusCounts.get(status, 0);
+    }
+
+    synchronized void forEachStatus(LongLongHashMap.LongLongConsumer consumer) {
+        statusCounts.forEach(consumer);
+    }
+
+    synchronized long pendingCount() {
+        return pendingCount;
+    }
+
+    synchronized long totalCount() {
+        return totalCount;
+    }
+
+    synchronized long lastOffset() {
+        return lastOffset;
+    }
+
+    /**
+     * Latest received or processed time applied, in epoch millis, or -1 if none.
+     */
+    synchronized long lastUpdateMillis() {
+        return lastUpdateMillis;
+    }
+
+    synchronized long minuteCount(long epochMinute) {
+        int index = (int) Math.floorMod(epochMinute, (long) minuteKeys.length);
+        return minuteKeys[index] == epochMinute ? minuteCounts[index] : 0;
+    }
+
+    /**
+     * Latest status for the account packed with its timestamp, or {@code Long.MIN_VALUE} if unknown.
+     */
+    synchronized long latest(long accountHash) {
+        return latestStatus.get(accountHash, Long.MIN_VALUE);
+    }
+
+    static int unpackStatus(long packed) {
+        long code = packed & STATUS_MASK;
+        return code == PENDING_CODE ? PENDING : (int) code - STATUS_BIAS;
+    }
+
+    static long unpackTimestamp(long packed) {
+        return packed >>> STATUS_BITS;
+    }
+
+    synchronized void writeTo(DataOutputStream out, List<String> actionNames) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(lastOffset);
+        out.writeLong(lastUpdateMillis);
+        out.writeLong(totalCount);
+        out.writeLong(pendingCount);
+
+        out.writeInt(actionCounts.size());
+        IOException[] failure = new IOException[1];
+        actionCounts.forEach((actionId, count) -> {
+            try {
+                out.writeUTF(actionNames.get((int) actionId));
+                out.writeLong(count);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+
+        out.writeInt(statusCounts.size());
+        statusCounts.forEach((status, count) -> {
+            try {
+                out.writeInt((int) status);
+                out.writeLong(count);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+
+        out.writeInt(minuteKeys.length);
+        for (int i = 0; i < minuteKeys.length; i++) {
+            out.writeLong(minuteKeys[i]);
+            out.writeLong(minuteCounts[i]);
+        }
+
+        out.writeInt(latestStatus.size());
+        latestStatus.forEach((accountHash, packed) -> {
+            try {
+                out.writeLong(accountHash);
+                out.writeLong(packed);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    static PartitionAggregate readFrom(DataInputStream in, int minuteRetention, ToIntFunction<String> actionIds)
+            throws IOException {
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported state snapshot version " + version);
+        }
+
+        long lastOffset = in.readLong();
+        long lastUpdateMillis = in.readLong();
+        long totalCount = in.readLong();
+        long pendingCount = in.readLong();
+
+        int actions = in.readInt();
+        PartitionAggregate aggregate = new PartitionAggregate(minuteRetention, 1024);
+        aggregate.lastOffset = lastOffset;
+        aggregate.lastUpdateMillis = lastUpdateMillis;
+        aggregate.totalCount = totalCount;
+        aggregate.pendingCount = pendingCount;
+
+        for (int i = 0; i < actions; i++) {
+            aggregate.actionCounts.put(actionIds.applyAsInt(in.readUTF()), in.readLong());
+        }
+
+        int statuses = in.readInt();
+        for (int i = 0; i < statuses; i++) {
+            aggregate.statusCounts.put(in.readInt(), in.readLong());
+        }
+
+        int minutes = in.readInt();
+        for (int i = 0; i < minutes; i++) {
+            long minute = in.readLong();
+            long count = in.readLong();
+            if (count > 0) {
+                aggregate.addToMinute(minute, count);
+            }
+        }
+
+        int accounts = in.readInt();
+        for (int i = 0; i < accounts; i++) {
+            aggregate.latestStatus.put(in.readLong(), in.readLong());
+        }
+        return aggregate;
+    }
+
+    private void addToMinute(long epochMinute, long count) {
+        int index = (int) Math.floorMod(epochMinute, (long) minuteKeys.length);
+        if (minuteKeys[index] == epochMinute) {
+            minuteCounts[index] += count;
+        } else if (minuteKeys[index] < epochMinute) {
+            // Slot held an older minute that has fallen out of the retention window
+            minuteKeys[index] = epochMinute;
+            minuteCounts[index] = count;
+        }
+    }
+
+    private static long pack(int status, long timestampMillis) {
+        long code = status == PENDING ? PENDING_CODE : (status + STATUS_BIAS) & STATUS_MASK;
+        return (timestampMillis << STATUS_BITS) | code;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.testconsumer.transport;
+
+import com.example.testconsumer.model.AccountMessage;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used by {@code TestApiClient} to post account messages to the test-api.
+ *
+ * Implementations return every HTTP response, including 4xx and 5xx, as an
+ * {@link ApiTransportResponse}; the future completes exceptionally with a
+ * {@link TransportException} only when no response was received (connection failure, timeout).
+ * The implementation is chosen with {@code api.transport.type}.
+ */
+public interface AccountApiTransport {
+
+    String ACCOUNTS_PATH = "/api/accounts";
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    String CLIENT_ID_HEADER = "X-Client-Id";
+    String RETRY_AFTER_HEADER = "Retry-After";
+
+    CompletableFuture<ApiTransportResponse> post(AccountMessage message, String idempotencyKey);
+
+    /**
+     * Short name used in logs and benchmark reports.
+     */
+    String name();
+}
@@ -0,0 +1,51 @@
+package com.example.testconsumer.transport;
+
+import com.example.testconsumer.model.AccountResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * HTTP response from the test-api: the decoded body for 2xx responses, the raw body otherwise.
+ * {@code retryAfter} holds the server's Retry-After hint, or null if it sent none.
+ */
+public record ApiTransportResponse(
+    int statusCode,
+    AccountResponse body,
+    String errorBody,
+    Duration retryAfter
+) {
+    public ApiTransportResponse(int statusCode, AccountResponse body, String errorBody) {
+        this(statusCode, body, errorBody, null);
+    }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Parse a Retry-After header value, either delay-seconds or an HTTP-date. Returns null for a
+     * missing or malformed value.
+     */
+    public static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not delay-seconds, try an HTTP-date
+        }
+        try {
+            Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            Duration delay = Duration.between(Instant.now(), at);
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
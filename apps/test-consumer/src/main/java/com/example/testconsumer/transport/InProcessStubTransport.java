@@ -0,0 +1,50 @@
+package com.example.testconsumer.transport;
+
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.model.AccountResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-process stand-in for the test-api, for benchmarking without a network.
+ *
+ * Answers every call with the same canned 200 response. The request is still encoded and the
+ * response decoded with Jackson, so the cost that remains is the consumer's own serialization work.
+ * The response does not echo the request, so logged response fields are those of the canned one.
+ */
+@Component
+@ConditionalOnProperty(name = "api.transport.type", havingValue = "stub")
+public class InProcessStubTransport implements AccountApiTransport {
+
+    private static final byte[] RESPONSE = ("{\"firstName\":\"Christopher\",\"lastName\":\"Rodriguez\","
+        + "\"accountNumber\":\"ACC-1A2B3C4D\",\"accountAction\":\"DEACTIVATE\",\"message\":\"Request processed successfully\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    public InProcessStubTransport(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public CompletableFuture<ApiTransportResponse> post(AccountMessage message, String idempotencyKey) {
+        try {
+            // Encoded like a real request body, then discarded
+            objectMapper.writeValueAsBytes(message);
+            return CompletableFuture.completedFuture(
+                new ApiTransportResponse(200, objectMapper.readValue(RESPONSE, AccountResponse.class), null));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+}
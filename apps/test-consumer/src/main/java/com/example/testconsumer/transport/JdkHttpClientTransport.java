@@ -0,0 +1,130 @@
+package com.example.testconsumer.transport;
+
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.model.AccountResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Transport over the JDK {@link HttpClient}.
+ *
+ * Prefers HTTP/2, so concurrent calls are multiplexed over a single connection when test-api
+ * supports it (h2c upgrade on plain HTTP), and falls back to pooled HTTP/1.1 connections
+ * otherwise. The connection pool is tuned through the {@code jdk.httpclient.*} system properties,
+ * which the JDK reads once per JVM; set them on the command line or in {@code JAVA_TOOL_OPTIONS},
+ * e.g. {@code -Djdk.httpclient.connectionPoolSize=64 -Djdk.httpclient.keepalive.timeout=300}.
+ */
+@Component
+@ConditionalOnProperty(name = "api.transport.type", havingValue = "jdk")
+public class JdkHttpClientTransport implements AccountApiTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(JdkHttpClientTransport.class);
+
+    private final ObjectMapper objectMapper;
+    private final URI accountsUri;
+    private final String clientId;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public JdkHttpClientTransport(
+            ObjectMapper objectMapper,
+            @Value("${api.test-api.base-url:http://localhost:8089}") String baseUrl,
+            @Value("${api.test-api.client-id:test-consumer}") String clientId,
+            @Value("${api.test-api.timeout.connect:5000}") int connectTimeoutMs,
+            @Value("${api.test-api.timeout.read:10000}") int readTimeoutMs,
+            @Value("${api.transport.jdk.http2:true}") boolean http2,
+            @Value("${api.transport.jdk.executor-threads:4}") int executorThreads) {
+        this.objectMapper = objectMapper;
+        this.accountsUri = URI.create(baseUrl + ACCOUNTS_PATH);
+        this.clientId = clientId;
+        this.requestTimeout = Duration.ofMillis(readTimeoutMs);
+
+        this.executor = executorThreads > 0 ? Executors.newFixedThreadPool(executorThreads) : null;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        this.httpClient = builder.build();
+
+        log.info("JDK HttpClient transport to {} ({}, {} executor threads)",
+            accountsUri, http2 ? "HTTP/2" : "HTTP/1.1", executorThreads > 0 ? executorThreads : "default");
+    }
+
+    @Override
+    public CompletableFuture<ApiTransportResponse> post(AccountMessage message, String idempotencyKey) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(accountsUri)
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .header(CLIENT_ID_HEADER, clientId)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .handle((response, ex) -> {
+                if (ex != null) {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    throw new TransportException(cause.toString(), cause);
+                }
+                return toResponse(response);
+            });
+    }
+
+    @Override
+    public String name() {
+        return "jdk";
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private ApiTransportResponse toResponse(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            Duration retryAfter = ApiTransportResponse.parseRetryAfter(
+                response.headers().firstValue(RETRY_AFTER_HEADER).orElse(null));
+            return new ApiTransportResponse(status, null, new String(response.body(), StandardCharsets.UTF_8), retryAfter);
+        }
+        if (response.body().length == 0) {
+            return new ApiTransportResponse(status, null, null);
+        }
+        try {
+            return new ApiTransportResponse(status, objectMapper.readValue(response.body(), AccountResponse.class), null);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.testconsumer.transport;
+
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.model.AccountResponse;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.handler.timeout.WriteTimeoutException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transport over the Reactor Netty {@link WebClient} built in {@code WebClientConfig}. Default.
+ */
+@Component
+@ConditionalOnProperty(name = "api.transport.type", havingValue = "reactor", matchIfMissing = true)
+public class ReactorNettyTransport implements AccountApiTransport {
+
+    private final WebClient webClient;
+
+    public ReactorNettyTransport(WebClient testApiWebClient) {
+        this.webClient = testApiWebClient;
+    }
+
+    @Override
+    public CompletableFuture<ApiTransportResponse> post(AccountMessage message, String idempotencyKey) {
+        return webClient.post()
+            .uri(ACCOUNTS_PATH)
+            .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .bodyValue(message)
+            .exchangeToMono(response -> {
+                int status = response.statusCode().value();
+                if (response.statusCode().is2xxSuccessful()) {
+                    return response.bodyToMono(AccountResponse.class)
+                        .map(body -> new ApiTransportResponse(status, body, null))
+                        .defaultIfEmpty(new ApiTransportResponse(status, null, null));
+                }
+                Duration retryAfter = ApiTransportResponse.parseRetryAfter(
+                    response.headers().asHttpHeaders().getFirst(RETRY_AFTER_HEADER));
+                return response.bodyToMono(String.class)
+                    .defaultIfEmpty("")
+                    .map(body -> new ApiTransportResponse(status, null, body, retryAfter));
+            })
+            .onErrorMap(WebClientRequestException.class, e -> new TransportException(e.getMessage(), e))
+            .onErrorMap(e -> !(e instanceof TransportException) && isTimeout(e),
+                e -> new TransportException("Timeout: " + e.getMessage(), e))
+            .switchIfEmpty(Mono.error(() -> new TransportException("Empty response", null)))
+            .toFuture();
+    }
+
+    @Override
+    public String name() {
+        return "reactor";
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        return e instanceof TimeoutException
+            || e instanceof ReadTimeoutException
+            || e instanceof WriteTimeoutException;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.testconsumer.transport;
+
+/**
+ * No response was received from the test-api (connection refused, reset, timeout, ...).
+ */
+public class TransportException extends RuntimeException {
+
+    public TransportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.testconsumer;
+
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.repository.AccountTransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end benchmark of the consumer: embedded Kafka, H2 and the in-process test-api stub, with
+ * the full listener, retry and persistence path in between.
+ *
+ * Two phases follow a warm-up:
+ * <ul>
+ *   <li>throughput: {@code benchmark.e2e.messages} are published at once and the sustained rate
+ *       is measured from the first send to the last {@code processed_at};</li>
+ *   <li>latency: messages are published at a fixed {@code benchmark.e2e.rate} for
+ *       {@code benchmark.e2e.seconds}, and the end-to-end latency of each is taken from its
+ *       {@code producerTs} to its {@code processed_at} row. {@code producerTs} is the time the
+ *       message was due on the schedule, not when it was actually sent, so a stalled publisher
+ *       shows up as latency instead of hiding it (coordinated omission).</li>
+ * </ul>
+ * The results are written as JSON to {@code benchmark.e2e.report}. If {@code benchmark.e2e.baseline}
+ * points to an earlier report, the run fails when throughput dropped or p99 latency grew by more
+ * than {@code benchmark.e2e.max-regression} (a fraction) against it.
+ * Run with {@code mvn test -Pbenchmark -Dtest=EndToEndBenchmarkTest}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "spring.datasource.url=jdbc:h2:mem:e2e-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "api.transport.type=stub",
+    "logging.level.com.example.testconsumer=${benchmark.e2e.log-level:WARN}",
+    "logging.level.com.example.testconsumer.EndToEndBenchmarkTest=INFO"
+})
+@DirtiesContext
+@EmbeddedKafka(partitions = 4, topics = {"accounts", "accounts-dlq", "accounts-error", "accounts-quarantine"})
+class EndToEndBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EndToEndBenchmarkTest.class);
+
+    private static final int WARMUP_MESSAGES = Integer.getInteger("benchmark.e2e.warmup", 5_000);
+    private static final int THROUGHPUT_MESSAGES = Integer.getInteger("benchmark.e2e.messages", 50_000);
+    private static final int LATENCY_RATE = Integer.getInteger("benchmark.e2e.rate", 1_000);
+    private static final int LATENCY_SECONDS = Integer.getInteger("benchmark.e2e.seconds", 20);
+    private static final String REPORT = System.getProperty("benchmark.e2e.report", "target/benchmark/e2e-report.json");
+    private static final String BASELINE = System.getProperty("benchmark.e2e.baseline");
+    private static final double MAX_REGRESSION = Double.parseDouble(System.getProperty("benchmark.e2e.max-regression", "0.1"));
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(5);
+
+    // Same shape as the messages of test-producer's RandomDataGenerator
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis"};
+    private static final String[] ACCOUNT_ACTIONS = {"CREATE", "UPDATE", "DELETE", "ACTIVATE", "DEACTIVATE", "SUSPEND"};
+
+    @Value("${spring.embedded.kafka.brokers}")
+    private String brokers;
+
+    @Value("${kafka.topic.accounts}")
+    private String topic;
+
+    @Autowired
+    private AccountTransactionRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void endToEnd() throws IOException {
+        Report report;
+        try (Producer<String, AccountMessage> producer = createProducer()) {
+            publish(producer, WARMUP_MESSAGES, 0);
+            awaitProcessed(WARMUP_MESSAGES);
+            repository.deleteAllInBatch();
+
+            Throughput throughput = measureThroughput(producer);
+            repository.deleteAllInBatch();
+
+            Latency latency = measureLatency(producer);
+            report = new Report(Instant.now(), throughput, latency);
+        }
+
+        Path reportPath = Path.of(REPORT);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+
+        log.info("End-to-end benchmark (report: {})", reportPath.toAbsolutePath());
+        log.info(String.format("throughput %10.0f msgs/s (%d messages in %.1f s)",
+            report.throughput().messagesPerSecond(), report.throughput().messages(), report.throughput().seconds()));
+        log.info(String.format("latency    at %.0f msgs/s: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms",
+            report.latency().achievedRate(), report.latency().p50Millis(), report.latency().p90Millis(),
+            report.latency().p99Millis(), report.latency().p999Millis(), report.latency().maxMillis()));
+
+        if (BASELINE != null) {
+            compareWithBaseline(report, objectMapper.readValue(Path.of(BASELINE).toFile(), Report.class));
+        }
+    }
+
+    private Throughput measureThroughput(Producer<String, AccountMessage> producer) {
+        Instant start = Instant.now();
+        publish(producer, THROUGHPUT_MESSAGES, 0);
+        awaitProcessed(THROUGHPUT_MESSAGES);
+        Instant lastProcessed = jdbcTemplate.queryForObject(
+            "select max(processed_at) from account_transactions", Instant.class);
+        double seconds = Duration.between(start, lastProcessed).toNanos() / 1e9;
+        return new Throughput(THROUGHPUT_MESSAGES, seconds, THROUGHPUT_MESSAGES / seconds);
+    }
+
+    private Latency measureLatency(Producer<String, AccountMessage> producer) {
+        int messages = LATENCY_RATE * LATENCY_SECONDS;
+        long start = System.nanoTime();
+        publish(producer, messages, LATENCY_RATE);
+        double publishSeconds = (System.nanoTime() - start) / 1e9;
+        awaitProcessed(messages);
+
+        List<Long> micros = new ArrayList<>(messages);
+        jdbcTemplate.query("select producer_ts, processed_at from account_transactions where processed_at is not null",
+            row -> {
+                Instant producerTs = row.getObject(1, Instant.class);
+                Instant processedAt = row.getObject(2, Instant.class);
+                micros.add(TimeUnit.NANOSECONDS.toMicros(Duration.between(producerTs, processedAt).toNanos()));
+            });
+        long[] sorted = micros.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+
+        return new Latency(
+            LATENCY_RATE,
+            messages / publishSeconds,
+            sorted.length,
+            percentile(sorted, 0.50),
+            percentile(sorted, 0.90),
+            percentile(sorted, 0.99),
+            percentile(sorted, 0.999),
+            sorted[sorted.length - 1] / 1_000.0);
+    }
+
+    private static void compareWithBaseline(Report report, Report baseline) {
+        double minThroughput = baseline.throughput().messagesPerSecond() * (1 - MAX_REGRESSION);
+        double maxP99 = baseline.latency().p99Millis() * (1 + MAX_REGRESSION);
+        log.info(String.format("baseline   %10.0f msgs/s, p99 %.1f ms (allowed: >= %.0f msgs/s, <= %.1f ms)",
+            baseline.throughput().messagesPerSecond(), baseline.latency().p99Millis(), minThroughput, maxP99));
+
+        assertThat(report.throughput().messagesPerSecond())
+            .as("throughput regressed more than %.0f%% against %s", MAX_REGRESSION * 100, BASELINE)
+            .isGreaterThanOrEqualTo(minThroughput);
+        assertThat(report.latency().p99Millis())
+            .as("p99 latency regressed more than %.0f%% against %s", MAX_REGRESSION * 100, BASELINE)
+            .isLessThanOrEqualTo(maxP99);
+    }
+
+    /**
+     * Publish {@code count} messages, paced at {@code rate} per second, or as fast as possible if 0.
+     * Paced messages are stamped with the time they were due as {@code producerTs}, even when the
+     * publisher falls behind; unpaced ones with their send time.
+     */
+    private void publish(Producer<String, AccountMessage> producer, int count, int rate) {
+        Instant startTime = Instant.now();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Instant producerTs;
+            if (rate > 0) {
+                long offset = i * TimeUnit.SECONDS.toNanos(1) / rate;
+                long wait;
+                while ((wait = start + offset - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                producerTs = startTime.plusNanos(offset);
+            } else {
+                producerTs = Instant.now();
+            }
+            AccountMessage message = nextMessage(producerTs);
+            producer.send(new ProducerRecord<>(topic, message.accountNumber(), message));
+        }
+        producer.flush();
+    }
+
+    private AccountMessage nextMessage(Instant producerTs) {
+        return new AccountMessage(
+            FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+            LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+            String.format("ACC-%08X", random.nextInt()),
+            ACCOUNT_ACTIONS[random.nextInt(ACCOUNT_ACTIONS.length)],
+            producerTs);
+    }
+
+    private void awaitProcessed(long expected) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        long processed = 0;
+        while (System.nanoTime() < deadline) {
+            processed = repository.count() - repository.countByStatusIsNull();
+            if (processed >= expected) {
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        throw new AssertionError("Only " + processed + " of " + expected + " messages processed within " + DRAIN_TIMEOUT);
+    }
+
+    private Producer<String, AccountMessage> createProducer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        JsonSerializer<AccountMessage> valueSerializer = new JsonSerializer<>();
+        valueSerializer.setAddTypeInfo(false);
+        return new KafkaProducer<>(props, new StringSerializer(), valueSerializer);
+    }
+
+    private static double percentile(long[] sortedMicros, double quantile) {
+        int index = Math.min(sortedMicros.length - 1, (int) (sortedMicros.length * quantile));
+        return sortedMicros[index] / 1_000.0;
+    }
+
+    record Report(Instant timestamp, Throughput throughput, Latency latency) {}
+
+    /**
+     * @param seconds from the first send to the last {@code processed_at}
+     */
+    record Throughput(int messages, double seconds, double messagesPerSecond) {}
+
+    /**
+     * End-to-end latency from {@code producerTs} to {@code processed_at}, in milliseconds.
+     */
+    record Latency(
+        int targetRate,
+        double achievedRate,
+        int messages,
+        double p50Millis,
+        double p90Millis,
+        double p99Millis,
+        double p999Millis,
+        double maxMillis
+    ) {}
+}
@@ -0,0 +1,183 @@
+package com.example.testconsumer.consumer;
+
+import com.example.testconsumer.entity.AccountTransaction;
+import com.example.testconsumer.model.AccountMessage;
+import com.example.testconsumer.model.AccountResponse;
+import com.example.testconsumer.model.ApiResult;
+import com.example.testconsumer.quarantine.PoisonTolerantDeserializer;
+import com.example.testconsumer.service.AccountTransactionService;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the steps every consumed record goes through, without Kafka, the database or the
+ * network: value deserialization, the Event Hub enqueued-time header, the INFO lines
+ * {@link AccountMessageConsumer#logReceived} writes for every record, building the
+ * {@link AccountTransaction} row, and decoding the test-api response. {@code record} runs them all
+ * in sequence.
+ *
+ * The consumer's logger writes only to an appender that formats each event, as an encoder would,
+ * and discards the text, so Logback's cost is measured rather than the console. DEBUG output is
+ * switched off, so the header parsing is measured without its debug lines.
+ *
+ * Run with {@code mvn test -Pjmh}, which adds {@code -prof gc} for allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordPathBenchmark {
+
+    private static final String TOPIC = "accounts";
+
+    // As sent by test-producer: Jackson's JSON for its AccountMessage
+    private static final byte[] PAYLOAD = ("{\"firstName\":\"Christopher\",\"lastName\":\"Rodriguez\","
+        + "\"accountNumber\":\"ACC-1A2B3C4D\",\"accountAction\":\"DEACTIVATE\",\"producerTs\":1760000000.123456789}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    // As returned by the test-api
+    private static final byte[] RESPONSE = ("{\"firstName\":\"Christopher\",\"lastName\":\"Rodriguez\","
+        + "\"accountNumber\":\"ACC-1A2B3C4D\",\"accountAction\":\"DEACTIVATE\",\"message\":\"Request processed successfully\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Format of the {@code x-opt-enqueued-time} header: 8-byte epoch millis, epoch millis as text,
+     * ISO-8601 text, or absent (local Kafka).
+     */
+    @Param({"long", "millis", "iso", "none"})
+    public String enqueuedTime;
+
+    private PoisonTolerantDeserializer deserializer;
+    private ObjectMapper objectMapper;
+    private AccountTransactionService transactionService;
+    private ConsumerRecord<String, AccountMessage> record;
+    private Logger consumerLog;
+    private FormattingAppender appender;
+
+    @Setup
+    public void setUp() {
+        consumerLog = (Logger) LoggerFactory.getLogger(AccountMessageConsumer.class);
+        consumerLog.setLevel(Level.INFO);
+        consumerLog.setAdditive(false);
+        appender = new FormattingAppender();
+        appender.setContext(consumerLog.getLoggerContext());
+        appender.start();
+        consumerLog.addAppender(appender);
+
+        JsonDeserializer<AccountMessage> json = new JsonDeserializer<>(AccountMessage.class);
+        json.addTrustedPackages("*");
+        json.setUseTypeMapperForKey(false);
+        json.setUseTypeHeaders(false);
+        deserializer = new PoisonTolerantDeserializer(json);
+        objectMapper = new ObjectMapper();
+        // Only the row building is measured, which uses neither the repository nor the offset store
+        transactionService = new AccountTransactionService(null, null, new SimpleMeterRegistry());
+
+        RecordHeaders headers = new RecordHeaders();
+        long enqueuedMillis = 1_760_000_000_456L;
+        switch (enqueuedTime) {
+            case "long" -> headers.add("x-opt-enqueued-time", ByteBuffer.allocate(Long.BYTES).putLong(enqueuedMillis).array());
+            case "millis" -> headers.add("x-opt-enqueued-time", Long.toString(enqueuedMillis).getBytes(StandardCharsets.UTF_8));
+            case "iso" -> headers.add("x-opt-enqueued-time",
+                Instant.ofEpochMilli(enqueuedMillis).toString().getBytes(StandardCharsets.UTF_8));
+            default -> { }
+        }
+        record = new ConsumerRecord<>(TOPIC, 3, 123_456L, enqueuedMillis, TimestampType.CREATE_TIME,
+            PAYLOAD.length, PAYLOAD.length, "ACC-1A2B3C4D", deserializer.deserialize(TOPIC, PAYLOAD),
+            headers, Optional.empty());
+    }
+
+    @TearDown
+    public void tearDown() {
+        deserializer.close();
+        consumerLog.detachAppender(appender);
+        consumerLog.setAdditive(true);
+        appender.stop();
+    }
+
+    @Benchmark
+    public AccountMessage deserialize() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(), PAYLOAD);
+    }
+
+    @Benchmark
+    public Instant extractEventEnqueuedTime() {
+        return AccountMessageConsumer.extractEventEnqueuedTime(record);
+    }
+
+    @Benchmark
+    public long logReceived() {
+        AccountMessageConsumer.logReceived(record, AccountMessageConsumer.extractEventEnqueuedTime(record));
+        return appender.formattedChars;
+    }
+
+    @Benchmark
+    public AccountTransaction buildTransaction() {
+        return transactionService.newIncomingTransaction(record.value(), record.topic(), record.partition(),
+            record.offset(), Instant.ofEpochMilli(record.timestamp()));
+    }
+
+    @Benchmark
+    public ApiResult decodeResponse() throws IOException {
+        return ApiResult.success(objectMapper.readValue(RESPONSE, AccountResponse.class), 200);
+    }
+
+    @Benchmark
+    public void record(Blackhole blackhole) throws IOException {
+        RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+        AccountMessage message = deserializer.deserialize(TOPIC, headers, PAYLOAD);
+        ConsumerRecord<String, AccountMessage> consumed = new ConsumerRecord<>(TOPIC, record.partition(),
+            record.offset(), record.timestamp(), TimestampType.CREATE_TIME, PAYLOAD.length, PAYLOAD.length,
+            record.key(), message, headers, Optional.empty());
+        Instant eventEnqueuedTime = AccountMessageConsumer.extractEventEnqueuedTime(consumed);
+        AccountMessageConsumer.logReceived(consumed, eventEnqueuedTime);
+        blackhole.consume(appender.formattedChars);
+        blackhole.consume(transactionService.newIncomingTransaction(message, TOPIC, consumed.partition(),
+            consumed.offset(), eventEnqueuedTime));
+        blackhole.consume(ApiResult.success(objectMapper.readValue(RESPONSE, AccountResponse.class), 200));
+    }
+
+    /**
+     * Formats every event like an encoder would, then drops the text.
+     */
+    static final class FormattingAppender extends AppenderBase<ILoggingEvent> {
+
+        long formattedChars;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            formattedChars += event.getFormattedMessage().length();
+        }
+    }
+}
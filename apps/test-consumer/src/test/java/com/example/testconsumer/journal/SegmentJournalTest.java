@@ -0,0 +1,224 @@
+package com.example.testconsumer.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    private static final String FIRST_SEGMENT = "segment-00000000000000000000.log";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEntriesInOrderAcrossSegments() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 50);
+
+            assertThat(offsets(journal.read(1_000))).containsExactlyElementsOf(range(0, 50));
+            assertThat(segmentFiles()).hasSizeGreaterThan(1);
+            journal.commit();
+
+            assertThat(journal.depth()).isZero();
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    @Test
+    void rewindReadsPendingEntriesAgain() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 5);
+            journal.read(2);
+            journal.commit();
+
+            assertThat(offsets(journal.read(10))).containsExactly(2L, 3L, 4L);
+            journal.rewind();
+            assertThat(offsets(journal.read(10))).containsExactly(2L, 3L, 4L);
+            assertThat(journal.depth()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void recoversUncommittedEntriesAfterReopen() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 30);
+            journal.read(10);
+            journal.commit();
+            journal.read(5);
+        }
+
+        try (SegmentJournal journal = open()) {
+            assertThat(journal.depth()).isEqualTo(20);
+            append(journal, 30, 2);
+            assertThat(offsets(journal.read(100))).containsExactlyElementsOf(range(10, 32));
+        }
+    }
+
+    @Test
+    void truncatesTornFinalWriteOnRecovery() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 3);
+        }
+        List<Integer> frames = framePositions(FIRST_SEGMENT);
+        corruptPayload(FIRST_SEGMENT, frames.get(2));
+
+        try (SegmentJournal journal = open()) {
+            assertThat(journal.depth()).isEqualTo(2);
+            append(journal, 3, 1);
+            assertThat(offsets(journal.read(10))).containsExactly(0L, 1L, 3L);
+            journal.commit();
+
+            assertThat(journal.corruptions()).isZero();
+            assertThat(journal.depth()).isZero();
+        }
+    }
+
+    @Test
+    void skipsFrameWithChecksumMismatchInSegmentBeingWritten() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 3);
+            corruptPayload(FIRST_SEGMENT, framePositions(FIRST_SEGMENT).get(1));
+            append(journal, 3, 1);
+
+            assertThat(offsets(journal.read(10))).containsExactly(0L, 2L, 3L);
+            assertThat(journal.corruptions()).isZero();
+            journal.commit();
+
+            assertThat(journal.corruptions()).isEqualTo(1);
+            assertThat(journal.lostRecords()).isEqualTo(1);
+            assertThat(journal.depth()).isZero();
+        }
+    }
+
+    @Test
+    void skipsFrameWithChecksumMismatchAfterRecovery() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 3);
+        }
+        corruptPayload(FIRST_SEGMENT, framePositions(FIRST_SEGMENT).get(1));
+
+        try (SegmentJournal journal = open()) {
+            assertThat(journal.depth()).isEqualTo(3);
+            assertThat(offsets(journal.read(10))).containsExactly(0L, 2L);
+            journal.commit();
+
+            assertThat(journal.corruptions()).isEqualTo(1);
+            assertThat(journal.lostRecords()).isEqualTo(1);
+            assertThat(journal.depth()).isZero();
+        }
+    }
+
+    @Test
+    void rollsPastUnreadableFrameInSegmentBeingWritten() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 3);
+            writeLength(FIRST_SEGMENT, framePositions(FIRST_SEGMENT).get(1), -1);
+
+            assertThat(offsets(journal.read(10))).containsExactly(0L);
+            append(journal, 3, 1);
+            assertThat(offsets(journal.read(10))).containsExactly(3L);
+            journal.commit();
+
+            assertThat(journal.corruptions()).isEqualTo(1);
+            assertThat(journal.lostRecords()).isEqualTo(2);
+            assertThat(journal.depth()).isZero();
+            assertThat(Files.exists(directory.resolve(FIRST_SEGMENT + ".corrupt"))).isTrue();
+            assertThat(Files.exists(directory.resolve(FIRST_SEGMENT))).isFalse();
+        }
+    }
+
+    @Test
+    void skipsRestOfCompletedSegmentWithUnreadableFrame() throws IOException {
+        try (SegmentJournal journal = open()) {
+            append(journal, 0, 50);
+        }
+        List<Integer> frames = framePositions(FIRST_SEGMENT);
+        writeLength(FIRST_SEGMENT, frames.get(2), SEGMENT_SIZE);
+
+        try (SegmentJournal journal = open()) {
+            List<Long> expected = new ArrayList<>(range(0, 2));
+            expected.addAll(range(frames.size(), 50));
+            assertThat(offsets(journal.read(1_000))).containsExactlyElementsOf(expected);
+            journal.commit();
+
+            assertThat(journal.corruptions()).isEqualTo(1);
+            assertThat(journal.depth()).isZero();
+            assertThat(Files.exists(directory.resolve(FIRST_SEGMENT + ".corrupt"))).isTrue();
+        }
+    }
+
+    private SegmentJournal open() throws IOException {
+        return SegmentJournal.open(directory, SEGMENT_SIZE, false);
+    }
+
+    private static void append(SegmentJournal journal, long firstOffset, int count) {
+        for (long offset = firstOffset; offset < firstOffset + count; offset++) {
+            journal.append(new JournalEntry(JournalEntry.Type.RECEIVED, System.currentTimeMillis(), "accounts", 0,
+                offset, "John", "Doe", "ACC-" + offset, "CREATE", null, Instant.now(), Instant.now(),
+                null, null, null));
+        }
+    }
+
+    private static List<Long> offsets(List<JournalEntry> entries) {
+        return entries.stream().map(JournalEntry::kafkaOffset).toList();
+    }
+
+    private static List<Long> range(long from, long to) {
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = from; offset < to; offset++) {
+            offsets.add(offset);
+        }
+        return offsets;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+
+    private List<Integer> framePositions(String segment) throws IOException {
+        List<Integer> positions = new ArrayList<>();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(segment).toFile(), "r")) {
+            int position = 0;
+            int length;
+            while (position + 8 <= SEGMENT_SIZE && (length = readInt(file, position)) > 0) {
+                positions.add(position);
+                position += 8 + length;
+            }
+        }
+        return positions;
+    }
+
+    private void corruptPayload(String segment, int framePosition) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(segment).toFile(), "rw")) {
+            file.seek(framePosition + 8 + 20);
+            int value = file.read();
+            file.seek(framePosition + 8 + 20);
+            file.write(value ^ 0xFF);
+        }
+    }
+
+    private void writeLength(String segment, int framePosition, int length) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(segment).toFile(), "rw")) {
+            file.seek(framePosition);
+            file.writeInt(length);
+        }
+    }
+
+    private static int readInt(RandomAccessFile file, int position) throws IOException {
+        file.seek(position);
+        return file.readInt();
+    }
+}
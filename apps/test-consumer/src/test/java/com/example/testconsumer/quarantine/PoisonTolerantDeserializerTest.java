@@ -0,0 +1,60 @@
+package com.example.testconsumer.quarantine;
+
+import com.example.testconsumer.model.AccountMessage;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoisonTolerantDeserializerTest {
+
+    private static final String TOPIC = "accounts";
+    private static final byte[] VALID = ("{\"firstName\":\"Ada\",\"lastName\":\"Lovelace\","
+        + "\"accountNumber\":\"ACC-1A2B3C4D\",\"accountAction\":\"CREATE\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final PoisonTolerantDeserializer deserializer =
+        new PoisonTolerantDeserializer(new JsonDeserializer<>(AccountMessage.class, false));
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    @Test
+    void undecodableValueIsMarkedAsPoison() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] garbage = "not json".getBytes(StandardCharsets.UTF_8);
+
+        AccountMessage message = deserializer.deserialize(TOPIC, headers, garbage);
+
+        assertThat(message).isNull();
+        assertThat(PoisonTolerantDeserializer.isPoison(record(headers, message))).isTrue();
+        assertThat(headers.lastHeader(PoisonTolerantDeserializer.RAW_VALUE_HEADER).value()).isEqualTo(garbage);
+    }
+
+    @Test
+    void republishedRecordWithOldMarkersIsNotPoison() {
+        // As copied onto the quarantine record and kept when it is fixed and sent back
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(PoisonTolerantDeserializer.REASON_HEADER, "JsonParseException".getBytes(StandardCharsets.UTF_8));
+
+        AccountMessage message = deserializer.deserialize(TOPIC, headers, VALID);
+
+        assertThat(message).isNotNull();
+        assertThat(message.firstName()).isEqualTo("Ada");
+        assertThat(headers.lastHeader(PoisonTolerantDeserializer.REASON_HEADER)).isNull();
+        assertThat(PoisonTolerantDeserializer.isPoison(record(headers, message))).isFalse();
+    }
+
+    private static ConsumerRecord<String, AccountMessage> record(RecordHeaders headers, AccountMessage value) {
+        return new ConsumerRecord<>(TOPIC, 0, 0L, 0L, TimestampType.CREATE_TIME, 0, 0, "key", value,
+            headers, Optional.empty());
+    }
+}
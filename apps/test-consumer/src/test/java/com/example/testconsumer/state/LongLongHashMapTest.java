@@ -0,0 +1,63 @@
+package com.example.testconsumer.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putAndGet() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        map.put(1, 10);
+        map.put(-7, 70);
+        map.put(1, 11);
+
+        assertThat(map.get(1, -1)).isEqualTo(11);
+        assertThat(map.get(-7, -1)).isEqualTo(70);
+        assertThat(map.get(2, -1)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void addToStartsFromDeltaForNewKeys() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        map.addTo(5, 3);
+        map.addTo(5, -1);
+        map.addTo(6, 1);
+
+        assertThat(map.get(5, 0)).isEqualTo(2);
+        assertThat(map.get(6, 0)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsEntriesWhenGrowing() {
+        LongLongHashMap map = new LongLongHashMap(1);
+        Map<Long, Long> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            // Multiples of a power of two collide in the low bits without the hash spreading
+            long key = random.nextInt(2_000) * 1024L;
+            map.addTo(key, i);
+            expected.merge(key, (long) i, Long::sum);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsReservedKey() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        assertThatThrownBy(() -> map.put(Long.MIN_VALUE, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.testconsumer.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionAggregateTest {
+
+    @Test
+    void statusUpdateForAnOlderOffsetAdvancesLastUpdate() {
+        PartitionAggregate aggregate = new PartitionAggregate(60, 16);
+        aggregate.received(0, 1L, 1_000, 5);
+        aggregate.received(0, 2L, 2_000, 6);
+        aggregate.completed(200, 1L, 3_000);
+
+        assertThat(aggregate.lastOffset()).isEqualTo(6);
+        assertThat(aggregate.lastUpdateMillis()).isEqualTo(3_000);
+    }
+
+    @Test
+    void loadUsesTheLaterOfReceivedAndProcessed() {
+        PartitionAggregate aggregate = new PartitionAggregate(60, 16);
+        aggregate.load(0, 1L, 200, 1_000, 4_000, 5);
+        aggregate.load(0, 2L, null, 2_000, 0, 6);
+
+        assertThat(aggregate.lastUpdateMillis()).isEqualTo(4_000);
+        assertThat(aggregate.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotKeepsOffsetAndLastUpdate() throws IOException {
+        PartitionAggregate aggregate = new PartitionAggregate(60, 16);
+        aggregate.received(0, 1L, 60_000, 9);
+        aggregate.completed(500, 1L, 61_000);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        aggregate.writeTo(new DataOutputStream(bytes), List.of("CREATE"));
+        PartitionAggregate restored = PartitionAggregate.readFrom(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 60, name -> 0);
+
+        assertThat(restored.lastOffset()).isEqualTo(9);
+        assertThat(restored.lastUpdateMillis()).isEqualTo(61_000);
+        assertThat(restored.statusCount(500)).isEqualTo(1);
+        assertThat(restored.minuteCount(1)).isEqualTo(1);
+        assertThat(PartitionAggregate.unpackStatus(restored.latest(1L))).isEqualTo(500);
+    }
+}
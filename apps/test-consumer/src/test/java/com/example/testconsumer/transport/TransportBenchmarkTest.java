@@ -0,0 +1,171 @@
+package com.example.testconsumer.transport;
+
+import com.example.testconsumer.model.AccountMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the {@link AccountApiTransport} implementations: sequential latency (p50/p99), bytes
+ * allocated per call across all client threads, and throughput with a fixed number of calls in flight.
+ *
+ * Runs against {@code -Dbenchmark.api-url} if given, otherwise against a minimal local HTTP
+ * server so that the numbers reflect the client stack rather than the test-api.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TransportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TransportBenchmarkTest.class);
+
+    private static final int WARMUP_CALLS = Integer.getInteger("benchmark.warmup", 2_000);
+    private static final int MEASURED_CALLS = Integer.getInteger("benchmark.calls", 10_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 64);
+
+    private static final byte[] RESPONSE = ("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"accountNumber\":\"ACC-1\","
+        + "\"accountAction\":\"CREATE\",\"message\":\"Request processed successfully\"}").getBytes(StandardCharsets.UTF_8);
+
+    // Threads of the local server, excluded from the allocation count
+    private static final String SERVER_THREAD_PREFIX = "benchmark-server-";
+    private static final String SERVER_DISPATCHER_THREAD = "HTTP-Dispatcher";
+
+    private static final AccountMessage MESSAGE = new AccountMessage("John", "Doe", "ACC-1", "CREATE", null);
+
+    private static HttpServer server;
+    private static String baseUrl;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        baseUrl = System.getProperty("benchmark.api-url");
+        if (baseUrl != null) {
+            return;
+        }
+        // Without TCP_NODELAY the JDK server adds a delayed-ACK stall to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext(AccountApiTransport.ACCOUNTS_PATH, exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            exchange.getResponseBody().write(RESPONSE);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(8, runnable -> new Thread(runnable, SERVER_THREAD_PREFIX + "worker")));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void compareTransports() {
+        Map<String, AccountApiTransport> transports = new LinkedHashMap<>();
+        transports.put("stub", new InProcessStubTransport(objectMapper));
+        transports.put("reactor", new ReactorNettyTransport(WebClient.builder().baseUrl(baseUrl).build()));
+        transports.put("jdk-h2", new JdkHttpClientTransport(objectMapper, baseUrl, "benchmark", 5_000, 10_000, true, 4));
+        transports.put("jdk-h1", new JdkHttpClientTransport(objectMapper, baseUrl, "benchmark", 5_000, 10_000, false, 4));
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %12s %10s %10s %14s", "transport", "calls/s", "p50 us", "p99 us", "bytes/call"));
+        transports.forEach((name, transport) -> {
+            Result result = run(transport);
+            report.add(String.format("%-10s %12.0f %10.1f %10.1f %14d",
+                name, result.callsPerSecond(), result.p50Micros(), result.p99Micros(), result.bytesPerCall()));
+            if (transport instanceof JdkHttpClientTransport jdk) {
+                jdk.close();
+            }
+        });
+
+        log.info("Transport benchmark against {} ({} calls, {} in flight for throughput)",
+            baseUrl, MEASURED_CALLS, CONCURRENCY);
+        report.forEach(log::info);
+    }
+
+    private Result run(AccountApiTransport transport) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call(transport);
+        }
+
+        long[] latencies = new long[MEASURED_CALLS];
+        long allocatedBefore = allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            long start = System.nanoTime();
+            call(transport);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long bytesPerCall = (allocatedBytes() - allocatedBefore) / MEASURED_CALLS;
+        Arrays.sort(latencies);
+
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            inFlight.acquireUninterruptibly();
+            transport.post(MESSAGE, "benchmark-" + i).whenComplete((response, ex) -> inFlight.release());
+        }
+        inFlight.acquireUninterruptibly(CONCURRENCY);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        return new Result(
+            MEASURED_CALLS / seconds,
+            latencies[(int) (MEASURED_CALLS * 0.50)] / 1_000.0,
+            latencies[(int) (MEASURED_CALLS * 0.99)] / 1_000.0,
+            bytesPerCall);
+    }
+
+    private void call(AccountApiTransport transport) {
+        CompletableFuture<ApiTransportResponse> future = transport.post(MESSAGE, "benchmark");
+        assertThat(future.join().isSuccess()).isTrue();
+    }
+
+    /**
+     * Bytes allocated so far by all live client threads, so event-loop and executor threads are
+     * counted but the local server is not.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] clientThreadIds = Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> !thread.getName().startsWith(SERVER_THREAD_PREFIX)
+                && !thread.getName().equals(SERVER_DISPATCHER_THREAD))
+            .mapToLong(Thread::getId)
+            .toArray();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(clientThreadIds)) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    private record Result(double callsPerSecond, double p50Micros, double p99Micros, long bytesPerCall) {}
+}
@@ -0,0 +1,194 @@
+package com.example.testproducer.backpressure;
+
+import com.example.testproducer.sender.ShardedSender;
+import com.example.testproducer.service.EmissionEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lowers the emission rate when the Kafka client cannot keep up, instead of letting
+ * {@code send()} block the emitter threads once the accumulator is full.
+ *
+ * Every interval it reads the producer's own metrics, summed or maxed over the sender shards,
+ * and treats any of these as pressure:
+ * <ul>
+ *   <li>buffer use ({@code buffer-available-bytes} of {@code buffer-total-bytes}) above
+ *       {@code buffer-threshold}</li>
+ *   <li>{@code record-queue-time-avg} above {@code queue-time-threshold-ms}</li>
+ *   <li>{@code produce-throttle-time-max} above zero, i.e. the broker (Event Hub) throttled us</li>
+ *   <li>a {@code send()} call blocked longer than {@code block-threshold-ms}</li>
+ * </ul>
+ * Under pressure the rate limit drops multiplicatively to {@code decrease-factor} of the rate
+ * actually achieved; without it the limit grows additively by {@code increase-percent} of the
+ * target per interval and is lifted once it reaches the target (AIMD).
+ */
+@Component
+public class AdaptiveRateController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveRateController.class);
+
+    private static final String PRODUCER_METRICS = "producer-metrics";
+
+    private final EmissionEngine emissionEngine;
+    private final ShardedSender sender;
+
+    private final boolean enabled;
+    private final double bufferThreshold;
+    private final double queueTimeThresholdMs;
+    private final long blockThresholdNanos;
+    private final double decreaseFactor;
+    private final double increasePercent;
+    private final double minRate;
+
+    private final LongAdder blockedSends = new LongAdder();
+    private final Timer sendBlockTimer;
+    private final Counter throttleEventsCounter;
+    private final Counter decreaseCounter;
+
+    private volatile double bufferUsed;
+    private volatile long throttleEvents;
+
+    public AdaptiveRateController(
+            EmissionEngine emissionEngine,
+            ShardedSender sender,
+            MeterRegistry meterRegistry,
+            @Value("${producer.backpressure.enabled:true}") boolean enabled,
+            @Value("${producer.backpressure.buffer-threshold:0.8}") double bufferThreshold,
+            @Value("${producer.backpressure.queue-time-threshold-ms:500}") double queueTimeThresholdMs,
+            @Value("${producer.backpressure.block-threshold-ms:5}") long blockThresholdMs,
+            @Value("${producer.backpressure.decrease-factor:0.7}") double decreaseFactor,
+            @Value("${producer.backpressure.increase-percent:5}") double increasePercent,
+            @Value("${producer.backpressure.min-rate:1}") double minRate) {
+        this.emissionEngine = emissionEngine;
+        this.sender = sender;
+        this.enabled = enabled;
+        this.bufferThreshold = bufferThreshold;
+        this.queueTimeThresholdMs = queueTimeThresholdMs;
+        this.blockThresholdNanos = TimeUnit.MILLISECONDS.toNanos(blockThresholdMs);
+        this.decreaseFactor = decreaseFactor;
+        this.increasePercent = increasePercent;
+        this.minRate = minRate;
+
+        this.sendBlockTimer = Timer.builder("producer.send.blocked")
+            .description("send() calls that blocked on a full producer buffer or missing metadata")
+            .register(meterRegistry);
+        this.throttleEventsCounter = Counter.builder("producer.throttle.events")
+            .description("Intervals in which the broker throttled produce requests")
+            .register(meterRegistry);
+        this.decreaseCounter = Counter.builder("producer.backpressure.decreases")
+            .description("Times the emission rate was lowered because of producer pressure")
+            .register(meterRegistry);
+        Gauge.builder("producer.backpressure.buffer.used", this, AdaptiveRateController::getBufferUsed)
+            .description("Fraction of buffer.memory in use by unsent records")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Called after every send with the time {@code send()} took to return.
+     */
+    public void recordSendDuration(long nanos) {
+        if (nanos > blockThresholdNanos) {
+            blockedSends.increment();
+            sendBlockTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public double getBufferUsed() {
+        return bufferUsed;
+    }
+
+    public long getThrottleEvents() {
+        return throttleEvents;
+    }
+
+    @Scheduled(fixedDelayString = "${producer.backpressure.interval-millis:1000}")
+    public void adjust() {
+        if (!emissionEngine.isRunning()) {
+            emissionEngine.setRateLimit(Double.POSITIVE_INFINITY);
+            blockedSends.reset();
+            return;
+        }
+
+        List<Map<MetricName, ? extends Metric>> shardMetrics = sender.shardMetrics();
+        double available = 0;
+        double total = 0;
+        double queueTimeMs = 0;
+        double throttleTimeMs = 0;
+        for (Map<MetricName, ? extends Metric> metrics : shardMetrics) {
+            double shardAvailable = metric(metrics, "buffer-available-bytes");
+            double shardTotal = metric(metrics, "buffer-total-bytes");
+            if (shardAvailable >= 0 && shardTotal > 0) {
+                available += shardAvailable;
+                total += shardTotal;
+            }
+            queueTimeMs = Math.max(queueTimeMs, orZero(metric(metrics, "record-queue-time-avg")));
+            throttleTimeMs = Math.max(throttleTimeMs, orZero(metric(metrics, "produce-throttle-time-max")));
+        }
+        long blocked = blockedSends.sumThenReset();
+
+        bufferUsed = total > 0 ? 1 - available / total : 0;
+        boolean throttled = throttleTimeMs > 0;
+        if (throttled) {
+            throttleEvents++;
+            throttleEventsCounter.increment();
+        }
+        if (!enabled) {
+            return;
+        }
+
+        boolean pressure = bufferUsed > bufferThreshold || queueTimeMs > queueTimeThresholdMs || throttled || blocked > 0;
+        double target = emissionEngine.getTargetRate();
+        double limit = emissionEngine.getRateLimit();
+
+        if (pressure) {
+            double achieved = emissionEngine.getAchievedRate();
+            double base = Math.min(emissionEngine.getEffectiveRate(), achieved > 0 ? achieved : Double.POSITIVE_INFINITY);
+            double lowered = Math.max(minRate, base * decreaseFactor);
+            emissionEngine.setRateLimit(lowered);
+            decreaseCounter.increment();
+            log.info("Producer pressure (buffer {}% used, queue time {} ms, throttle {} ms, {} blocked send(s)): "
+                    + "rate limited to {} of {} msgs/s", Math.round(bufferUsed * 100), Math.round(queueTimeMs),
+                Math.round(throttleTimeMs), blocked, Math.round(lowered), Math.round(target));
+        } else if (limit < Double.POSITIVE_INFINITY) {
+            double raised = limit + target * increasePercent / 100;
+            if (raised >= target) {
+                emissionEngine.setRateLimit(Double.POSITIVE_INFINITY);
+                log.info("Producer pressure cleared: back to the target of {} msgs/s", Math.round(target));
+            } else {
+                emissionEngine.setRateLimit(raised);
+            }
+        }
+    }
+
+    private static double orZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+
+    /**
+     * Value of a producer-level metric, or NaN if the client has not reported it yet.
+     */
+    private static double metric(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (metricName.name().equals(name) && metricName.group().equals(PRODUCER_METRICS)) {
+                Object value = entry.getValue().metricValue();
+                return value instanceof Number number ? number.doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.testproducer.cluster;
+
+import com.example.testproducer.cluster.ControlMessage.Assignment;
+import com.example.testproducer.cluster.ControlMessage.Command;
+import com.example.testproducer.cluster.ControlMessage.Heartbeat;
+import com.example.testproducer.scenario.Scenario;
+import com.example.testproducer.service.MessageProducerService;
+import com.example.testproducer.service.MessageProducerService.ProducerStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs several producer replicas as one load generator, coordinated over a Kafka control topic.
+ *
+ * <ul>
+ *   <li>Every member publishes a heartbeat with its statistics each {@code heartbeat-millis}.
+ *       Members not heard from for {@code session-timeout-millis} are considered gone.</li>
+ *   <li>The live member that joined first is the leader. All members read the same heartbeats,
+ *       so they agree on it without a vote, and a newer member never takes over from a running
+ *       leader. A member only acts as leader after one session timeout, once it has seen the
+ *       heartbeats of the members already there.</li>
+ *   <li>REST commands are published to the topic from whichever member received them and
+ *       executed by the leader, which answers with an {@link Assignment}: the cluster-wide rate or
+ *       scenario, a common start time and the members sharing it. The leader publishes a new
+ *       assignment whenever members join or leave, so the aggregate rate holds.</li>
+ *   <li>Each member emits its share of the rate, or plays the scenario scaled by its share from the
+ *       common start time, joining a scenario in progress at the right point.</li>
+ * </ul>
+ *
+ * Start times are wall-clock times, so the members' clocks should be synchronized (NTP).
+ */
+@Component
+@ConditionalOnProperty(name = "producer.cluster.enabled", havingValue = "true")
+public class ClusterCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+    private static final long NO_RUN = -1;
+
+    private final MessageProducerService producerService;
+    private final ControlChannel channel;
+    private final String memberId;
+    private final long heartbeatMillis;
+    private final long sessionTimeoutMillis;
+    private final long startDelayMillis;
+
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private final List<Command> pendingCommands = new ArrayList<>();
+    private final ScheduledExecutorService applier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-applier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Assignment latest;
+    private volatile boolean running;
+    private volatile long startedAtMillis;
+    private volatile long joinedAtMillis = Long.MAX_VALUE;
+    private Thread loop;
+    // Only touched by the applier thread
+    private long activeRunId = NO_RUN;
+
+    public ClusterCoordinator(
+            MessageProducerService producerService,
+            ControlChannel channel,
+            MeterRegistry meterRegistry,
+            @Value("${producer.cluster.member-id:}") String memberId,
+            @Value("${producer.cluster.heartbeat-millis:1000}") long heartbeatMillis,
+            @Value("${producer.cluster.session-timeout-millis:5000}") long sessionTimeoutMillis,
+            @Value("${producer.cluster.start-delay-millis:2000}") long startDelayMillis) {
+        this.producerService = producerService;
+        this.channel = channel;
+        this.memberId = memberId == null || memberId.isBlank()
+            ? "producer-" + UUID.randomUUID().toString().substring(0, 8) : memberId;
+        this.heartbeatMillis = Math.max(100, heartbeatMillis);
+        this.sessionTimeoutMillis = Math.max(2 * this.heartbeatMillis, sessionTimeoutMillis);
+        this.startDelayMillis = Math.max(0, startDelayMillis);
+
+        Gauge.builder("producer.cluster.members", this, coordinator -> coordinator.liveMembers().size())
+            .description("Live members of the producer cluster")
+            .register(meterRegistry);
+        Gauge.builder("producer.cluster.leader", this, coordinator -> coordinator.isLeader() ? 1 : 0)
+            .description("1 if this member leads the producer cluster")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        startedAtMillis = System.currentTimeMillis();
+        loop = new Thread(this::run, "cluster-coordinator");
+        loop.setDaemon(true);
+        loop.start();
+        log.info("Cluster member {} starting", memberId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (loop != null) {
+            loop.interrupt();
+            try {
+                loop.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        applier.shutdownNow();
+    }
+
+    /**
+     * Publish a command for the leader; it takes effect on all members with the next assignment.
+     */
+    public void submit(Command.Action action, double aggregateRate, Scenario scenario) {
+        channel.publish(new Command(memberId, UUID.randomUUID().toString(), action, aggregateRate, scenario));
+        log.info("Submitted cluster command {}", action);
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    public boolean isLeader() {
+        List<String> live = liveMembers();
+        return !live.isEmpty() && live.get(0).equals(memberId);
+    }
+
+    public ClusterStatus status() {
+        long now = System.currentTimeMillis();
+        List<String> live = liveMembers();
+        Assignment assignment = latest;
+
+        List<ClusterStatus.MemberStatus> memberStatuses = new ArrayList<>();
+        double target = 0;
+        double effective = 0;
+        double achieved = 0;
+        long sent = 0;
+        long successful = 0;
+        long failed = 0;
+        long throttleEvents = 0;
+        double worstAckP99 = 0;
+        double worstScheduledP99 = 0;
+        for (String id : live) {
+            Member member = members.get(id);
+            ProducerStats stats = member.stats();
+            memberStatuses.add(new ClusterStatus.MemberStatus(id, id.equals(live.get(0)),
+                assignment != null ? assignment.shareOf(id) : 0, now - member.lastSeenMillis(), stats));
+            if (stats == null) {
+                continue;
+            }
+            if (stats.running()) {
+                target += stats.messagesPerSecond() * stats.rateShare();
+                effective += stats.effectiveMessagesPerSecond();
+            }
+            achieved += stats.achievedMessagesPerSecond();
+            sent += stats.messagesSent();
+            successful += stats.messagesSuccessful();
+            failed += stats.messagesFailed();
+            throttleEvents += stats.throttleEvents();
+            worstAckP99 = Math.max(worstAckP99, stats.latency().ack().p99());
+            worstScheduledP99 = Math.max(worstScheduledP99, stats.latency().scheduled().p99());
+        }
+
+        return new ClusterStatus(
+            memberId,
+            live.isEmpty() ? null : live.get(0),
+            assignment != null ? assignment.generation() : 0,
+            assignment != null && assignment.running(),
+            assignment != null && assignment.scenario() != null ? assignment.scenario().name() : null,
+            assignment != null && assignment.running() ? Instant.ofEpochMilli(assignment.startAtMillis()) : null,
+            live.size(),
+            target,
+            effective,
+            achieved,
+            sent,
+            successful,
+            failed,
+            throttleEvents,
+            worstAckP99,
+            worstScheduledP99,
+            memberStatuses);
+    }
+
+    private void run() {
+        while (running && !open()) {
+            sleep(sessionTimeoutMillis);
+        }
+        joinedAtMillis = System.currentTimeMillis();
+        long nextHeartbeat = 0;
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                if (now >= nextHeartbeat) {
+                    heartbeat(now);
+                    nextHeartbeat = now + heartbeatMillis;
+                }
+                for (ControlMessage message : channel.poll(POLL_TIMEOUT)) {
+                    handle(message);
+                }
+                lead(System.currentTimeMillis());
+            } catch (org.apache.kafka.common.errors.InterruptException e) {
+                break;
+            } catch (RuntimeException e) {
+                log.error("Cluster coordination failed: {}", e.getMessage(), e);
+                sleep(heartbeatMillis);
+            }
+        }
+    }
+
+    private boolean open() {
+        try {
+            channel.open();
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Cannot open the control topic, retrying: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void heartbeat(long now) {
+        ProducerStats stats = producerService.getStats();
+        members.put(memberId, new Member(startedAtMillis, now, stats));
+        members.values().removeIf(member -> now - member.lastSeenMillis() > 10 * sessionTimeoutMillis);
+        channel.publish(new Heartbeat(memberId, startedAtMillis, now, stats));
+    }
+
+    private void handle(ControlMessage message) {
+        if (message instanceof Heartbeat heartbeat) {
+            // Receive time rather than the sender's clock, so skew cannot expire members
+            Member previous = members.put(heartbeat.memberId(),
+                new Member(heartbeat.startedAtMillis(), System.currentTimeMillis(), heartbeat.stats()));
+            if (previous == null && !heartbeat.memberId().equals(memberId)) {
+                log.info("Cluster member {} joined", heartbeat.memberId());
+            }
+        } else if (message instanceof Command command) {
+            pendingCommands.add(command);
+        } else if (message instanceof Assignment assignment) {
+            answered(assignment.commandId());
+            accept(assignment);
+        }
+    }
+
+    /**
+     * Forget the commands up to the one an assignment answers. The leader executes commands in
+     * topic order, so the earlier ones have been answered as well.
+     */
+    private void answered(String commandId) {
+        if (commandId == null) {
+            return;
+        }
+        for (int i = 0; i < pendingCommands.size(); i++) {
+            if (pendingCommands.get(i).commandId().equals(commandId)) {
+                pendingCommands.subList(0, i + 1).clear();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Leader duties: execute commands, follow membership changes and end finished scenarios.
+     * Other members keep the commands until an assignment answers them, so a command sent while
+     * the leader is dead but not yet timed out is executed by whichever member takes over.
+     */
+    private void lead(long now) {
+        List<String> live = liveMembers();
+        if (live.isEmpty() || !live.get(0).equals(memberId)) {
+            return;
+        }
+        if (now - joinedAtMillis < sessionTimeoutMillis) {
+            // Keep commands until the members already present have been heard from
+            return;
+        }
+        List<String> ids = live.stream().sorted().toList();
+
+        for (Command command : pendingCommands) {
+            publish(execute(command, ids, now));
+        }
+        pendingCommands.clear();
+
+        Assignment current = latest;
+        if (current == null || !current.running()) {
+            return;
+        }
+        // Members end the scenario on their own; the grace lets them close their last phase first
+        if (current.scenario() != null && now > current.startAtMillis()
+                + TimeUnit.SECONDS.toMillis(current.scenario().durationSeconds()) + sessionTimeoutMillis) {
+            publish(new Assignment(memberId, current.generation() + 1, current.runId(), null, false,
+                current.aggregateRate(), null, 0, ids));
+        } else if (!current.members().equals(ids)) {
+            log.info("Cluster membership changed to {}, rebalancing", ids);
+            publish(new Assignment(memberId, current.generation() + 1, current.runId(), null, true,
+                current.aggregateRate(), current.scenario(), current.startAtMillis(), ids));
+        }
+    }
+
+    private Assignment execute(Command command, List<String> ids, long now) {
+        Assignment current = latest;
+        long generation = current != null ? current.generation() + 1 : 1;
+        boolean active = current != null && current.running();
+        long runId = current != null ? current.runId() : NO_RUN;
+        double rate = current != null ? current.aggregateRate() : 0;
+        String commandId = command.commandId();
+        log.info("Executing cluster command {} from {}", command.action(), command.memberId());
+
+        return switch (command.action()) {
+            case START -> new Assignment(memberId, generation, generation, commandId, true, command.aggregateRate(),
+                null, now + startDelayMillis, ids);
+            case SCENARIO -> new Assignment(memberId, generation, generation, commandId, true, 0, command.scenario(),
+                now + startDelayMillis, ids);
+            // Like a local rate change, this replaces a running scenario with the fixed rate
+            case RATE -> new Assignment(memberId, generation, runId, commandId, active, command.aggregateRate(), null,
+                active ? current.startAtMillis() : 0, ids);
+            case STOP -> new Assignment(memberId, generation, runId, commandId, false, rate, null, 0, ids);
+        };
+    }
+
+    private void publish(Assignment assignment) {
+        channel.publish(assignment);
+        accept(assignment);
+    }
+
+    /**
+     * Take on a new assignment, at its start time if that is still ahead. Assignments are applied
+     * in generation order; one overtaken by a newer one before its start time is dropped.
+     */
+    private void accept(Assignment assignment) {
+        Assignment current = latest;
+        if (current != null && assignment.generation() <= current.generation()) {
+            // Our own assignment coming back, or a stale one
+            return;
+        }
+        latest = assignment;
+        long delay = assignment.running() ? assignment.startAtMillis() - System.currentTimeMillis() : 0;
+        applier.schedule(() -> apply(assignment), Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private void apply(Assignment assignment) {
+        if (latest != assignment) {
+            return;
+        }
+        try {
+            if (!assignment.running()) {
+                if (activeRunId != NO_RUN) {
+                    activeRunId = NO_RUN;
+                    if (producerService.isRunning()) {
+                        producerService.stop();
+                    }
+                }
+                return;
+            }
+
+            double share = assignment.shareOf(memberId);
+            if (assignment.runId() != activeRunId) {
+                activeRunId = assignment.runId();
+                if (producerService.isRunning()) {
+                    producerService.stop();
+                }
+                producerService.resetStats();
+                producerService.setRateShare(share);
+                if (assignment.scenario() != null) {
+                    long elapsed = Math.max(0, System.currentTimeMillis() - assignment.startAtMillis());
+                    producerService.startScenario(assignment.scenario(), Duration.ofMillis(elapsed));
+                } else {
+                    producerService.setMessagesPerSecond((int) Math.round(assignment.aggregateRate()));
+                    producerService.start();
+                }
+                log.info("Cluster run {} started with a share of {} ({} member(s))", activeRunId, share,
+                    assignment.members().size());
+            } else {
+                producerService.setRateShare(share);
+                if (assignment.scenario() == null) {
+                    // Also ends a scenario that a rate command replaced
+                    producerService.setMessagesPerSecond((int) Math.round(assignment.aggregateRate()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Cannot apply cluster assignment {}: {}", assignment.generation(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Members heard from within the session timeout, this one included, oldest first.
+     */
+    private List<String> liveMembers() {
+        long now = System.currentTimeMillis();
+        return members.entrySet().stream()
+            .filter(entry -> entry.getKey().equals(memberId) || now - entry.getValue().lastSeenMillis() <= sessionTimeoutMillis)
+            .sorted(Comparator.<Map.Entry<String, Member>>comparingLong(entry -> entry.getValue().startedAtMillis())
+                .thenComparing(Map.Entry::getKey))
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record Member(long startedAtMillis, long lastSeenMillis, ProducerStats stats) {}
+}
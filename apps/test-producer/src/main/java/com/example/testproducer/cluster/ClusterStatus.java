@@ -0,0 +1,49 @@
+package com.example.testproducer.cluster;
+
+import com.example.testproducer.service.MessageProducerService.ProducerStats;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cluster-wide view built from the members' latest heartbeats. Counts and rates are sums over
+ * the live members; latency percentiles cannot be added up, so the worst member's p99 is given.
+ *
+ * @param generation              generation of the latest assignment, 0 if there is none yet
+ * @param scenario                name of the scenario being run, if any
+ * @param startAt                 when the current run started or starts
+ * @param targetMessagesPerSecond sum of the members' targets
+ */
+public record ClusterStatus(
+        String memberId,
+        String leaderId,
+        long generation,
+        boolean running,
+        String scenario,
+        Instant startAt,
+        int memberCount,
+        double targetMessagesPerSecond,
+        double effectiveMessagesPerSecond,
+        double achievedMessagesPerSecond,
+        long messagesSent,
+        long messagesSuccessful,
+        long messagesFailed,
+        long throttleEvents,
+        double worstAckP99Millis,
+        double worstScheduledP99Millis,
+        List<MemberStatus> members
+) {
+
+    /**
+     * @param share            fraction of the cluster's load assigned to the member
+     * @param heartbeatAgeMillis time since the member's last heartbeat was received
+     * @param stats            the member's statistics as of that heartbeat
+     */
+    public record MemberStatus(
+            String memberId,
+            boolean leader,
+            double share,
+            long heartbeatAgeMillis,
+            ProducerStats stats
+    ) {}
+}
@@ -0,0 +1,121 @@
+package com.example.testproducer.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON {@link ControlMessage}s on the control topic, through a small producer and consumer of
+ * their own so that coordination is not queued behind the load.
+ *
+ * Every record uses the same key and so lands on one partition, whose order all members share.
+ * The consumer has no group: each member reads the whole topic from the position it had when it
+ * {@link #open() opened} the channel.
+ */
+public class ControlChannel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlChannel.class);
+
+    private static final String KEY = "control";
+
+    private final String topic;
+    private final ObjectMapper objectMapper;
+    private final KafkaProducer<String, String> producer;
+    private final KafkaConsumer<String, String> consumer;
+
+    /**
+     * @param clientProperties connection settings (bootstrap servers, security) shared by both clients
+     */
+    public ControlChannel(String topic, String clientId, Map<String, Object> clientProperties, ObjectMapper objectMapper) {
+        this.topic = topic;
+        this.objectMapper = objectMapper;
+
+        Map<String, Object> producerProps = new HashMap<>(clientProperties);
+        producerProps.put(ProducerConfig.CLIENT_ID_CONFIG, clientId + "-control");
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        // Not supported by Event Hub
+        producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        this.producer = new KafkaProducer<>(producerProps);
+
+        Map<String, Object> consumerProps = new HashMap<>(clientProperties);
+        consumerProps.put(ConsumerConfig.CLIENT_ID_CONFIG, clientId + "-control");
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        this.consumer = new KafkaConsumer<>(consumerProps);
+    }
+
+    /**
+     * Start reading at the current end of the topic. Only messages published after this returns
+     * are seen, so call it before announcing the member.
+     */
+    public void open() {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : consumer.partitionsFor(topic)) {
+            partitions.add(new TopicPartition(topic, info.partition()));
+        }
+        if (partitions.isEmpty()) {
+            throw new IllegalStateException("Control topic " + topic + " does not exist");
+        }
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        // Resolve the lazy seek now rather than on the first poll
+        partitions.forEach(consumer::position);
+    }
+
+    public void publish(ControlMessage message) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode " + message.getClass().getSimpleName(), e);
+        }
+        producer.send(new ProducerRecord<>(topic, KEY, json), (metadata, ex) -> {
+            if (ex != null) {
+                log.warn("Failed to publish {} to {}: {}", message.getClass().getSimpleName(), topic, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Messages published since the last poll, in topic order; records that cannot be decoded
+     * are skipped.
+     */
+    public List<ControlMessage> poll(Duration timeout) {
+        List<ControlMessage> messages = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : consumer.poll(timeout)) {
+            try {
+                messages.add(objectMapper.readValue(record.value(), ControlMessage.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping undecodable control record at offset {}: {}", record.offset(), e.getOriginalMessage());
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public void close() {
+        producer.close(Duration.ofSeconds(1));
+        consumer.close(Duration.ofSeconds(1));
+    }
+}
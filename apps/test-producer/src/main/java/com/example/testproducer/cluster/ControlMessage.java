@@ -0,0 +1,68 @@
+package com.example.testproducer.cluster;
+
+import com.example.testproducer.scenario.Scenario;
+import com.example.testproducer.service.MessageProducerService.ProducerStats;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.List;
+
+/**
+ * A record on the control topic. All members read every record in the same order, which is what
+ * makes leader election and assignments consistent across the cluster.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+    @JsonSubTypes.Type(value = ControlMessage.Heartbeat.class, name = "heartbeat"),
+    @JsonSubTypes.Type(value = ControlMessage.Command.class, name = "command"),
+    @JsonSubTypes.Type(value = ControlMessage.Assignment.class, name = "assignment")
+})
+public sealed interface ControlMessage {
+
+    String memberId();
+
+    /**
+     * Sent by every member each heartbeat interval; members that stop sending drop out of the
+     * cluster after the session timeout.
+     *
+     * @param startedAtMillis when the member joined; the oldest live member leads
+     * @param stats           the member's own producer statistics
+     */
+    record Heartbeat(String memberId, long startedAtMillis, long sentAtMillis, ProducerStats stats)
+        implements ControlMessage {}
+
+    /**
+     * A request for the leader, sent by whichever member received it over REST.
+     *
+     * @param commandId     unique id, echoed by the assignment that answers it
+     * @param aggregateRate cluster-wide messages per second for {@code START} and {@code RATE}
+     * @param scenario      the load profile for {@code SCENARIO}
+     */
+    record Command(String memberId, String commandId, Action action, double aggregateRate, Scenario scenario)
+        implements ControlMessage {
+
+        public enum Action { START, RATE, SCENARIO, STOP }
+    }
+
+    /**
+     * The leader's split of the cluster-wide load, published on every change of load or
+     * membership. Each listed member emits an equal share of {@code aggregateRate}, or of the
+     * scenario's rate.
+     *
+     * @param generation    increases with every assignment
+     * @param runId         generation of the assignment that started the current run
+     * @param commandId     the command this assignment answers, or null for a rebalance
+     * @param startAtMillis wall-clock time at which the run starts on all members
+     */
+    record Assignment(String memberId, long generation, long runId, String commandId, boolean running, double aggregateRate,
+                      Scenario scenario, long startAtMillis, List<String> members) implements ControlMessage {
+
+        public Assignment {
+            members = List.copyOf(members);
+        }
+
+        public double shareOf(String member) {
+            return members.contains(member) ? 1.0 / members.size() : 0;
+        }
+    }
+}
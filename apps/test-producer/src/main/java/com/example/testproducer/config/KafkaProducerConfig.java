@@ -1,16 +1,25 @@
 package com.example.testproducer.config;
 
+import com.example.testproducer.cluster.ControlChannel;
+import com.example.testproducer.payload.PassThroughJsonSerializer;
+import com.example.testproducer.sender.ShardedSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -28,12 +37,57 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.properties.sasl.jaas.config:}")
     private String saslJaasConfig;
 
+    @Value("${producer.kafka.max-block-ms:5000}")
+    private long maxBlockMs;
+
+    @Value("${producer.kafka.sender-shards:1}")
+    private int senderShards;
+
+    @Value("${producer.kafka.partition-refresh-ms:60000}")
+    private long partitionRefreshMs;
+
+    @Value("${spring.application.name:test-producer}")
+    private String applicationName;
+
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
+        return createProducerFactory(0, meterRegistry);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Send path of the producer: the {@code kafkaTemplate} bean as shard 0, plus one more
+     * producer per additional shard.
+     */
+    @Bean
+    public ShardedSender shardedSender(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        List<KafkaTemplate<String, Object>> shards = new ArrayList<>();
+        shards.add(kafkaTemplate);
+        for (int shard = 1; shard < senderShards; shard++) {
+            shards.add(new KafkaTemplate<>(createProducerFactory(shard, meterRegistry)));
+        }
+        return new ShardedSender(shards, partitionRefreshMs);
+    }
+
+    /**
+     * Control topic clients for coordinating several producer replicas.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "producer.cluster.enabled", havingValue = "true")
+    public ControlChannel controlChannel(ObjectMapper objectMapper,
+                                         @Value("${producer.cluster.control-topic:test-producer-control}") String controlTopic) {
+        return new ControlChannel(controlTopic, applicationName, connectionProperties(), objectMapper);
+    }
+
+    private ProducerFactory<String, Object> createProducerFactory(int shard, MeterRegistry meterRegistry) {
+        Map<String, Object> configProps = connectionProperties();
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // JSON for AccountMessage values; pre-rendered byte[] payloads go through unchanged
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PassThroughJsonSerializer.class);
         
         // Don't add type info headers - let consumer use its own target type
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
@@ -44,6 +98,9 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB buffer
         configProps.put(ProducerConfig.ACKS_CONFIG, "1"); // Leader ack only for speed
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        // Fail sends after this long on a full buffer rather than stalling an emitter for the
+        // client default of 60s; backpressure control lowers the rate well before that
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
         
         // Azure Event Hub compatibility settings
         // - Do NOT use lz4 compression (not supported), use gzip or none
@@ -52,19 +109,30 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
         // - Set max in-flight requests to avoid ordering issues
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
-        
+
+        // Distinct client ids keep the shards apart in broker quotas and in the kafka.producer.* metrics
+        if (senderShards > 1) {
+            configProps.put(ProducerConfig.CLIENT_ID_CONFIG, applicationName + "-shard-" + shard);
+        }
+
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps);
+
+        // Expose native Kafka producer metrics (batch size, records per request, request latency, ...)
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+
+        return factory;
+    }
+
+    private Map<String, Object> connectionProperties() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
         // Azure Event Hub security settings
         if (saslJaasConfig != null && !saslJaasConfig.isEmpty()) {
             configProps.put("security.protocol", securityProtocol);
             configProps.put("sasl.mechanism", saslMechanism);
             configProps.put("sasl.jaas.config", saslJaasConfig);
         }
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
-    @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        return configProps;
     }
 }
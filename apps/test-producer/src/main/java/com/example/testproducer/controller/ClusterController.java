@@ -0,0 +1,128 @@
+package com.example.testproducer.controller;
+
+import com.example.testproducer.cluster.ClusterCoordinator;
+import com.example.testproducer.cluster.ClusterStatus;
+import com.example.testproducer.cluster.ControlMessage.Command.Action;
+import com.example.testproducer.scenario.Scenario;
+import com.example.testproducer.scenario.ScenarioLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cluster")
+@ConditionalOnProperty(name = "producer.cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterController.class);
+
+    private final ClusterCoordinator coordinator;
+    private final ScenarioLoader scenarioLoader;
+
+    @Value("${producer.max-messages-per-second:1000000}")
+    private int maxMessagesPerSecond;
+
+    public ClusterController(ClusterCoordinator coordinator, ScenarioLoader scenarioLoader) {
+        this.coordinator = coordinator;
+        this.scenarioLoader = scenarioLoader;
+    }
+
+    /**
+     * Start all members at a cluster-wide rate
+     */
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start(@RequestParam int messagesPerSecond) {
+        validateRate(messagesPerSecond);
+        log.info("Received request to start the cluster at {} messages/second", messagesPerSecond);
+        coordinator.submit(Action.START, messagesPerSecond, null);
+        return ResponseEntity.accepted().body(Map.of(
+                "status", "start_requested",
+                "messagesPerSecond", messagesPerSecond
+        ));
+    }
+
+    /**
+     * Stop all members
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, String>> stop() {
+        log.info("Received request to stop the cluster");
+        coordinator.submit(Action.STOP, 0, null);
+        return ResponseEntity.accepted().body(Map.of("status", "stop_requested"));
+    }
+
+    /**
+     * Change the cluster-wide rate, replacing a running scenario
+     */
+    @PostMapping("/rate")
+    public ResponseEntity<Map<String, Object>> setRate(@RequestParam int messagesPerSecond) {
+        validateRate(messagesPerSecond);
+        log.info("Received request to change the cluster rate to {} messages/second", messagesPerSecond);
+        coordinator.submit(Action.RATE, messagesPerSecond, null);
+        return ResponseEntity.accepted().body(Map.of(
+                "status", "rate_requested",
+                "messagesPerSecond", messagesPerSecond
+        ));
+    }
+
+    /**
+     * Run a load profile posted as YAML or JSON across all members
+     */
+    @PostMapping("/scenario/start")
+    public ResponseEntity<Map<String, String>> startScenario(@RequestBody String document) {
+        return startScenario(scenarioLoader.parse(document));
+    }
+
+    /**
+     * Run a bundled or configured load profile by name across all members
+     */
+    @PostMapping("/scenario/start/{name}")
+    public ResponseEntity<Map<String, String>> startNamedScenario(@PathVariable String name) {
+        return startScenario(scenarioLoader.load(name));
+    }
+
+    /**
+     * Get the cluster-wide report: leader, assignment, totals and each member's statistics
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ClusterStatus> status() {
+        return ResponseEntity.ok(coordinator.status());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    private ResponseEntity<Map<String, String>> startScenario(Scenario scenario) {
+        if (scenario.peakRate() > clusterLimit()) {
+            throw new IllegalArgumentException("Scenario peaks at " + Math.round(scenario.peakRate())
+                    + " messages per second, above the cluster limit of " + clusterLimit());
+        }
+        log.info("Received request to start scenario '{}' on the cluster", scenario.name());
+        coordinator.submit(Action.SCENARIO, 0, scenario);
+        return ResponseEntity.accepted().body(Map.of(
+                "status", "scenario_requested",
+                "scenario", scenario.name()
+        ));
+    }
+
+    private void validateRate(int messagesPerSecond) {
+        if (messagesPerSecond < 1 || messagesPerSecond > clusterLimit()) {
+            throw new IllegalArgumentException("Rate must be between 1 and " + clusterLimit()
+                    + " messages per second");
+        }
+    }
+
+    /**
+     * The per-member limit times the live members.
+     */
+    private long clusterLimit() {
+        return (long) maxMessagesPerSecond * Math.max(1, coordinator.status().memberCount());
+    }
+}
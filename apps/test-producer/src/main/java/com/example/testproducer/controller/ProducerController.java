@@ -1,9 +1,15 @@
 package com.example.testproducer.controller;
 
+import com.example.testproducer.replay.ReplayStatus;
+import com.example.testproducer.replay.TrafficReplayer;
+import com.example.testproducer.scenario.Scenario;
+import com.example.testproducer.scenario.ScenarioLoader;
+import com.example.testproducer.scenario.ScenarioStatus;
 import com.example.testproducer.service.MessageProducerService;
 import com.example.testproducer.service.MessageProducerService.ProducerStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,9 +22,17 @@ public class ProducerController {
     private static final Logger log = LoggerFactory.getLogger(ProducerController.class);
 
     private final MessageProducerService producerService;
+    private final ScenarioLoader scenarioLoader;
+    private final TrafficReplayer trafficReplayer;
 
-    public ProducerController(MessageProducerService producerService) {
+    @Value("${producer.max-messages-per-second:1000000}")
+    private int maxMessagesPerSecond;
+
+    public ProducerController(MessageProducerService producerService, ScenarioLoader scenarioLoader,
+                              TrafficReplayer trafficReplayer) {
         this.producerService = producerService;
+        this.scenarioLoader = scenarioLoader;
+        this.trafficReplayer = trafficReplayer;
     }
 
     /**
@@ -63,9 +77,9 @@ public class ProducerController {
      */
     @PostMapping("/rate")
     public ResponseEntity<Map<String, Object>> setRate(@RequestParam int messagesPerSecond) {
-        if (messagesPerSecond < 1 || messagesPerSecond > 10000) {
+        if (messagesPerSecond < 1 || messagesPerSecond > maxMessagesPerSecond) {
             return ResponseEntity.badRequest().body(Map.of(
-                    "error", "Rate must be between 1 and 10000 messages per second"
+                    "error", "Rate must be between 1 and " + maxMessagesPerSecond + " messages per second"
             ));
         }
         log.info("Updating rate to {} messages/second", messagesPerSecond);
@@ -85,5 +99,84 @@ public class ProducerController {
         producerService.resetStats();
         return ResponseEntity.ok(Map.of("status", "stats_reset"));
     }
-}
 
+    /**
+     * Start a load profile posted as YAML or JSON
+     */
+    @PostMapping("/scenario/start")
+    public ResponseEntity<ScenarioStatus> startScenario(@RequestBody String document) {
+        return startScenario(scenarioLoader.parse(document));
+    }
+
+    /**
+     * Start a bundled or configured load profile by name
+     */
+    @PostMapping("/scenario/start/{name}")
+    public ResponseEntity<ScenarioStatus> startNamedScenario(@PathVariable String name) {
+        return startScenario(scenarioLoader.load(name));
+    }
+
+    /**
+     * Stop the running scenario and the producer
+     */
+    @PostMapping("/scenario/stop")
+    public ResponseEntity<Map<String, String>> stopScenario() {
+        log.info("Received request to stop scenario");
+        producerService.stopScenario();
+        return ResponseEntity.ok(Map.of("status", "scenario_stopped"));
+    }
+
+    /**
+     * Get progress and per-phase statistics of the current or last scenario
+     */
+    @GetMapping("/scenario")
+    public ResponseEntity<ScenarioStatus> scenario() {
+        ScenarioStatus status = producerService.getStats().scenario();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Replay captured traffic, optionally from a named capture and at a given speed (0 = as fast as possible)
+     */
+    @PostMapping("/replay/start")
+    public ResponseEntity<ReplayStatus> startReplay(@RequestParam(required = false) String capture,
+                                                    @RequestParam(required = false) Double speed) {
+        log.info("Received request to replay capture '{}'", capture != null ? capture : "");
+        return ResponseEntity.ok(trafficReplayer.start(capture, speed));
+    }
+
+    /**
+     * Stop the running replay
+     */
+    @PostMapping("/replay/stop")
+    public ResponseEntity<ReplayStatus> stopReplay() {
+        log.info("Received request to stop replay");
+        trafficReplayer.stop();
+        ReplayStatus status = trafficReplayer.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Get progress of the current or last replay
+     */
+    @GetMapping("/replay")
+    public ResponseEntity<ReplayStatus> replay() {
+        ReplayStatus status = trafficReplayer.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    private ResponseEntity<ScenarioStatus> startScenario(Scenario scenario) {
+        if (scenario.peakRate() > maxMessagesPerSecond) {
+            throw new IllegalArgumentException("Scenario peaks at " + Math.round(scenario.peakRate())
+                    + " messages per second, above the limit of " + maxMessagesPerSecond);
+        }
+        log.info("Received request to start scenario '{}'", scenario.name());
+        producerService.startScenario(scenario);
+        return ResponseEntity.ok(producerService.getStats().scenario());
+    }
+}
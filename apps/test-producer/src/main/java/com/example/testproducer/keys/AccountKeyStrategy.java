@@ -0,0 +1,136 @@
+package com.example.testproducer.keys;
+
+import com.example.testproducer.service.RandomDataGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the account, and so the Kafka key, of each message.
+ *
+ * <ul>
+ *   <li>{@code unique}: a new random account per message, spreading load evenly over partitions.</li>
+ *   <li>{@code uniform}: one of {@code cardinality} accounts, each equally likely.</li>
+ *   <li>{@code zipf}: one of {@code cardinality} accounts, ranked by popularity with
+ *       {@code zipf-exponent}, so a few accounts (and their partitions) are hot.</li>
+ * </ul>
+ *
+ * With {@code session-count} above zero, each emitter thread keeps that many simulated sessions,
+ * each sticking to one account for {@code session-length} messages before picking the next, so
+ * runs of same-key messages interleave as they would from concurrent users.
+ *
+ * Account {@code i} always has the same account number, and distinct accounts never share one.
+ * Randomness comes from {@link RandomDataGenerator#threadRandom()}, so a seeded run also repeats
+ * its keys.
+ */
+@Component
+public class AccountKeyStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountKeyStrategy.class);
+
+    public enum Distribution { UNIQUE, UNIFORM, ZIPF }
+
+    private final RandomDataGenerator randomDataGenerator;
+    private final Distribution distribution;
+    private final int cardinality;
+    private final ZipfSampler zipf;
+    private final int sessionCount;
+    private final int sessionLength;
+    private final int[] partitions;
+    private final ThreadLocal<Sessions> sessions;
+
+    public AccountKeyStrategy(
+            RandomDataGenerator randomDataGenerator,
+            @Value("${producer.keys.distribution:unique}") String distribution,
+            @Value("${producer.keys.cardinality:100000}") int cardinality,
+            @Value("${producer.keys.zipf-exponent:1.0}") double zipfExponent,
+            @Value("${producer.keys.session-count:0}") int sessionCount,
+            @Value("${producer.keys.session-length:20}") int sessionLength,
+            @Value("${producer.keys.partitions:}") List<Integer> partitions) {
+        this.randomDataGenerator = randomDataGenerator;
+        this.distribution = Distribution.valueOf(distribution.trim().toUpperCase(Locale.ROOT));
+        this.cardinality = Math.max(1, cardinality);
+        this.zipf = this.distribution == Distribution.ZIPF ? new ZipfSampler(this.cardinality, zipfExponent) : null;
+        this.sessionCount = this.distribution == Distribution.UNIQUE ? 0 : Math.max(0, sessionCount);
+        this.sessionLength = Math.max(1, sessionLength);
+        this.partitions = partitions.stream().mapToInt(Integer::intValue).toArray();
+        this.sessions = ThreadLocal.withInitial(() -> new Sessions(this.sessionCount));
+
+        log.info("Key strategy: {} over {} accounts (zipf exponent {}), {} session(s) of {} message(s), partitions {}",
+                this.distribution, this.distribution == Distribution.UNIQUE ? "unbounded" : this.cardinality,
+                zipfExponent, this.sessionCount, this.sessionLength,
+                this.partitions.length > 0 ? Arrays.toString(this.partitions) : "by key");
+    }
+
+    /**
+     * Account number for the next message, or null to let the generator make up a new one.
+     */
+    public String nextAccountNumber() {
+        if (distribution == Distribution.UNIQUE) {
+            return null;
+        }
+        SplittableRandom random = randomDataGenerator.threadRandom();
+        if (sessionCount == 0) {
+            return accountNumber(nextAccount(random));
+        }
+
+        Sessions threadSessions = sessions.get();
+        int slot = random.nextInt(sessionCount);
+        if (threadSessions.remaining[slot] == 0) {
+            threadSessions.account[slot] = nextAccount(random);
+            threadSessions.remaining[slot] = sessionLength;
+        }
+        threadSessions.remaining[slot]--;
+        return accountNumber(threadSessions.account[slot]);
+    }
+
+    /**
+     * Explicit partition for a key, or null to leave it to the Kafka partitioner. Keys map to the
+     * configured partitions by hash, so per-key ordering holds; listing a partition more than once
+     * gives it a proportionally larger share.
+     */
+    public Integer partitionFor(String key) {
+        if (partitions.length == 0) {
+            return null;
+        }
+        return partitions[Math.floorMod(key.hashCode(), partitions.length)];
+    }
+
+    private int nextAccount(SplittableRandom random) {
+        return zipf != null ? zipf.sample(random) - 1 : random.nextInt(cardinality);
+    }
+
+    private static String accountNumber(int account) {
+        // Offset so that the hottest account is not ACC-00000000
+        return RandomDataGenerator.formatAccountNumber(mix32(account + 1));
+    }
+
+    /**
+     * MurmurHash3's 32-bit finalizer: a bijection, so distinct accounts get distinct numbers
+     * that still look random.
+     */
+    private static int mix32(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static final class Sessions {
+        final int[] account;
+        final int[] remaining;
+
+        Sessions(int count) {
+            this.account = new int[count];
+            this.remaining = new int[count];
+        }
+    }
+}
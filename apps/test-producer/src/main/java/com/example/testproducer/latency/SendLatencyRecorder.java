@@ -0,0 +1,120 @@
+package com.example.testproducer.latency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acknowledgement latency of sends, in two views:
+ * <ul>
+ *   <li>{@code ack}: from the {@code send()} call to its completion, i.e. producer queuing plus
+ *       the broker round trip;</li>
+ *   <li>{@code scheduled}: from the moment the emission schedule intended the send to its
+ *       completion, which also counts the time the send waited for a late or blocked emitter and
+ *       so is not hidden by coordinated omission.</li>
+ * </ul>
+ * Each view goes into an HdrHistogram {@link Recorder} covering the current run, which
+ * {@link #reset()} starts afresh, and into a Micrometer timer with published percentiles.
+ */
+@Component
+public class SendLatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final View ack;
+    private final View scheduled;
+
+    public SendLatencyRecorder(MeterRegistry meterRegistry) {
+        this.ack = new View(Timer.builder("producer.send.latency")
+            .description("Time from send() to broker acknowledgement")
+            .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+            .register(meterRegistry));
+        this.scheduled = new View(Timer.builder("producer.send.latency.scheduled")
+            .description("Time from the intended send time to broker acknowledgement, corrected for coordinated omission")
+            .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+            .register(meterRegistry));
+    }
+
+    /**
+     * Record an acknowledged send; all times are {@link System#nanoTime()} values.
+     */
+    public void record(long intendedNanos, long sendNanos, long ackNanos) {
+        ack.record(ackNanos - sendNanos);
+        scheduled.record(ackNanos - Math.min(intendedNanos, sendNanos));
+    }
+
+    /**
+     * Start a new run, discarding the histograms of the previous one.
+     */
+    public synchronized void reset() {
+        ack.reset();
+        scheduled.reset();
+    }
+
+    /**
+     * Percentiles of the current run so far.
+     */
+    public synchronized LatencyStats snapshot() {
+        return new LatencyStats(ack.snapshot(), scheduled.snapshot());
+    }
+
+    /**
+     * @param ack       from {@code send()} to acknowledgement
+     * @param scheduled from the intended send time to acknowledgement
+     */
+    public record LatencyStats(Percentiles ack, Percentiles scheduled) {}
+
+    /**
+     * Latency percentiles in milliseconds.
+     */
+    public record Percentiles(long count, double p50, double p90, double p99, double p999, double max) {
+
+        static Percentiles of(Histogram histogram) {
+            return new Percentiles(
+                histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    private static final class View {
+        final Timer timer;
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram run = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        Histogram interval;
+
+        View(Timer timer) {
+            this.timer = timer;
+        }
+
+        void record(long nanos) {
+            long micros = Math.min(Math.max(0, nanos / 1000), HIGHEST_TRACKABLE_MICROS);
+            recorder.recordValue(micros);
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void reset() {
+            interval = recorder.getIntervalHistogram(interval);
+            run.reset();
+        }
+
+        Percentiles snapshot() {
+            // Fold what was recorded since the last snapshot into the run histogram
+            interval = recorder.getIntervalHistogram(interval);
+            run.add(interval);
+            return Percentiles.of(run);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.testproducer.payload;
+
+import com.example.testproducer.model.AccountMessage;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Renders account messages straight into a reusable per-thread byte array instead of building an
+ * {@link AccountMessage} and serializing it.
+ *
+ * The template is serialized once by {@link JsonSerializer} from a message holding placeholders,
+ * so field names and order always match the regular path. Each string field gets a fixed-width
+ * slot sized for the longest value the generator produces. Shorter values are followed by spaces
+ * after the closing quote, which JSON allows between tokens, so every field is patched at a fixed
+ * offset and the payload has a fixed length. {@code producerTs} is written like Jackson writes an
+ * {@link Instant}: seconds with nine decimals.
+ *
+ * The returned array is reused by the next {@link #render} on the same thread, so it must be
+ * handed to {@code KafkaProducer.send} first; the producer copies it into its batch during the call.
+ */
+public class AccountPayloadTemplate {
+
+    private static final long PLACEHOLDER_SECONDS = 4_444_444_444L;
+    private static final int PLACEHOLDER_NANOS = 444_444_444;
+    private static final int SECONDS_DIGITS = 10;
+    private static final int NANOS_DIGITS = 9;
+
+    private final byte[] template;
+    private final Slot firstName;
+    private final Slot lastName;
+    private final Slot accountNumber;
+    private final Slot accountAction;
+    private final int producerTsOffset;
+    private final ThreadLocal<byte[]> buffers;
+
+    public AccountPayloadTemplate(int firstNameWidth, int lastNameWidth, int accountNumberWidth, int accountActionWidth) {
+        AccountMessage prototype = new AccountMessage(
+                "1".repeat(firstNameWidth),
+                "2".repeat(lastNameWidth),
+                "3".repeat(accountNumberWidth),
+                "5".repeat(accountActionWidth),
+                Instant.ofEpochSecond(PLACEHOLDER_SECONDS, PLACEHOLDER_NANOS));
+        try (JsonSerializer<AccountMessage> serializer = new JsonSerializer<>()) {
+            this.template = serializer.serialize(null, prototype);
+        }
+
+        this.firstName = new Slot(offsetOf('"' + prototype.getFirstName() + '"') + 1, firstNameWidth);
+        this.lastName = new Slot(offsetOf('"' + prototype.getLastName() + '"') + 1, lastNameWidth);
+        this.accountNumber = new Slot(offsetOf('"' + prototype.getAccountNumber() + '"') + 1, accountNumberWidth);
+        this.accountAction = new Slot(offsetOf('"' + prototype.getAccountAction() + '"') + 1, accountActionWidth);
+        this.producerTsOffset = offsetOf(PLACEHOLDER_SECONDS + "." + PLACEHOLDER_NANOS);
+        this.buffers = ThreadLocal.withInitial(() -> Arrays.copyOf(template, template.length));
+    }
+
+    /**
+     * The payload for these values, or null if one of them does not fit its slot (too long or
+     * not ASCII), in which case the caller should fall back to serializing a message.
+     */
+    public byte[] render(String first, String last, String account, String action, Instant producerTs) {
+        if (!firstName.fits(first) || !lastName.fits(last) || !accountNumber.fits(account)
+                || !accountAction.fits(action) || producerTs.getEpochSecond() >= 10_000_000_000L
+                || producerTs.getEpochSecond() < 1_000_000_000L) {
+            return null;
+        }
+        byte[] buffer = buffers.get();
+        firstName.write(buffer, first);
+        lastName.write(buffer, last);
+        accountNumber.write(buffer, account);
+        accountAction.write(buffer, action);
+        writeDigits(buffer, producerTsOffset, producerTs.getEpochSecond(), SECONDS_DIGITS);
+        writeDigits(buffer, producerTsOffset + SECONDS_DIGITS + 1, producerTs.getNano(), NANOS_DIGITS);
+        return buffer;
+    }
+
+    public int length() {
+        return template.length;
+    }
+
+    private int offsetOf(String placeholder) {
+        byte[] needle = placeholder.getBytes(StandardCharsets.US_ASCII);
+        outer:
+        for (int i = 0; i <= template.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (template[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalStateException("Placeholder " + placeholder + " not found in "
+                + new String(template, StandardCharsets.UTF_8));
+    }
+
+    private static void writeDigits(byte[] buffer, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * A string value's position: {@code width} bytes for the value, then its closing quote, which
+     * moves left for shorter values with spaces after it.
+     */
+    private record Slot(int offset, int width) {
+
+        boolean fits(String value) {
+            if (value.length() > width) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                // Printable ASCII that JSON strings carry unescaped
+                if (c < 0x20 || c > 0x7E || c == '"' || c == '\\') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void write(byte[] buffer, String value) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                buffer[offset + i] = (byte) value.charAt(i);
+            }
+            buffer[offset + length] = '"';
+            Arrays.fill(buffer, offset + length + 1, offset + width + 1, (byte) ' ');
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.testproducer.payload;
+
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Value serializer that sends {@code byte[]} values as they are, without copying, and serializes
+ * everything else as JSON. Lets pre-rendered payloads from {@link AccountPayloadTemplate} share a
+ * producer with regular {@code AccountMessage} sends.
+ */
+public class PassThroughJsonSerializer extends JsonSerializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        return super.serialize(topic, headers, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        return super.serialize(topic, data);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.testproducer.replay;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads the capture segments written by test-consumer's {@code CaptureSegmentWriter}, straight
+ * from read-only mappings of the files.
+ *
+ * A segment is [int magic "TCAP"][int version] followed by frames of [int length][payload], a zero
+ * length ending the segment. The payload is [long timestamp][int partition][int keyLength][key]
+ * [int headerCount]([int nameLength][name][int valueLength][value])*[int valueLength][value],
+ * big-endian, with -1 lengths for nulls. Values are copied out as raw bytes and never decoded.
+ *
+ * Frames are addressed by a position of {@code segment index << 32 | offset}, so they can be
+ * queued and read back in a different order.
+ */
+class CaptureReader {
+
+    static final int MAGIC = 0x54434150;
+    static final int VERSION = 1;
+
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "capture-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final List<ByteBuffer> segments;
+    private final long totalBytes;
+
+    // Sequential cursor
+    private int segment;
+    private int offset = SEGMENT_HEADER_BYTES;
+    private long position = -1;
+
+    private CaptureReader(List<ByteBuffer> segments, long totalBytes) {
+        this.segments = segments;
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * Map all capture segments in {@code directory}, in the order they were written.
+     */
+    static CaptureReader open(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No capture segments in " + directory);
+        }
+
+        List<ByteBuffer> segments = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (mapped.limit() < SEGMENT_HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                    throw new IllegalArgumentException(file + " is not a capture segment");
+                }
+                if (mapped.getInt(4) != VERSION) {
+                    throw new IllegalArgumentException(file + " has unsupported capture version " + mapped.getInt(4));
+                }
+                segments.add(mapped);
+                totalBytes += mapped.limit();
+            }
+        }
+        return new CaptureReader(segments, totalBytes);
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Advance the cursor to the next frame; false at the end of the capture.
+     */
+    boolean next() {
+        while (segment < segments.size()) {
+            ByteBuffer buffer = segments.get(segment);
+            if (offset + 4 <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (length > 0 && offset + 4 + length <= buffer.limit()) {
+                    position = ((long) segment << 32) | offset;
+                    offset += 4 + length;
+                    return true;
+                }
+            }
+            segment++;
+            offset = SEGMENT_HEADER_BYTES;
+        }
+        return false;
+    }
+
+    /**
+     * Position of the frame under the cursor.
+     */
+    long position() {
+        return position;
+    }
+
+    long timestamp(long position) {
+        return buffer(position).getLong(payload(position));
+    }
+
+    /**
+     * Decode the frame at {@code position} into {@code frame}.
+     */
+    void read(long position, Frame frame) {
+        ByteBuffer buffer = buffer(position);
+        int at = payload(position);
+        frame.timestamp = buffer.getLong(at);
+        frame.partition = buffer.getInt(at + 8);
+        at += 12;
+
+        int keyLength = buffer.getInt(at);
+        at += 4;
+        frame.key = keyLength >= 0 ? new String(bytes(buffer, at, keyLength), StandardCharsets.UTF_8) : null;
+        at += Math.max(0, keyLength);
+
+        int headerCount = buffer.getInt(at);
+        at += 4;
+        frame.headers = new RecordHeaders();
+        for (int i = 0; i < headerCount; i++) {
+            int nameLength = buffer.getInt(at);
+            String name = new String(bytes(buffer, at + 4, nameLength), StandardCharsets.UTF_8);
+            at += 4 + nameLength;
+            int valueLength = buffer.getInt(at);
+            frame.headers.add(name, valueLength >= 0 ? bytes(buffer, at + 4, valueLength) : null);
+            at += 4 + Math.max(0, valueLength);
+        }
+
+        int valueLength = buffer.getInt(at);
+        frame.value = valueLength >= 0 ? bytes(buffer, at + 4, valueLength) : null;
+    }
+
+    private ByteBuffer buffer(long position) {
+        return segments.get((int) (position >>> 32));
+    }
+
+    private static int payload(long position) {
+        return (int) position + 4;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int at, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(at, bytes);
+        return bytes;
+    }
+
+    /**
+     * A captured record, reused from frame to frame.
+     */
+    static final class Frame {
+        long timestamp;
+        int partition;
+        String key;
+        Headers headers;
+        byte[] value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.testproducer.replay;
+
+import java.time.Instant;
+
+/**
+ * Progress of the current or last replay of a capture.
+ *
+ * @param speed         playback speed multiplier, or 0 for as fast as possible
+ * @param capturedSpan  time between the first and the last record replayed so far, as captured
+ * @param lagMillis     how far the last send was behind its scheduled time
+ * @param error         why the replay failed, if it did
+ */
+public record ReplayStatus(
+        String capture,
+        TrafficReplayer.State state,
+        double speed,
+        Instant startedAt,
+        double elapsedSeconds,
+        double capturedSpanSeconds,
+        long recordsSent,
+        long recordsSuccessful,
+        long recordsFailed,
+        long bytesSent,
+        double achievedRate,
+        double lagMillis,
+        String error
+) {}
@@ -0,0 +1,79 @@
+package com.example.testproducer.replay;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap of (timestamp, frame position) pairs in primitive arrays, used to put captured frames
+ * back into timestamp order without materializing them.
+ */
+final class TimestampQueue {
+
+    private long[] timestamps = new long[1024];
+    private long[] positions = new long[1024];
+    private int size;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long peekTimestamp() {
+        return timestamps[0];
+    }
+
+    void add(long timestamp, long position) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        int i = size++;
+        // Ties keep capture order, since positions grow through the capture
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(timestamp, position, timestamps[parent], positions[parent])) {
+                break;
+            }
+            timestamps[i] = timestamps[parent];
+            positions[i] = positions[parent];
+            i = parent;
+        }
+        timestamps[i] = timestamp;
+        positions[i] = position;
+    }
+
+    /**
+     * Remove the earliest entry and return its position.
+     */
+    long poll() {
+        long result = positions[0];
+        size--;
+        long timestamp = timestamps[size];
+        long position = positions[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(timestamps[child + 1], positions[child + 1], timestamps[child], positions[child])) {
+                child++;
+            }
+            if (!less(timestamps[child], positions[child], timestamp, position)) {
+                break;
+            }
+            timestamps[i] = timestamps[child];
+            positions[i] = positions[child];
+            i = child;
+        }
+        timestamps[i] = timestamp;
+        positions[i] = position;
+        return result;
+    }
+
+    private static boolean less(long timestamp, long position, long otherTimestamp, long otherPosition) {
+        return timestamp < otherTimestamp || (timestamp == otherTimestamp && position < otherPosition);
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.testproducer.replay;
+
+import com.example.testproducer.sender.ShardedSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Replays traffic captured by test-consumer ({@code capture.enabled}) to a topic, keeping the
+ * captured inter-arrival times scaled by a speed multiplier, or as fast as the producer takes it.
+ *
+ * Records are read straight from the mapped capture segments: key, headers and the raw value bytes
+ * are sent as captured and the value is never decoded. Since the consumer captures partitions as
+ * they are polled, the capture is only ordered per partition; a {@code reorder-window-ms} of
+ * look-ahead restores timestamp order across partitions before scheduling.
+ *
+ * Records are re-partitioned by key on the target topic unless {@code preserve-partitions} is set,
+ * and get a fresh timestamp.
+ */
+@Component
+public class TrafficReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficReplayer.class);
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    public enum State { RUNNING, COMPLETED, STOPPED, FAILED }
+
+    private final ShardedSender sender;
+    private final Path directory;
+    private final String topic;
+    private final double defaultSpeed;
+    private final long reorderWindowMillis;
+    private final boolean preservePartitions;
+
+    private final Counter recordsCounter;
+    private final Counter bytesCounter;
+
+    private Run run;
+
+    public TrafficReplayer(
+            ShardedSender sender,
+            MeterRegistry meterRegistry,
+            @Value("${producer.replay.directory:./capture}") String directory,
+            @Value("${producer.replay.topic:${producer.topic}}") String topic,
+            @Value("${producer.replay.speed:1.0}") double defaultSpeed,
+            @Value("${producer.replay.reorder-window-ms:1000}") long reorderWindowMillis,
+            @Value("${producer.replay.preserve-partitions:false}") boolean preservePartitions) {
+        this.sender = sender;
+        this.directory = Path.of(directory);
+        this.topic = topic;
+        this.defaultSpeed = defaultSpeed;
+        this.reorderWindowMillis = reorderWindowMillis;
+        this.preservePartitions = preservePartitions;
+
+        this.recordsCounter = Counter.builder("producer.replay.records")
+            .description("Captured records replayed")
+            .register(meterRegistry);
+        this.bytesCounter = Counter.builder("producer.replay.bytes")
+            .description("Value bytes of captured records replayed")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("producer.replay.lag", this, replayer -> replayer.lagMillis())
+            .description("How far the replay is behind the captured timing")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Start replaying a capture.
+     *
+     * @param capture subdirectory of the replay directory holding the capture, or null for the
+     *                replay directory itself
+     * @param speed   speed multiplier, 0 for as fast as possible, or null for the configured default
+     */
+    public synchronized ReplayStatus start(String capture, Double speed) {
+        if (run != null && run.state == State.RUNNING) {
+            throw new IllegalArgumentException("A replay is already running; stop it first");
+        }
+        double playbackSpeed = speed != null ? speed : defaultSpeed;
+        if (Double.isNaN(playbackSpeed) || playbackSpeed < 0) {
+            throw new IllegalArgumentException("Speed must be 0 (as fast as possible) or a positive multiplier");
+        }
+        Path source = directory;
+        if (capture != null && !capture.isBlank()) {
+            if (!NAME.matcher(capture).matches() || capture.startsWith(".")) {
+                throw new IllegalArgumentException("Invalid capture name: " + capture);
+            }
+            source = directory.resolve(capture);
+        }
+        if (!Files.isDirectory(source)) {
+            throw new IllegalArgumentException("Capture not found: " + source);
+        }
+
+        CaptureReader reader;
+        try {
+            reader = CaptureReader.open(source);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read capture " + source + ": " + e.getMessage(), e);
+        }
+        run = new Run(source.toString(), reader, playbackSpeed);
+        Thread thread = new Thread(run, "traffic-replay");
+        thread.setDaemon(true);
+        run.thread = thread;
+        thread.start();
+        log.info("Replaying {} segment(s), {} MB, from {} to topic {} at {}", reader.segmentCount(),
+            reader.totalBytes() >> 20, source, topic, playbackSpeed > 0 ? playbackSpeed + "x" : "full speed");
+        return run.status();
+    }
+
+    /**
+     * Stop the running replay, if any.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (run == null || run.state != State.RUNNING) {
+            return;
+        }
+        run.stopRequested = true;
+        run.thread.interrupt();
+        try {
+            run.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Status of the current or last replay, or null if none has run.
+     */
+    public synchronized ReplayStatus status() {
+        return run != null ? run.status() : null;
+    }
+
+    private double lagMillis() {
+        Run current = run;
+        return current != null && current.state == State.RUNNING ? current.lagNanos / 1e6 : 0;
+    }
+
+    private final class Run implements Runnable {
+
+        final String capture;
+        final CaptureReader reader;
+        final double speed;
+        final Instant startedAt = Instant.now();
+        final long startNanos = System.nanoTime();
+
+        final LongAdder successful = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        Thread thread;
+        volatile boolean stopRequested;
+        volatile State state = State.RUNNING;
+        volatile long endNanos;
+        volatile long sent;
+        volatile long bytes;
+        volatile long firstTimestamp = Long.MIN_VALUE;
+        volatile long lastTimestamp;
+        volatile long lagNanos;
+        volatile String error;
+
+        Run(String capture, CaptureReader reader, double speed) {
+            this.capture = capture;
+            this.reader = reader;
+            this.speed = speed;
+        }
+
+        @Override
+        public void run() {
+            try {
+                replay();
+                state = stopRequested ? State.STOPPED : State.COMPLETED;
+                log.info("Replay of {} {}: {} record(s) sent", capture, state.name().toLowerCase(), sent);
+            } catch (Exception e) {
+                error = e.getMessage();
+                state = State.FAILED;
+                log.error("Replay of {} failed after {} record(s): {}", capture, sent, e.getMessage());
+            } finally {
+                endNanos = System.nanoTime();
+            }
+        }
+
+        private void replay() {
+            TimestampQueue queue = new TimestampQueue();
+            CaptureReader.Frame frame = new CaptureReader.Frame();
+            boolean more = true;
+            long newestRead = Long.MIN_VALUE;
+            long playbackStart = 0;
+
+            while (!stopRequested) {
+                // Read ahead until the window past the earliest pending record is covered
+                while (more && (queue.isEmpty() || newestRead - queue.peekTimestamp() < reorderWindowMillis)) {
+                    more = reader.next();
+                    if (more) {
+                        long timestamp = reader.timestamp(reader.position());
+                        queue.add(timestamp, reader.position());
+                        newestRead = Math.max(newestRead, timestamp);
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+
+                reader.read(queue.poll(), frame);
+                if (firstTimestamp == Long.MIN_VALUE) {
+                    firstTimestamp = frame.timestamp;
+                    playbackStart = System.nanoTime();
+                }
+                lastTimestamp = Math.max(lastTimestamp, frame.timestamp);
+
+                if (speed > 0) {
+                    long due = playbackStart
+                        + (long) (TimeUnit.MILLISECONDS.toNanos(frame.timestamp - firstTimestamp) / speed);
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0 && !stopRequested) {
+                        LockSupport.parkNanos(this, Math.min(wait, MAX_PARK_NANOS));
+                    }
+                    lagNanos = Math.max(0, System.nanoTime() - due);
+                }
+                send(frame);
+            }
+        }
+
+        private void send(CaptureReader.Frame frame) {
+            Integer partition = preservePartitions ? frame.partition : null;
+            int length = frame.value != null ? frame.value.length : 0;
+            sender.send(new ProducerRecord<>(topic, partition, null, frame.key, frame.value, frame.headers))
+                .whenComplete((result, ex) -> {
+                    if (ex == null) {
+                        successful.increment();
+                    } else {
+                        failed.increment();
+                        log.error("Failed to replay record: {}", ex.getMessage());
+                    }
+                });
+            sent++;
+            bytes += length;
+            recordsCounter.increment();
+            bytesCounter.increment(length);
+        }
+
+        ReplayStatus status() {
+            long end = state == State.RUNNING ? System.nanoTime() : endNanos;
+            double elapsed = (end - startNanos) / 1e9;
+            long first = firstTimestamp;
+            return new ReplayStatus(
+                capture,
+                state,
+                speed,
+                startedAt,
+                elapsed,
+                first == Long.MIN_VALUE ? 0 : (lastTimestamp - first) / 1000.0,
+                sent,
+                successful.sum(),
+                failed.sum(),
+                bytes,
+                elapsed > 0 ? sent / elapsed : 0,
+                lagNanos / 1e6,
+                error);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.testproducer.scenario;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Target rate over the course of one phase, in messages per second.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+    @JsonSubTypes.Type(value = LoadShape.Constant.class, names = {"constant", "soak"}),
+    @JsonSubTypes.Type(value = LoadShape.Ramp.class, name = "ramp"),
+    @JsonSubTypes.Type(value = LoadShape.Steps.class, name = "steps"),
+    @JsonSubTypes.Type(value = LoadShape.Spike.class, name = "spike"),
+    @JsonSubTypes.Type(value = LoadShape.Sinusoid.class, name = "sinusoid")
+})
+public sealed interface LoadShape {
+
+    /**
+     * Rate {@code elapsedSeconds} into a phase lasting {@code durationSeconds}.
+     */
+    double rateAt(double elapsedSeconds, double durationSeconds);
+
+    /**
+     * Highest rate the shape can reach in a phase lasting {@code durationSeconds}.
+     */
+    double peakRate(double durationSeconds);
+
+    /**
+     * A flat rate; {@code soak} is an alias for long constant phases.
+     */
+    record Constant(double rate) implements LoadShape {
+        public Constant {
+            requireNonNegative(rate, "rate");
+        }
+
+        @Override
+        public double rateAt(double elapsedSeconds, double durationSeconds) {
+            return rate;
+        }
+
+        @Override
+        public double peakRate(double durationSeconds) {
+            return rate;
+        }
+    }
+
+    /**
+     * Linear change from {@code fromRate} to {@code toRate} over the phase.
+     */
+    record Ramp(double fromRate, double toRate) implements LoadShape {
+        public Ramp {
+            requireNonNegative(fromRate, "fromRate");
+            requireNonNegative(toRate, "toRate");
+        }
+
+        @Override
+        public double rateAt(double elapsedSeconds, double durationSeconds) {
+            double progress = durationSeconds > 0 ? Math.min(1, elapsedSeconds / durationSeconds) : 1;
+            return fromRate + (toRate - fromRate) * progress;
+        }
+
+        @Override
+        public double peakRate(double durationSeconds) {
+            return Math.max(fromRate, toRate);
+        }
+    }
+
+    /**
+     * A ladder starting at {@code fromRate} and adding {@code stepRate} every {@code stepSeconds},
+     * for finding the rate at which the consumer stops keeping up.
+     */
+    record Steps(double fromRate, double stepRate, long stepSeconds) implements LoadShape {
+        public Steps {
+            requireNonNegative(fromRate, "fromRate");
+            if (stepSeconds <= 0) {
+                throw new IllegalArgumentException("stepSeconds must be > 0");
+            }
+        }
+
+        @Override
+        public double rateAt(double elapsedSeconds, double durationSeconds) {
+            return Math.max(0, fromRate + stepRate * Math.floor(elapsedSeconds / stepSeconds));
+        }
+
+        @Override
+        public double peakRate(double durationSeconds) {
+            return Math.max(rateAt(0, durationSeconds), rateAt(Math.max(0, durationSeconds - 1e-9), durationSeconds));
+        }
+    }
+
+    /**
+     * {@code baseRate} with a burst to {@code peakRate} lasting {@code spikeSeconds}, starting
+     * {@code atSeconds} into the phase. The remainder of the phase shows how the consumer recovers.
+     */
+    record Spike(double baseRate, double peakRate, long atSeconds, long spikeSeconds) implements LoadShape {
+        public Spike {
+            requireNonNegative(baseRate, "baseRate");
+            requireNonNegative(peakRate, "peakRate");
+            if (atSeconds < 0 || spikeSeconds <= 0) {
+                throw new IllegalArgumentException("spike needs atSeconds >= 0 and spikeSeconds > 0");
+            }
+        }
+
+        @Override
+        public double rateAt(double elapsedSeconds, double durationSeconds) {
+            boolean inSpike = elapsedSeconds >= atSeconds && elapsedSeconds < atSeconds + spikeSeconds;
+            return inSpike ? peakRate : baseRate;
+        }
+
+        @Override
+        public double peakRate(double durationSeconds) {
+            return Math.max(baseRate, peakRate);
+        }
+    }
+
+    /**
+     * Smooth oscillation between {@code minRate} and {@code maxRate}, starting at the minimum,
+     * e.g. a daily traffic curve compressed into {@code periodSeconds}.
+     */
+    record Sinusoid(double minRate, double maxRate, long periodSeconds) implements LoadShape {
+        public Sinusoid {
+            requireNonNegative(minRate, "minRate");
+            if (maxRate < minRate || periodSeconds <= 0) {
+                throw new IllegalArgumentException("sinusoid needs maxRate >= minRate and periodSeconds > 0");
+            }
+        }
+
+        @Override
+        public double rateAt(double elapsedSeconds, double durationSeconds) {
+            double angle = 2 * Math.PI * elapsedSeconds / periodSeconds;
+            return minRate + (maxRate - minRate) * (1 - Math.cos(angle)) / 2;
+        }
+
+        @Override
+        public double peakRate(double durationSeconds) {
+            return maxRate;
+        }
+    }
+
+    private static void requireNonNegative(double value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must be >= 0");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.testproducer.scenario;
+
+import java.util.List;
+
+/**
+ * A load profile: phases run back to back, each with its own rate shape, and the producer stops
+ * after the last one.
+ */
+public record Scenario(String name, List<ScenarioPhase> phases) {
+
+    public Scenario {
+        if (phases == null || phases.isEmpty()) {
+            throw new IllegalArgumentException("A scenario needs at least one phase");
+        }
+        phases = List.copyOf(phases);
+    }
+
+    public long durationSeconds() {
+        return phases.stream().mapToLong(ScenarioPhase::durationSeconds).sum();
+    }
+
+    public double peakRate() {
+        return phases.stream()
+            .mapToDouble(phase -> phase.shape().peakRate(phase.durationSeconds()))
+            .max()
+            .orElse(0);
+    }
+}
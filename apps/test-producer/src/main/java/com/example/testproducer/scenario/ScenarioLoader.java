@@ -0,0 +1,98 @@
+package com.example.testproducer.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads {@link Scenario}s from YAML or JSON. Documents are parsed with SnakeYAML, which also
+ * accepts JSON, and then bound with Jackson so that both formats share one schema.
+ *
+ * Named scenarios are looked up as {@code <name>.yaml}, {@code <name>.yml} or {@code <name>.json},
+ * first in {@code producer.scenario.directory} if set, then among the bundled
+ * {@code classpath:scenarios/}.
+ */
+@Component
+public class ScenarioLoader {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final List<String> EXTENSIONS = List.of(".yaml", ".yml", ".json");
+
+    private final ObjectMapper objectMapper;
+    private final String directory;
+
+    public ScenarioLoader(ObjectMapper objectMapper,
+                          @Value("${producer.scenario.directory:}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+    }
+
+    public Scenario parse(String document) {
+        Object tree;
+        try {
+            tree = new Yaml(new SafeConstructor(new LoaderOptions())).load(document);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid scenario: " + e.getMessage(), e);
+        }
+        if (tree == null) {
+            throw new IllegalArgumentException("Invalid scenario: empty document");
+        }
+        try {
+            return objectMapper.convertValue(tree, Scenario.class);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid scenario: " + rootMessage(e), e);
+        }
+    }
+
+    public Scenario load(String name) {
+        if (!NAME.matcher(name).matches() || name.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid scenario name: " + name);
+        }
+        for (String extension : EXTENSIONS) {
+            Resource resource = resolve(name + extension);
+            if (resource != null) {
+                try (InputStream in = resource.getInputStream()) {
+                    return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Cannot read scenario " + name, e);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+
+    private Resource resolve(String fileName) {
+        if (directory != null && !directory.isBlank()) {
+            Resource file = new FileSystemResource(Path.of(directory, fileName));
+            if (file.exists()) {
+                return file;
+            }
+        }
+        Resource bundled = new ClassPathResource("scenarios/" + fileName);
+        return bundled.exists() ? bundled : null;
+    }
+
+    /**
+     * Validation failures in the records' constructors surface wrapped by Jackson.
+     */
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return String.valueOf(cause.getMessage());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.testproducer.scenario;
+
+/**
+ * One phase of a {@link Scenario}: a {@link LoadShape} held for {@code durationSeconds}.
+ */
+public record ScenarioPhase(String name, long durationSeconds, LoadShape shape) {
+
+    public ScenarioPhase {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Phase durationSeconds must be > 0");
+        }
+        if (shape == null) {
+            throw new IllegalArgumentException("Phase needs a shape");
+        }
+    }
+}
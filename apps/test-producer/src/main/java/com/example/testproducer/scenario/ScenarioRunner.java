@@ -0,0 +1,271 @@
+package com.example.testproducer.scenario;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Plays a {@link Scenario} by updating the producer's target rate every
+ * {@code producer.scenario.update-millis}, and keeps per-phase statistics.
+ *
+ * A phase's sent, successful and failed counts are the change in the producer's counters between
+ * its start and end, so acknowledgements that arrive after a phase boundary count towards the
+ * next phase. The status of the last scenario stays available until the next one starts.
+ */
+@Component
+public class ScenarioRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ScenarioRunner.class);
+
+    public enum State { RUNNING, COMPLETED, STOPPED }
+
+    private final long updateMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scenario-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Run run;
+    private ScheduledFuture<?> ticker;
+
+    public ScenarioRunner(@Value("${producer.scenario.update-millis:100}") long updateMillis) {
+        this.updateMillis = Math.max(10, updateMillis);
+    }
+
+    /**
+     * Start playing {@code scenario}, replacing any scenario in progress.
+     *
+     * @param rateSetter applies a new target rate to the producer
+     * @param counts     reads the producer's cumulative send counters
+     * @param onFinished called once from the runner thread when the last phase ends
+     */
+    public synchronized void start(Scenario scenario, DoubleConsumer rateSetter,
+                                   Supplier<SendCounts> counts, Runnable onFinished) {
+        start(scenario, Duration.ZERO, rateSetter, counts, onFinished);
+    }
+
+    /**
+     * Start playing {@code scenario} as if it had begun {@code elapsed} ago, e.g. to join a
+     * scenario that other producers are already running.
+     */
+    public synchronized void start(Scenario scenario, Duration elapsed, DoubleConsumer rateSetter,
+                                   Supplier<SendCounts> counts, Runnable onFinished) {
+        cancel();
+        run = new Run(scenario, elapsed, rateSetter, counts, onFinished);
+        run.tick();
+        ticker = scheduler.scheduleAtFixedRate(this::tick, updateMillis, updateMillis, TimeUnit.MILLISECONDS);
+        log.info("Scenario '{}' started: {} phase(s), {}s", scenario.name(), scenario.phases().size(),
+            scenario.durationSeconds());
+    }
+
+    /**
+     * Stop the scenario in progress, if any, without calling its completion callback.
+     */
+    public synchronized void cancel() {
+        if (run == null || run.state != State.RUNNING) {
+            return;
+        }
+        ticker.cancel(false);
+        run.finish(State.STOPPED);
+        log.info("Scenario '{}' stopped", run.scenario.name());
+    }
+
+    public synchronized boolean isRunning() {
+        return run != null && run.state == State.RUNNING;
+    }
+
+    /**
+     * Progress of the current or last scenario, or null if none has run.
+     */
+    public synchronized ScenarioStatus status() {
+        return run != null ? run.status() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void tick() {
+        Runnable onFinished = null;
+        synchronized (this) {
+            if (run == null || run.state != State.RUNNING) {
+                return;
+            }
+            try {
+                if (run.tick()) {
+                    ticker.cancel(false);
+                    log.info("Scenario '{}' completed", run.scenario.name());
+                    onFinished = run.onFinished;
+                }
+            } catch (RuntimeException e) {
+                log.error("Scenario '{}' failed: {}", run.scenario.name(), e.getMessage(), e);
+                ticker.cancel(false);
+                run.finish(State.STOPPED);
+            }
+        }
+        // Outside the lock: the callback stops the producer, which may call back into cancel()
+        if (onFinished != null) {
+            onFinished.run();
+        }
+    }
+
+    private static final class Run {
+        final Scenario scenario;
+        final DoubleConsumer rateSetter;
+        final Supplier<SendCounts> counts;
+        final Runnable onFinished;
+        final Instant startedAt;
+        final long startNanos;
+        final List<PhaseRecord> phases = new ArrayList<>();
+
+        State state = State.RUNNING;
+        int phaseIndex = -1;
+        double targetRate = -1;
+        long lastTickNanos;
+        long finishedNanos;
+
+        Run(Scenario scenario, Duration elapsed, DoubleConsumer rateSetter, Supplier<SendCounts> counts,
+            Runnable onFinished) {
+            this.scenario = scenario;
+            this.startedAt = Instant.now().minus(elapsed);
+            this.startNanos = System.nanoTime() - elapsed.toNanos();
+            this.lastTickNanos = System.nanoTime();
+            this.rateSetter = rateSetter;
+            this.counts = counts;
+            this.onFinished = onFinished;
+        }
+
+        /**
+         * Advance to the current time; returns true once the last phase has ended.
+         */
+        boolean tick() {
+            long now = System.nanoTime();
+            double elapsed = (now - startNanos) / 1e9;
+            if (phaseIndex >= 0) {
+                current().targetIntegral += targetRate * (now - lastTickNanos) / 1e9;
+            }
+            lastTickNanos = now;
+
+            double phaseStart = 0;
+            for (int i = 0; i < scenario.phases().size(); i++) {
+                ScenarioPhase phase = scenario.phases().get(i);
+                if (elapsed < phaseStart + phase.durationSeconds()) {
+                    if (i != phaseIndex) {
+                        enterPhase(i, now);
+                    }
+                    setTargetRate(phase.shape().rateAt(elapsed - phaseStart, phase.durationSeconds()));
+                    return false;
+                }
+                phaseStart += phase.durationSeconds();
+            }
+            finish(State.COMPLETED);
+            return true;
+        }
+
+        void enterPhase(int index, long now) {
+            SendCounts snapshot = counts.get();
+            if (phaseIndex >= 0) {
+                current().close(snapshot, now);
+            }
+            phaseIndex = index;
+            ScenarioPhase phase = scenario.phases().get(index);
+            phases.add(new PhaseRecord(phaseName(phase, index), phase.durationSeconds(), snapshot, now));
+            log.info("Scenario '{}' entering phase '{}'", scenario.name(), current().name);
+        }
+
+        void finish(State finalState) {
+            if (phaseIndex >= 0 && current().end == null) {
+                current().close(counts.get(), System.nanoTime());
+            }
+            state = finalState;
+            finishedNanos = System.nanoTime();
+        }
+
+        void setTargetRate(double rate) {
+            if (rate != targetRate) {
+                targetRate = rate;
+                rateSetter.accept(rate);
+            }
+        }
+
+        PhaseRecord current() {
+            return phases.get(phases.size() - 1);
+        }
+
+        ScenarioStatus status() {
+            long now = System.nanoTime();
+            SendCounts latest = counts.get();
+            List<ScenarioStatus.PhaseStats> phaseStats = new ArrayList<>();
+            for (PhaseRecord phase : phases) {
+                phaseStats.add(phase.stats(latest, now));
+            }
+            String phaseName = state == State.RUNNING && phaseIndex >= 0 ? current().name : null;
+            return new ScenarioStatus(
+                scenario.name(),
+                state,
+                startedAt,
+                ((state == State.RUNNING ? now : finishedNanos) - startNanos) / 1_000_000_000L,
+                scenario.durationSeconds(),
+                phaseName,
+                state == State.RUNNING ? targetRate : 0,
+                phaseStats);
+        }
+
+        private static String phaseName(ScenarioPhase phase, int index) {
+            return phase.name() != null ? phase.name() : "phase-" + (index + 1);
+        }
+    }
+
+    private static final class PhaseRecord {
+        final String name;
+        final long plannedSeconds;
+        final SendCounts start;
+        final long startNanos;
+        double targetIntegral;
+        SendCounts end;
+        long endNanos;
+
+        PhaseRecord(String name, long plannedSeconds, SendCounts start, long startNanos) {
+            this.name = name;
+            this.plannedSeconds = plannedSeconds;
+            this.start = start;
+            this.startNanos = startNanos;
+        }
+
+        void close(SendCounts counts, long nanos) {
+            end = counts;
+            endNanos = nanos;
+        }
+
+        ScenarioStatus.PhaseStats stats(SendCounts latest, long now) {
+            SendCounts until = end != null ? end : latest;
+            double seconds = Math.max(1e-3, ((end != null ? endNanos : now) - startNanos) / 1e9);
+            long sent = until.sent() - start.sent();
+            return new ScenarioStatus.PhaseStats(
+                name,
+                end == null,
+                plannedSeconds,
+                seconds,
+                targetIntegral / seconds,
+                sent / seconds,
+                sent,
+                until.successful() - start.successful(),
+                until.failed() - start.failed());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.testproducer.scenario;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a scenario and the statistics of each phase reached so far.
+ *
+ * @param currentPhase name of the running phase, or null once the scenario has ended
+ * @param targetRate   rate currently requested from the producer
+ */
+public record ScenarioStatus(
+        String name,
+        ScenarioRunner.State state,
+        Instant startedAt,
+        long elapsedSeconds,
+        long durationSeconds,
+        String currentPhase,
+        double targetRate,
+        List<PhaseStats> phases
+) {
+
+    /**
+     * @param active               whether this is the phase currently running
+     * @param targetAverageRate    mean requested rate over the time the phase has run
+     * @param achievedRate         messages handed to Kafka per second during the phase
+     */
+    public record PhaseStats(
+            String name,
+            boolean active,
+            long plannedSeconds,
+            double elapsedSeconds,
+            double targetAverageRate,
+            double achievedRate,
+            long messagesSent,
+            long messagesSuccessful,
+            long messagesFailed
+    ) {}
+}
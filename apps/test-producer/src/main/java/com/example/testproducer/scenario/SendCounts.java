@@ -0,0 +1,6 @@
+package com.example.testproducer.scenario;
+
+/**
+ * Snapshot of the producer's cumulative send counters.
+ */
+public record SendCounts(long sent, long successful, long failed) {}
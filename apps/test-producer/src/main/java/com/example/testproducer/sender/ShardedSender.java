@@ -0,0 +1,114 @@
+package com.example.testproducer.sender;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads sends over several independent Kafka producers ("shards"), each with its own record
+ * accumulator, I/O sender thread and broker connections.
+ *
+ * Records are routed by partition, so each partition is only ever batched by one shard and keeps
+ * full batches and per-key ordering. For keyed records without an explicit partition, the
+ * partition is computed here the way Kafka's default partitioner does it
+ * ({@code murmur2(key) % partitions}), so the distribution over partitions is unchanged. With a
+ * single shard, records are passed through untouched.
+ *
+ * The first shard is the application's {@link KafkaTemplate} bean; the others are created for
+ * this sender and closed with it.
+ */
+public class ShardedSender implements DisposableBean {
+
+    private final List<KafkaTemplate<String, Object>> shards;
+    private final long partitionRefreshNanos;
+    private final Map<String, PartitionCount> partitionCounts = new ConcurrentHashMap<>();
+
+    public ShardedSender(List<KafkaTemplate<String, Object>> shards, long partitionRefreshMillis) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.partitionRefreshNanos = TimeUnit.MILLISECONDS.toNanos(partitionRefreshMillis);
+    }
+
+    /**
+     * Send a record through the shard that owns its partition.
+     *
+     * @param partition explicit partition, or null to derive it from the key
+     */
+    public CompletableFuture<SendResult<String, Object>> send(String topic, Integer partition, String key, Object value) {
+        if (shards.size() == 1) {
+            return shards.get(0).send(topic, partition, key, value);
+        }
+        int target = partition != null ? partition : partitionFor(topic, key);
+        return shards.get(target % shards.size()).send(topic, target, key, value);
+    }
+
+    /**
+     * Send a complete record, e.g. one carrying headers, through the shard that owns its partition.
+     */
+    public CompletableFuture<SendResult<String, Object>> send(ProducerRecord<String, Object> record) {
+        if (shards.size() == 1) {
+            return shards.get(0).send(record);
+        }
+        int target = record.partition() != null ? record.partition() : partitionFor(record.topic(), record.key());
+        return shards.get(target % shards.size()).send(new ProducerRecord<>(
+            record.topic(), target, record.timestamp(), record.key(), record.value(), record.headers()));
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Native client metrics of every shard, for aggregation by the caller.
+     */
+    public List<Map<MetricName, ? extends Metric>> shardMetrics() {
+        return shards.stream().<Map<MetricName, ? extends Metric>>map(KafkaTemplate::metrics).toList();
+    }
+
+    @Override
+    public void destroy() {
+        for (KafkaTemplate<String, Object> shard : shards.subList(1, shards.size())) {
+            if (shard.getProducerFactory() instanceof DefaultKafkaProducerFactory<String, Object> factory) {
+                factory.destroy();
+            }
+        }
+    }
+
+    private int partitionFor(String topic, String key) {
+        int partitions = partitionCount(topic);
+        if (key == null) {
+            return (int) (Thread.currentThread().getId() % partitions);
+        }
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    /**
+     * Partition count of the topic, re-read from the cluster metadata every refresh interval so
+     * that added partitions are picked up.
+     */
+    private int partitionCount(String topic) {
+        long now = System.nanoTime();
+        PartitionCount cached = partitionCounts.get(topic);
+        if (cached == null || now - cached.fetchedNanos > partitionRefreshNanos) {
+            cached = new PartitionCount(shards.get(0).partitionsFor(topic).size(), now);
+            partitionCounts.put(topic, cached);
+        }
+        return cached.count;
+    }
+
+    private record PartitionCount(int count, long fetchedNanos) {}
+}
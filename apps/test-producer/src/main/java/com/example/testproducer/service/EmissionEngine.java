@@ -0,0 +1,269 @@
+package com.example.testproducer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Emits at a target rate by calling an emitter from a pool of worker threads.
+ *
+ * Each worker owns an equal share of the rate as a token bucket refilled from the measured
+ * elapsed time, and on every tick emits all whole tokens as one batch. Because refills are based
+ * on elapsed time rather than on tick counts, late wake-ups and slow batches do not lose rate:
+ * the next batch is simply larger. The bucket is capped at {@code max-burst-ticks} ticks of
+ * tokens, so after a stall (e.g. a blocked send) the engine catches up for a short while instead
+ * of bursting the whole backlog; tokens over the cap are counted as missed.
+ *
+ * Each emission carries its intended send time, the moment its token became due, so that latency
+ * can be measured from the schedule rather than from when a late emitter got around to sending
+ * (coordinated omission). Tokens kept after a stall are the oldest ones, so the stall shows up in
+ * their latency; the dropped ones are skipped in the schedule.
+ *
+ * The rate can be changed while running; workers pick it up on their next tick. The rate actually
+ * emitted is the target capped by an optional limit, which backpressure control lowers when the
+ * Kafka client cannot keep up.
+ */
+@Component
+public class EmissionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(EmissionEngine.class);
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final int workerThreads;
+    private final long tickNanos;
+    private final int maxBurstTicks;
+
+    private final LongAdder emitted = new LongAdder();
+    private final Counter missedCounter;
+
+    private volatile double targetRate;
+    private volatile double rateLimit = Double.POSITIVE_INFINITY;
+    private volatile double achievedRate;
+    private volatile boolean running;
+    // Cleared by stop(); each start gets its own, so a worker that outlives stop() cannot resume
+    private AtomicBoolean generation = new AtomicBoolean();
+    private final List<Thread> workers = new ArrayList<>();
+    private ScheduledExecutorService rateSampler;
+    private long lastSampleNanos;
+    private long lastSampleCount;
+
+    public EmissionEngine(
+            MeterRegistry meterRegistry,
+            @Value("${producer.emission.worker-threads:2}") int workerThreads,
+            @Value("${producer.emission.tick-micros:1000}") long tickMicros,
+            @Value("${producer.emission.max-burst-ticks:10}") int maxBurstTicks) {
+        this.workerThreads = Math.max(1, workerThreads);
+        this.tickNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(50, tickMicros));
+        this.maxBurstTicks = Math.max(1, maxBurstTicks);
+
+        this.missedCounter = meterRegistry.counter("producer.emission.missed");
+        Gauge.builder("producer.rate.target", this, EmissionEngine::getTargetRate)
+            .description("Target emission rate in messages per second")
+            .register(meterRegistry);
+        Gauge.builder("producer.rate.effective", this, EmissionEngine::getEffectiveRate)
+            .description("Target emission rate after backpressure limits, in messages per second")
+            .register(meterRegistry);
+        Gauge.builder("producer.rate.achieved", this, EmissionEngine::getAchievedRate)
+            .description("Measured emission rate in messages per second")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Sends one message.
+     */
+    @FunctionalInterface
+    public interface Emitter {
+
+        /**
+         * @param intendedNanos {@link System#nanoTime()} at which this send was due
+         */
+        void emit(long intendedNanos);
+    }
+
+    /**
+     * Start emitting at {@code ratePerSecond}, calling {@code emitter} once per message.
+     */
+    public synchronized void start(double ratePerSecond, Emitter emitter) {
+        if (running) {
+            return;
+        }
+        this.targetRate = ratePerSecond;
+        this.running = true;
+        AtomicBoolean active = new AtomicBoolean(true);
+        generation = active;
+
+        lastSampleNanos = System.nanoTime();
+        lastSampleCount = emitted.sum();
+        rateSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "emission-rate-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rateSampler.scheduleAtFixedRate(this::sampleRate, 1, 1, TimeUnit.SECONDS);
+
+        for (int i = 0; i < workerThreads; i++) {
+            Thread worker = new Thread(() -> runWorker(active, emitter), "emitter-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Emission engine started: {} msgs/s on {} worker(s), tick {}us",
+            ratePerSecond, workerThreads, TimeUnit.NANOSECONDS.toMicros(tickNanos));
+    }
+
+    /**
+     * Stop emitting. Waits up to a second per worker for its current batch to finish; a worker still
+     * blocked in a send after that exits as soon as the send returns, even if the engine has been
+     * started again meanwhile.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        generation.set(false);
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        rateSampler.shutdownNow();
+        achievedRate = 0;
+    }
+
+    /**
+     * Change the target rate; takes effect on the workers' next tick.
+     */
+    public void setRate(double ratePerSecond) {
+        this.targetRate = ratePerSecond;
+        wakeWorkers();
+    }
+
+    /**
+     * Cap the emitted rate below the target; {@link Double#POSITIVE_INFINITY} removes the cap.
+     */
+    public void setRateLimit(double ratePerSecond) {
+        this.rateLimit = ratePerSecond;
+        wakeWorkers();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Rate the workers are currently emitting at: the target, capped by the rate limit.
+     */
+    public double getEffectiveRate() {
+        return Math.min(targetRate, rateLimit);
+    }
+
+    /**
+     * Emission rate measured over the last second.
+     */
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    private void runWorker(AtomicBoolean active, Emitter emitter) {
+        double tokens = 0;
+        long last = System.nanoTime();
+        double nextDue = last;
+        double lastRatePerNano = 0;
+
+        while (active.get()) {
+            long now = System.nanoTime();
+            double ratePerNano = getEffectiveRate() / workerThreads / 1e9;
+            double capacity = Math.max(1, ratePerNano * tickNanos * maxBurstTicks);
+
+            tokens += (now - last) * ratePerNano;
+            last = now;
+            if (ratePerNano != lastRatePerNano) {
+                // Re-anchor the schedule: the pending tokens became due at the new spacing
+                nextDue = ratePerNano > 0 ? now - tokens / ratePerNano : now;
+                lastRatePerNano = ratePerNano;
+            }
+            double dropped = 0;
+            if (tokens > capacity) {
+                dropped = Math.floor(tokens - capacity);
+                missedCounter.increment(dropped);
+                tokens -= dropped;
+            }
+
+            int batch = (int) tokens;
+            double interval = ratePerNano > 0 ? 1 / ratePerNano : 0;
+            int sent = 0;
+            while (sent < batch && active.get()) {
+                emitter.emit((long) nextDue);
+                nextDue += interval;
+                sent++;
+            }
+            nextDue += dropped * interval;
+            tokens -= batch;
+            emitted.add(sent);
+
+            // Sleep one tick, or until the next token is due at low rates
+            long parkNanos = tickNanos;
+            if (ratePerNano > 0 && tokens < 1) {
+                parkNanos = Math.max(tickNanos, (long) ((1 - tokens) / ratePerNano));
+            } else if (ratePerNano <= 0) {
+                parkNanos = MAX_PARK_NANOS;
+            }
+            long elapsed = System.nanoTime() - now;
+            if (parkNanos > elapsed) {
+                LockSupport.parkNanos(this, Math.min(parkNanos - elapsed, MAX_PARK_NANOS));
+            }
+        }
+    }
+
+    private void wakeWorkers() {
+        List<Thread> current;
+        synchronized (this) {
+            current = List.copyOf(workers);
+        }
+        current.forEach(LockSupport::unpark);
+    }
+
+    private void sampleRate() {
+        long now = System.nanoTime();
+        long count = emitted.sum();
+        achievedRate = (count - lastSampleCount) * 1e9 / (now - lastSampleNanos);
+        lastSampleNanos = now;
+        lastSampleCount = count;
+    }
+}
@@ -1,32 +1,43 @@
 package com.example.testproducer.service;
 
+import com.example.testproducer.backpressure.AdaptiveRateController;
+import com.example.testproducer.keys.AccountKeyStrategy;
+import com.example.testproducer.latency.SendLatencyRecorder;
+import com.example.testproducer.latency.SendLatencyRecorder.LatencyStats;
 import com.example.testproducer.model.AccountMessage;
+import com.example.testproducer.payload.AccountPayloadTemplate;
+import com.example.testproducer.scenario.Scenario;
+import com.example.testproducer.scenario.ScenarioRunner;
+import com.example.testproducer.scenario.ScenarioStatus;
+import com.example.testproducer.scenario.SendCounts;
+import com.example.testproducer.sender.ShardedSender;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.util.UUID;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class MessageProducerService {
 
     private static final Logger log = LoggerFactory.getLogger(MessageProducerService.class);
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ShardedSender sender;
     private final RandomDataGenerator randomDataGenerator;
+    private final AccountKeyStrategy keyStrategy;
     private final MeterRegistry meterRegistry;
+    private final EmissionEngine emissionEngine;
+    private final ScenarioRunner scenarioRunner;
+    private final AdaptiveRateController rateController;
+    private final SendLatencyRecorder latencyRecorder;
 
     @Value("${producer.topic}")
     private String topic;
@@ -37,22 +48,38 @@ public class MessageProducerService {
     @Value("${producer.auto-start:false}")
     private boolean autoStart;
 
-    private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicLong messagesSent = new AtomicLong(0);
-    private final AtomicLong messagesSuccessful = new AtomicLong(0);
-    private final AtomicLong messagesFailed = new AtomicLong(0);
+    @Value("${producer.payload.mode:pojo}")
+    private String payloadMode;
 
-    private ScheduledExecutorService scheduler;
+    // Updated from every emitter thread and send callback, so adders rather than atomics
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesSuccessful = new LongAdder();
+    private final LongAdder messagesFailed = new LongAdder();
+
+    // Fraction of the requested rate this instance emits; below 1 when it shares a cluster-wide rate
+    private volatile double rateShare = 1;
+
+    private AccountPayloadTemplate payloadTemplate;
     private Counter sentCounter;
     private Counter successCounter;
     private Counter failureCounter;
 
-    public MessageProducerService(KafkaTemplate<String, Object> kafkaTemplate,
+    public MessageProducerService(ShardedSender sender,
                                    RandomDataGenerator randomDataGenerator,
-                                   MeterRegistry meterRegistry) {
-        this.kafkaTemplate = kafkaTemplate;
+                                   AccountKeyStrategy keyStrategy,
+                                   MeterRegistry meterRegistry,
+                                   EmissionEngine emissionEngine,
+                                   ScenarioRunner scenarioRunner,
+                                   AdaptiveRateController rateController,
+                                   SendLatencyRecorder latencyRecorder) {
+        this.sender = sender;
         this.randomDataGenerator = randomDataGenerator;
+        this.keyStrategy = keyStrategy;
         this.meterRegistry = meterRegistry;
+        this.emissionEngine = emissionEngine;
+        this.scenarioRunner = scenarioRunner;
+        this.rateController = rateController;
+        this.latencyRecorder = latencyRecorder;
     }
 
     @PostConstruct
@@ -61,6 +88,15 @@ public class MessageProducerService {
         successCounter = meterRegistry.counter("producer.messages.success");
         failureCounter = meterRegistry.counter("producer.messages.failed");
 
+        if ("template".equalsIgnoreCase(payloadMode)) {
+            payloadTemplate = new AccountPayloadTemplate(
+                    RandomDataGenerator.MAX_FIRST_NAME_LENGTH,
+                    RandomDataGenerator.MAX_LAST_NAME_LENGTH,
+                    RandomDataGenerator.ACCOUNT_NUMBER_LENGTH,
+                    RandomDataGenerator.MAX_ACCOUNT_ACTION_LENGTH);
+            log.info("Sending pre-rendered template payloads of {} bytes", payloadTemplate.length());
+        }
+
         if (autoStart) {
             log.info("Auto-starting producer with {} messages/second", messagesPerSecond);
             start();
@@ -68,93 +104,138 @@ public class MessageProducerService {
     }
 
     public synchronized void start() {
-        if (running.get()) {
+        if (emissionEngine.isRunning()) {
             log.warn("Producer is already running");
             return;
         }
 
-        running.set(true);
-        scheduler = Executors.newScheduledThreadPool(2);
-
-        // Calculate interval in microseconds for precise rate control
-        long intervalMicros = 1_000_000L / messagesPerSecond;
-        
-        log.info("Starting producer: {} messages/second (interval: {}μs), topic: {}", 
-                messagesPerSecond, intervalMicros, topic);
-
-        // Use a high-frequency scheduler for precise rate control
-        scheduler.scheduleAtFixedRate(this::sendMessage, 0, intervalMicros, TimeUnit.MICROSECONDS);
+        log.info("Starting producer: {} messages/second, topic: {}", messagesPerSecond * rateShare, topic);
+        latencyRecorder.reset();
+        emissionEngine.start(messagesPerSecond * rateShare, this::sendMessage);
     }
 
     public synchronized void stop() {
-        if (!running.get()) {
+        scenarioRunner.cancel();
+        if (!emissionEngine.isRunning()) {
             log.warn("Producer is not running");
             return;
         }
 
-        running.set(false);
-        if (scheduler != null) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
+        emissionEngine.stop();
         log.info("Producer stopped. Total sent: {}, successful: {}, failed: {}",
-                messagesSent.get(), messagesSuccessful.get(), messagesFailed.get());
+                messagesSent.sum(), messagesSuccessful.sum(), messagesFailed.sum());
     }
 
-    private void sendMessage() {
-        if (!running.get()) {
-            return;
+    /**
+     * Run a load profile, starting the producer if needed; the producer stops when it ends.
+     */
+    public synchronized void startScenario(Scenario scenario) {
+        startScenario(scenario, Duration.ZERO);
+    }
+
+    /**
+     * Join a load profile that started {@code elapsed} ago, starting the producer if needed.
+     */
+    public synchronized void startScenario(Scenario scenario, Duration elapsed) {
+        if (!emissionEngine.isRunning()) {
+            log.info("Starting producer for scenario '{}', topic: {}", scenario.name(), topic);
+            latencyRecorder.reset();
+            emissionEngine.start(0, this::sendMessage);
         }
+        scenarioRunner.start(scenario, elapsed, this::applyRate, this::sendCounts, this::stop);
+    }
 
+    /**
+     * Stop the running scenario and the producer with it.
+     */
+    public synchronized void stopScenario() {
+        scenarioRunner.cancel();
+        stop();
+    }
+
+    private void sendMessage(long intendedNanos) {
         try {
-            AccountMessage message = randomDataGenerator.generateRandomAccountMessage();
-            String key = UUID.randomUUID().toString();
+            String accountNumber = keyStrategy.nextAccountNumber();
+            Object payload = null;
+            if (payloadTemplate != null) {
+                if (accountNumber == null) {
+                    accountNumber = randomDataGenerator.generateAccountNumber();
+                }
+                payload = payloadTemplate.render(
+                        randomDataGenerator.getRandomFirstName(),
+                        randomDataGenerator.getRandomLastName(),
+                        accountNumber,
+                        randomDataGenerator.getRandomAccountAction(),
+                        Instant.now());
+            }
+            if (payload == null) {
+                AccountMessage message = randomDataGenerator.generateAccountMessage(accountNumber);
+                accountNumber = message.getAccountNumber();
+                payload = message;
+            }
 
-            CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(topic, key, message);
-            messagesSent.incrementAndGet();
+            // Keyed by account so that each account's messages stay in order on one partition.
+            // send() only blocks when the buffer is full or metadata is missing, so its duration
+            // is a direct backpressure signal
+            long sendStart = System.nanoTime();
+            CompletableFuture<SendResult<String, Object>> future =
+                    sender.send(topic, keyStrategy.partitionFor(accountNumber), accountNumber, payload);
+            rateController.recordSendDuration(System.nanoTime() - sendStart);
+            messagesSent.increment();
             sentCounter.increment();
 
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
-                    messagesSuccessful.incrementAndGet();
+                    latencyRecorder.record(intendedNanos, sendStart, System.nanoTime());
+                    messagesSuccessful.increment();
                     successCounter.increment();
-                    if (messagesSuccessful.get() % 1000 == 0) {
-                        log.debug("Sent {} messages successfully", messagesSuccessful.get());
-                    }
                 } else {
-                    messagesFailed.incrementAndGet();
+                    messagesFailed.increment();
                     failureCounter.increment();
                     log.error("Failed to send message: {}", ex.getMessage());
                 }
             });
         } catch (Exception e) {
-            messagesFailed.incrementAndGet();
+            messagesFailed.increment();
             failureCounter.increment();
             log.error("Error producing message: {}", e.getMessage());
         }
     }
 
+    /**
+     * Change the rate; a running producer picks it up on its next tick without restarting.
+     * A running scenario is stopped so that the manual rate sticks.
+     */
     public void setMessagesPerSecond(int rate) {
-        boolean wasRunning = running.get();
-        if (wasRunning) {
-            stop();
+        if (scenarioRunner.isRunning()) {
+            scenarioRunner.cancel();
         }
-        this.messagesPerSecond = rate;
+        applyRate(rate);
         log.info("Rate changed to {} messages/second", rate);
-        if (wasRunning) {
-            start();
+    }
+
+    /**
+     * Emit only {@code share} of every requested rate, manual or from a scenario, from now on.
+     */
+    public void setRateShare(double share) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("Rate share must be between 0 and 1");
         }
+        this.rateShare = share;
+        emissionEngine.setRate(messagesPerSecond * share);
+    }
+
+    private void applyRate(double rate) {
+        this.messagesPerSecond = (int) Math.round(rate);
+        emissionEngine.setRate(rate * rateShare);
+    }
+
+    private SendCounts sendCounts() {
+        return new SendCounts(messagesSent.sum(), messagesSuccessful.sum(), messagesFailed.sum());
     }
 
     public boolean isRunning() {
-        return running.get();
+        return emissionEngine.isRunning();
     }
 
     public int getMessagesPerSecond() {
@@ -163,29 +244,44 @@ public class MessageProducerService {
 
     public ProducerStats getStats() {
         return new ProducerStats(
-                running.get(),
+                emissionEngine.isRunning(),
                 messagesPerSecond,
-                messagesSent.get(),
-                messagesSuccessful.get(),
-                messagesFailed.get(),
-                topic
+                rateShare,
+                emissionEngine.isRunning() ? emissionEngine.getEffectiveRate() : 0,
+                emissionEngine.getAchievedRate(),
+                messagesSent.sum(),
+                messagesSuccessful.sum(),
+                messagesFailed.sum(),
+                latencyRecorder.snapshot(),
+                rateController.getThrottleEvents(),
+                sender.shardCount(),
+                topic,
+                scenarioRunner.status()
         );
     }
 
     public void resetStats() {
-        messagesSent.set(0);
-        messagesSuccessful.set(0);
-        messagesFailed.set(0);
+        messagesSent.reset();
+        messagesSuccessful.reset();
+        messagesFailed.reset();
+        latencyRecorder.reset();
         log.info("Stats reset");
     }
 
     public record ProducerStats(
             boolean running,
             int messagesPerSecond,
+            double rateShare,
+            double effectiveMessagesPerSecond,
+            double achievedMessagesPerSecond,
             long messagesSent,
             long messagesSuccessful,
             long messagesFailed,
-            String topic
+            LatencyStats latency,
+            long throttleEvents,
+            int senderShards,
+            String topic,
+            ScenarioStatus scenario
     ) {}
 }
 
@@ -1,17 +1,32 @@
 package com.example.testproducer.service;
 
 import com.example.testproducer.model.AccountMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.UUID;
 
+/**
+ * Generates random account messages and record keys.
+ *
+ * Every thread draws from its own {@link SplittableRandom} stream, so emitter threads never
+ * contend on a shared seed, and IDs come from those streams rather than from
+ * {@link UUID#randomUUID()}'s SecureRandom. With {@code producer.generator.seed} set, each
+ * thread's stream is derived from the seed and the thread name, so emitter {@code n} produces the
+ * same sequence in every run with that seed regardless of which thread starts first.
+ *
+ * With {@code producer.generator.pool-size} above zero, names, account numbers and actions are
+ * pre-generated once and each message only picks a pooled entry and stamps the current time.
+ */
 @Service
 public class RandomDataGenerator {
 
-    private final Random random = new Random();
+    private static final Logger log = LoggerFactory.getLogger(RandomDataGenerator.class);
 
     private static final List<String> FIRST_NAMES = List.of(
             "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
@@ -32,30 +47,132 @@ public class RandomDataGenerator {
             "VERIFY", "CLOSE", "TRANSFER", "UPGRADE", "DOWNGRADE"
     );
 
+    /**
+     * Longest values the generator produces, e.g. for fixed-width payload templates.
+     */
+    public static final int MAX_FIRST_NAME_LENGTH = maxLength(FIRST_NAMES);
+    public static final int MAX_LAST_NAME_LENGTH = maxLength(LAST_NAMES);
+    public static final int MAX_ACCOUNT_ACTION_LENGTH = maxLength(ACCOUNT_ACTIONS);
+    public static final int ACCOUNT_NUMBER_LENGTH = "ACC-XXXXXXXX".length();
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final Long seed;
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> random;
+    private final AccountMessage[] pool;
+
+    public RandomDataGenerator(
+            @Value("${producer.generator.seed:#{null}}") Long seed,
+            @Value("${producer.generator.pool-size:0}") int poolSize) {
+        this.seed = seed;
+        this.root = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+        this.random = ThreadLocal.withInitial(this::nextStream);
+        this.pool = poolSize > 0 ? buildPool(poolSize) : null;
+
+        if (seed != null || pool != null) {
+            log.info("Random data generator: seed {}, pool size {}", seed, poolSize);
+        }
+    }
+
     public AccountMessage generateRandomAccountMessage() {
+        return generateAccountMessage(null);
+    }
+
+    /**
+     * A random message for the given account, or for a random account if {@code accountNumber} is null.
+     */
+    public AccountMessage generateAccountMessage(String accountNumber) {
+        if (pool != null) {
+            AccountMessage template = pool[random.get().nextInt(pool.length)];
+            return new AccountMessage(
+                    template.getFirstName(),
+                    template.getLastName(),
+                    accountNumber != null ? accountNumber : template.getAccountNumber(),
+                    template.getAccountAction(),
+                    Instant.now()
+            );
+        }
+        SplittableRandom r = random.get();
         return new AccountMessage(
-                getRandomFirstName(),
-                getRandomLastName(),
-                generateAccountNumber(),
-                getRandomAccountAction(),
+                pick(FIRST_NAMES, r),
+                pick(LAST_NAMES, r),
+                accountNumber != null ? accountNumber : formatAccountNumber(r.nextInt()),
+                pick(ACCOUNT_ACTIONS, r),
                 Instant.now()  // Set producer timestamp
         );
     }
 
+    /**
+     * A random UUID-formatted record key. Not cryptographically random, which a partitioning key
+     * does not need.
+     */
+    public String generateKey() {
+        SplittableRandom r = random.get();
+        return new UUID(r.nextLong(), r.nextLong()).toString();
+    }
+
     public String getRandomFirstName() {
-        return FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size()));
+        return pick(FIRST_NAMES, random.get());
     }
 
     public String getRandomLastName() {
-        return LAST_NAMES.get(random.nextInt(LAST_NAMES.size()));
+        return pick(LAST_NAMES, random.get());
     }
 
     public String generateAccountNumber() {
-        // Generate account number format: ACC-XXXXXXXX (8 hex chars)
-        return "ACC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return formatAccountNumber(random.get().nextInt());
     }
 
     public String getRandomAccountAction() {
-        return ACCOUNT_ACTIONS.get(random.nextInt(ACCOUNT_ACTIONS.size()));
+        return pick(ACCOUNT_ACTIONS, random.get());
+    }
+
+    /**
+     * The calling thread's random stream, for other generators that should follow the same seed.
+     */
+    public SplittableRandom threadRandom() {
+        return random.get();
+    }
+
+    /**
+     * Account number format: ACC-XXXXXXXX, the 8 hex digits of {@code bits}.
+     */
+    public static String formatAccountNumber(int bits) {
+        char[] chars = {'A', 'C', 'C', '-', 0, 0, 0, 0, 0, 0, 0, 0};
+        for (int i = chars.length - 1; i >= 4; i--) {
+            chars[i] = HEX_DIGITS[bits & 0xF];
+            bits >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    private SplittableRandom nextStream() {
+        if (seed != null) {
+            return new SplittableRandom(seed ^ (GOLDEN_GAMMA * Thread.currentThread().getName().hashCode()));
+        }
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    private AccountMessage[] buildPool(int size) {
+        SplittableRandom r = seed != null ? new SplittableRandom(seed) : nextStream();
+        AccountMessage[] messages = new AccountMessage[size];
+        for (int i = 0; i < size; i++) {
+            messages[i] = new AccountMessage(
+                    pick(FIRST_NAMES, r), pick(LAST_NAMES, r), formatAccountNumber(r.nextInt()), pick(ACCOUNT_ACTIONS, r), null);
+        }
+        return messages;
+    }
+
+    private static int maxLength(List<String> values) {
+        return values.stream().mapToInt(String::length).max().orElse(0);
+    }
+
+    private static String pick(List<String> values, SplittableRandom r) {
+        return values.get(r.nextInt(values.size()));
     }
 }
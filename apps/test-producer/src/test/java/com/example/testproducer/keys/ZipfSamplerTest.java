@@ -0,0 +1,76 @@
+package com.example.testproducer.keys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ZipfSamplerTest {
+
+    private static final int SAMPLES = 500_000;
+
+    @Test
+    void frequenciesFollowZipfWithExponentOne() {
+        assertFrequencies(10, 1.0);
+    }
+
+    @Test
+    void frequenciesFollowZipfWithSteepExponent() {
+        assertFrequencies(50, 1.8);
+    }
+
+    @Test
+    void frequenciesFollowZipfWithShallowExponent() {
+        assertFrequencies(20, 0.5);
+    }
+
+    @Test
+    void staysWithinRanks() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.2);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(sampler.sample(random)).isBetween(1, 1_000);
+        }
+    }
+
+    @Test
+    void singleRankAlwaysReturnsOne() {
+        ZipfSampler sampler = new ZipfSampler(1, 1.0);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(sampler.sample(random)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> new ZipfSampler(0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ZipfSampler(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Compares the observed share of each rank with {@code (1 / k^s) / H(n, s)}, allowing about
+     * five standard errors of the sampled proportion.
+     */
+    private static void assertFrequencies(int n, double exponent) {
+        ZipfSampler sampler = new ZipfSampler(n, exponent);
+        SplittableRandom random = new SplittableRandom(42);
+        long[] counts = new long[n + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        double normalization = 0;
+        for (int k = 1; k <= n; k++) {
+            normalization += 1 / Math.pow(k, exponent);
+        }
+        for (int k = 1; k <= n; k++) {
+            double expected = 1 / Math.pow(k, exponent) / normalization;
+            double tolerance = 5 * Math.sqrt(expected * (1 - expected) / SAMPLES);
+            assertThat((double) counts[k] / SAMPLES).as("share of rank %d", k).isCloseTo(expected, within(tolerance));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.testproducer.payload;
+
+import com.example.testproducer.model.AccountMessage;
+import com.example.testproducer.service.RandomDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per message of producing the value bytes handed to the Kafka client: building an
+ * {@link AccountMessage} and serializing it to JSON, against patching a pre-rendered
+ * {@link AccountPayloadTemplate}.
+ *
+ * Run with {@code mvn test -Pjmh}, which adds {@code -prof gc} to compare allocation per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AccountPayloadTemplateBenchmark {
+
+    private RandomDataGenerator generator;
+    private AccountPayloadTemplate template;
+    private PassThroughJsonSerializer serializer;
+
+    @Setup
+    public void setUp() {
+        generator = new RandomDataGenerator(42L, 0);
+        template = new AccountPayloadTemplate(
+                RandomDataGenerator.MAX_FIRST_NAME_LENGTH,
+                RandomDataGenerator.MAX_LAST_NAME_LENGTH,
+                RandomDataGenerator.ACCOUNT_NUMBER_LENGTH,
+                RandomDataGenerator.MAX_ACCOUNT_ACTION_LENGTH);
+        serializer = new PassThroughJsonSerializer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public byte[] pojo() {
+        return serializer.serialize("benchmark", generator.generateRandomAccountMessage());
+    }
+
+    @Benchmark
+    public byte[] template() {
+        byte[] payload = template.render(
+                generator.getRandomFirstName(),
+                generator.getRandomLastName(),
+                generator.generateAccountNumber(),
+                generator.getRandomAccountAction(),
+                Instant.now());
+        return serializer.serialize("benchmark", payload);
+    }
+}
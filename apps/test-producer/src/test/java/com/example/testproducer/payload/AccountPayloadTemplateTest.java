@@ -0,0 +1,98 @@
+package com.example.testproducer.payload;
+
+import com.example.testproducer.model.AccountMessage;
+import com.example.testproducer.service.RandomDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountPayloadTemplateTest {
+
+    private static final String TOPIC = "accounts";
+    private static final Instant PRODUCER_TS = Instant.ofEpochSecond(1_760_000_000L, 123_456_789);
+
+    private final AccountPayloadTemplate template = new AccountPayloadTemplate(
+            RandomDataGenerator.MAX_FIRST_NAME_LENGTH,
+            RandomDataGenerator.MAX_LAST_NAME_LENGTH,
+            RandomDataGenerator.ACCOUNT_NUMBER_LENGTH,
+            RandomDataGenerator.MAX_ACCOUNT_ACTION_LENGTH);
+    private final PassThroughJsonSerializer serializer = new PassThroughJsonSerializer();
+    private final JsonSerializer<AccountMessage> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<AccountMessage> deserializer = new JsonDeserializer<>(AccountMessage.class, false);
+
+    @AfterEach
+    void tearDown() {
+        serializer.close();
+        jsonSerializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    void renderedPayloadParsesLikeSerializedMessage() {
+        AccountMessage expected = new AccountMessage("Christopher", "Rodriguez", "ACC-1A2B3C4D", "DEACTIVATE", PRODUCER_TS);
+
+        byte[] rendered = template.render("Christopher", "Rodriguez", "ACC-1A2B3C4D", "DEACTIVATE", PRODUCER_TS);
+
+        assertThat(rendered).isNotNull();
+        assertThat(rendered.length).isEqualTo(template.length());
+        assertSameMessage(deserializer.deserialize(TOPIC, rendered), expected);
+        assertSameMessage(deserializer.deserialize(TOPIC, jsonSerializer.serialize(TOPIC, expected)), expected);
+    }
+
+    @Test
+    void shorterValuesAfterLongerOnesLeaveNoTrailingBytes() {
+        template.render("Christopher", "Rodriguez", "ACC-1A2B3C4D", "DEACTIVATE", PRODUCER_TS);
+        Instant wholeSecond = Instant.ofEpochSecond(1_760_000_001L);
+
+        byte[] rendered = template.render("Al", "Li", "A", "", wholeSecond);
+
+        assertSameMessage(deserializer.deserialize(TOPIC, rendered), new AccountMessage("Al", "Li", "A", "", wholeSecond));
+    }
+
+    @Test
+    void tooLongValueFallsBackToSerializedMessage() {
+        String longName = "X".repeat(RandomDataGenerator.MAX_FIRST_NAME_LENGTH + 1);
+
+        assertThat(template.render(longName, "Rodriguez", "ACC-1A2B3C4D", "CREATE", PRODUCER_TS)).isNull();
+        assertFallbackRoundTrips(new AccountMessage(longName, "Rodriguez", "ACC-1A2B3C4D", "CREATE", PRODUCER_TS));
+    }
+
+    @Test
+    void nonAsciiValueFallsBackToSerializedMessage() {
+        assertThat(template.render("José", "Müller", "ACC-1A2B3C4D", "CREATE", PRODUCER_TS)).isNull();
+        assertFallbackRoundTrips(new AccountMessage("José", "Müller", "ACC-1A2B3C4D", "CREATE", PRODUCER_TS));
+    }
+
+    @Test
+    void valueNeedingEscapesFallsBackToSerializedMessage() {
+        assertThat(template.render("Say \"hi\"", "Back\\slash", "ACC-1A2B3C4D", "CREATE", PRODUCER_TS)).isNull();
+        assertFallbackRoundTrips(new AccountMessage("Say \"hi\"", "Back\\slash", "ACC-1A2B3C4D", "CREATE", PRODUCER_TS));
+    }
+
+    @Test
+    void passThroughSerializerSendsRenderedBytesUnchanged() {
+        byte[] rendered = template.render("Christopher", "Rodriguez", "ACC-1A2B3C4D", "DEACTIVATE", PRODUCER_TS);
+
+        assertThat(serializer.serialize(TOPIC, rendered)).isSameAs(rendered);
+    }
+
+    /**
+     * What the producer sends when the template declines: the message itself, serialized as JSON.
+     */
+    private void assertFallbackRoundTrips(AccountMessage message) {
+        assertSameMessage(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, message)), message);
+    }
+
+    private static void assertSameMessage(AccountMessage actual, AccountMessage expected) {
+        assertThat(actual.getFirstName()).isEqualTo(expected.getFirstName());
+        assertThat(actual.getLastName()).isEqualTo(expected.getLastName());
+        assertThat(actual.getAccountNumber()).isEqualTo(expected.getAccountNumber());
+        assertThat(actual.getAccountAction()).isEqualTo(expected.getAccountAction());
+        assertThat(actual.getProducerTs()).isEqualTo(expected.getProducerTs());
+    }
+}
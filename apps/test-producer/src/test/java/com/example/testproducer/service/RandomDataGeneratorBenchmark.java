@@ -0,0 +1,98 @@
+package com.example.testproducer.service;
+
+import com.example.testproducer.model.AccountMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per message of generating a payload and record key, next to the cost of serializing it,
+ * which every send pays on the emitter thread before the record reaches the Kafka client.
+ *
+ * {@code legacy} reproduces the previous generator (one shared {@link Random} and
+ * {@link UUID#randomUUID()} for the account number and key) as a baseline. Runs on 4 threads by
+ * default so that contention on a shared seed shows; override with {@code -t}.
+ *
+ * Run with {@code mvn test -Pjmh}, which adds {@code -prof gc} for allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RandomDataGeneratorBenchmark {
+
+    private static final List<String> NAMES = List.of("James", "Mary", "John", "Patricia", "Robert", "Jennifer");
+    private static final List<String> ACTIONS = List.of("CREATE", "UPDATE", "DELETE", "ACTIVATE");
+
+    private final Random sharedRandom = new Random();
+
+    private RandomDataGenerator generator;
+    private RandomDataGenerator pooledGenerator;
+    private JsonSerializer<AccountMessage> serializer;
+    private AccountMessage sample;
+
+    @Setup
+    public void setUp() {
+        generator = new RandomDataGenerator(42L, 0);
+        pooledGenerator = new RandomDataGenerator(42L, 65_536);
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        sample = generator.generateRandomAccountMessage();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        AccountMessage message = new AccountMessage(
+                NAMES.get(sharedRandom.nextInt(NAMES.size())),
+                NAMES.get(sharedRandom.nextInt(NAMES.size())),
+                "ACC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
+                ACTIONS.get(sharedRandom.nextInt(ACTIONS.size())),
+                Instant.now());
+        String key = UUID.randomUUID().toString();
+        return key.length() > 0 ? message : null;
+    }
+
+    @Benchmark
+    public Object splittable() {
+        AccountMessage message = generator.generateRandomAccountMessage();
+        String key = generator.generateKey();
+        return key.length() > 0 ? message : null;
+    }
+
+    @Benchmark
+    public Object pooled() {
+        AccountMessage message = pooledGenerator.generateRandomAccountMessage();
+        String key = pooledGenerator.generateKey();
+        return key.length() > 0 ? message : null;
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize("benchmark", sample);
+    }
+}
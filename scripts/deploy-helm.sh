@@ -136,6 +136,7 @@ deploy_test_consumer() {
         --set config.kafka.topic="$EVENT_HUB_NAME" \
         --set config.kafka.topicDlq="${EVENT_HUB_NAME}-dlq" \
         --set config.kafka.topicError="${EVENT_HUB_NAME}-error" \
+        --set config.kafka.topicQuarantine="${EVENT_HUB_NAME}-quarantine" \
         --set config.database.host="$SQL_SERVER_FQDN" \
         --set config.database.name="$SQL_DATABASE_NAME" \
         --set secrets.eventHubConnectionString="$EVENT_HUB_CONNECTION_STRING" \
@@ -199,6 +200,7 @@ test-consumer:
       topic: "${EVENT_HUB_NAME}"
       topicDlq: "${EVENT_HUB_NAME}-dlq"
       topicError: "${EVENT_HUB_NAME}-error"
+      topicQuarantine: "${EVENT_HUB_NAME}-quarantine"
     
     database:
       host: "${SQL_SERVER_FQDN}"